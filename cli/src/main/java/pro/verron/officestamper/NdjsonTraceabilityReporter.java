@@ -0,0 +1,116 @@
+package pro.verron.officestamper;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.api.TraceabilityReporter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/// A TraceabilityReporter writing each resolution as soon as it happens, as a
+/// line of JSON (NDJSON), instead of keeping every resolution in memory until
+/// the end of the run like [TraceabilityReport].
+///
+/// Values and context objects are summarized without rendering them whole:
+/// texts are truncated, collections, maps and arrays are reduced to their type
+/// and size, and other objects to their type, so that large values, such as
+/// images or context beans, are never converted to strings. Writes are
+/// synchronized, so a single reporter can be shared by concurrent stamps.
+public final class NdjsonTraceabilityReporter
+        implements TraceabilityReporter, Closeable {
+
+    private static final int MAX_SUMMARY_LENGTH = 200;
+
+    private final Writer writer;
+    private final ObjectWriter json;
+
+    /// Creates a reporter writing to the given writer.
+    ///
+    /// @param writer the writer receiving a line per resolution.
+    public NdjsonTraceabilityReporter(Writer writer) {
+        this.writer = writer;
+        this.json = SerializationUtils.newMapper()
+                                      .writer();
+    }
+
+    /// Creates a reporter writing to the file at the given path, replacing it.
+    ///
+    /// @param path the path of the report file.
+    /// @return the reporter, to be closed once the run is over.
+    public static NdjsonTraceabilityReporter create(Path path) {
+        var stream = PathUtils.createOutputStream(path);
+        var writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+        return new NdjsonTraceabilityReporter(new BufferedWriter(writer));
+    }
+
+    static @Nullable Object summarize(@Nullable Object value) {
+        return switch (value) {
+            case null -> null;
+            case Boolean bool -> bool;
+            case Number number -> number;
+            case Character character -> character.toString();
+            case Enum<?> constant -> constant.name();
+            case CharSequence chars -> truncate(chars);
+            case Collection<?> collection -> sized(collection, collection.size());
+            case Map<?, ?> map -> sized(map, map.size());
+            case Object array when array.getClass()
+                                        .isArray() -> sized(array, Array.getLength(array));
+            default -> value.getClass()
+                            .getName();
+        };
+    }
+
+    private static String truncate(CharSequence chars) {
+        if (chars.length() <= MAX_SUMMARY_LENGTH) return chars.toString();
+        return chars.subSequence(0, MAX_SUMMARY_LENGTH) + "…";
+    }
+
+    private static String sized(Object value, int size) {
+        return value.getClass()
+                    .getTypeName() + "[size=" + size + "]";
+    }
+
+    @Override
+    public void onResolution(
+            String expression,
+            @Nullable Object value,
+            List<Object> contextStack
+    ) {
+        var resolution = new LinkedHashMap<String, @Nullable Object>();
+        resolution.put("expression", expression);
+        resolution.put("type", value == null ? null : value.getClass().getName());
+        resolution.put("value", summarize(value));
+        var context = new ArrayList<@Nullable Object>(contextStack.size());
+        for (var element : contextStack) context.add(summarize(element));
+        resolution.put("contextStack", context);
+        try {
+            var line = json.writeValueAsString(resolution);
+            synchronized (writer) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new OfficeStamperException("Failed to write the traceability report", e);
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+}
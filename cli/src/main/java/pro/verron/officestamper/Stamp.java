@@ -8,6 +8,7 @@ import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.api.TraceabilityReporter;
 import pro.verron.officestamper.preset.ExceptionResolvers;
 import pro.verron.officestamper.preset.OfficeStamperConfigurations;
 
@@ -86,6 +87,14 @@ public class Stamp implements Runnable {
     )
     private String traceReportPath;
 
+    @Option(
+            names = {"--trace-report-format"},
+            defaultValue = "json",
+            description = "Traceability report format: 'json' (default), written at the end of the run, or 'ndjson', "
+                          + "streaming a summarized line per placeholder resolution"
+    )
+    private String traceReportFormat;
+
     @Option(
             names = {"--watch"},
             description = "Watch template and data files for changes and re-run stamping automatically"
@@ -101,6 +110,13 @@ public class Stamp implements Runnable {
     private String logFormat;
 
 
+    @Option(
+            names = {"--snapshot-dir"},
+            required = false,
+            description = "Optional cache directory of prepared .docx templates, rebuilt whenever the template changes"
+    )
+    private @Nullable Path snapshotDir;
+
     @Option(names = {"--bind-env"}, description = "Expose environment variables in the SpEL context as 'env'")
     private boolean bindEnv;
 
@@ -207,6 +223,7 @@ public class Stamp implements Runnable {
 
     private void runOnce() {
         var traceabilityReport = new TraceabilityReport(now(), templatePath, dataPath);
+        var traceabilityReporter = traceabilityReporter(traceabilityReport);
         // Normalize log format
         var lf = getLogFormat();
 
@@ -252,13 +269,13 @@ public class Stamp implements Runnable {
                             outputFilePath)) {
                         var context = wrapContext(item.context(), bindEnv);
                         var configuration = OfficeStamperConfigurations.standard();
-                        configuration.setTraceabilityReporter(traceabilityReport);
+                        configuration.setTraceabilityReporter(traceabilityReporter);
                         if (dryRun) {
                             configuration.setExceptionResolver(ExceptionResolvers.throwing());
-                            ext.stamp(templateStream, context, configuration, out);
+                            ext.stamp(templateStream, context, configuration, out, snapshotDir);
                             results.add(new RunResult(item.name(), "ok", null, null));
                         } else {
-                            ext.stamp(templateStream, context, configuration, out);
+                            ext.stamp(templateStream, context, configuration, out, snapshotDir);
                             results.add(new RunResult(item.name(), "ok", outputFilePath.toString(), null));
                         }
 
@@ -289,35 +306,62 @@ public class Stamp implements Runnable {
             try (var templateStream = "diagnostic".equals(templatePath) ? Diagnostic.template() : PathUtils.streamFile(
                     Path.of(templatePath))) {
                 var configuration = OfficeStamperConfigurations.standard();
-                configuration.setTraceabilityReporter(traceabilityReport);
+                configuration.setTraceabilityReporter(traceabilityReporter);
                 if (dryRun) {
                     // Validate: fail on unresolved placeholders but do not
                     // write any file
                     configuration.setExceptionResolver(ExceptionResolvers.throwing());
-                    ext.stamp(templateStream, context, configuration, OutputStream.nullOutputStream());
+                    ext.stamp(templateStream, context, configuration, OutputStream.nullOutputStream(), snapshotDir);
                     lf.emit("INFO", "Validation successful (dry-run)", null);
                     Object reportData = createStatusReport("ok", null);
                     if (printRunReport) writeReport(reportData, Path.of(runReportPath));
-                    if (printTraceReport) writeReport(traceabilityReport, Path.of(traceReportPath));
+                    writeTraceReport(traceabilityReporter, traceabilityReport);
                     return;
                 }
 
                 // Real stamping (single file)
                 try (var outputStream = PathUtils.createOutputStream(Path.of(outputPath))) {
-                    ext.stamp(templateStream, context, configuration, outputStream);
+                    ext.stamp(templateStream, context, configuration, outputStream, snapshotDir);
                 }
             }
 
             lf.emit("INFO", "Stamping completed", Map.of("output", outputPath));
             Object reportData = createStatusReport("ok", null);
             if (printRunReport) writeReport(reportData, Path.of(runReportPath));
-            if (printTraceReport) writeReport(traceabilityReport, Path.of(traceReportPath));
+            writeTraceReport(traceabilityReporter, traceabilityReport);
         } catch (Exception e) {
             lf.emit("ERROR", e.getMessage(), Map.of("exception", e.getClass().getSimpleName()));
             Object reportData = createStatusReport("error", e.getMessage());
             if (printRunReport) writeReport(reportData, Path.of(runReportPath));
             // Re-throw to ensure non-zero exit code from picocli
             throw (e instanceof RuntimeException re) ? re : new OfficeStamperException(e);
+        } finally {
+            closeTraceReport(traceabilityReporter);
+        }
+    }
+
+    private TraceabilityReporter traceabilityReporter(TraceabilityReport traceabilityReport) {
+        if (!printTraceReport) return TraceabilityReporter.noop();
+        var format = traceReportFormat.trim().toLowerCase();
+        return switch (format) {
+            case "ndjson" -> NdjsonTraceabilityReporter.create(Path.of(traceReportPath));
+            default -> traceabilityReport;
+        };
+    }
+
+    /// Writes the JSON traceability report, when it is the one collecting the resolutions: a streamed report is
+    /// already written, and no report is collected at all unless requested.
+    private void writeTraceReport(TraceabilityReporter traceabilityReporter, TraceabilityReport traceabilityReport) {
+        if (traceabilityReporter == traceabilityReport) writeReport(traceabilityReport, Path.of(traceReportPath));
+    }
+
+    private static void closeTraceReport(TraceabilityReporter traceabilityReporter) {
+        if (!(traceabilityReporter instanceof NdjsonTraceabilityReporter reporter)) return;
+        try {
+            reporter.close();
+        } catch (Exception e) {
+            // Best-effort: do not fail the run because report writing failed
+            logger.atWarn().setCause(e).log("Failed to write report: {}", e.getMessage());
         }
     }
 
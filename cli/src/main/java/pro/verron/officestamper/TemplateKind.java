@@ -1,10 +1,12 @@
 package pro.verron.officestamper;
 
+import org.jspecify.annotations.Nullable;
 import pro.verron.officestamper.api.OfficeStamperConfiguration;
 import pro.verron.officestamper.api.OfficeStamperException;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
 
 import static pro.verron.officestamper.experimental.ExperimentalStampers.pptxStamper;
 import static pro.verron.officestamper.preset.OfficeStampers.docxStamper;
@@ -12,12 +14,13 @@ import static pro.verron.officestamper.preset.OfficeStampers.docxStamper;
 enum TemplateKind {
     WORD {
         @Override
-        void stamp(InputStream templateStream, Object context, OfficeStamperConfiguration configuration, OutputStream os) {
-            docxStamper(configuration).stamp(templateStream, context, os);
+        void stamp(InputStream templateStream, Object context, OfficeStamperConfiguration configuration, OutputStream os, @Nullable Path snapshotDir) {
+            var stamper = snapshotDir == null ? docxStamper(configuration) : docxStamper(configuration, snapshotDir);
+            stamper.stamp(templateStream, context, os);
         }
     }, POWERPOINT {
         @Override
-        void stamp(InputStream templateStream, Object context, OfficeStamperConfiguration configuration, OutputStream os) {
+        void stamp(InputStream templateStream, Object context, OfficeStamperConfiguration configuration, OutputStream os, @Nullable Path snapshotDir) {
             pptxStamper().stamp(templateStream, context, os);
         }
     };
@@ -30,5 +33,5 @@ enum TemplateKind {
         throw new OfficeStamperException(msg.formatted(templatePath));
     }
 
-    abstract void stamp(InputStream templateStream, Object context, OfficeStamperConfiguration configuration, OutputStream os);
+    abstract void stamp(InputStream templateStream, Object context, OfficeStamperConfiguration configuration, OutputStream os, @Nullable Path snapshotDir);
 }
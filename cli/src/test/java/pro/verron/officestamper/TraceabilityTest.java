@@ -1,6 +1,7 @@
 package pro.verron.officestamper;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -12,6 +13,10 @@ import picocli.CommandLine;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -75,6 +80,72 @@ class TraceabilityTest {
         );
     }
 
+    @Test
+    @DisplayName("Should stream an NDJSON traceability report")
+    void testNdjsonTraceabilityReport() throws IOException {
+        var dataFile = tempDir.resolve("data.json");
+        var templateFile = tempDir.resolve("diagnostic.docx");
+        Files.copy(TraceabilityTest.class.getResourceAsStream("Diagnostic.docx"), templateFile);
+
+        Files.writeString(dataFile, """
+                {
+                    "reportUser": "Alice",
+                    "reportDate": "28/05/2026",
+                    "environment": [],
+                    "properties": [],
+                    "preferences": []
+                }"""
+        );
+
+        var reportFile = tempDir.resolve("trace-report.ndjson");
+        var outputFile = tempDir.resolve("output.docx");
+
+        var main = new Main();
+        picocli.CommandLine cli = new CommandLine(main);
+
+        int exitCode = cli.execute("stamp",
+                "--template",
+                templateFile.toString(),
+                "--data",
+                dataFile.toString(),
+                "--output",
+                outputFile.toString(),
+                "--trace-report",
+                "--trace-report-path",
+                reportFile.toString(),
+                "--trace-report-format",
+                "ndjson",
+                "--dry-run"
+        );
+
+        assertEquals(0, exitCode, "CLI should exit successfully");
+        assertTrue(Files.exists(reportFile), "Traceability report should be created");
+
+        var mapper = new ObjectMapper();
+        var lines = Files.readAllLines(reportFile);
+        assertFalse(lines.isEmpty(), "Report should contain resolutions");
+        var resolutions = new ArrayList<JsonNode>();
+        for (var line : lines) resolutions.add(mapper.readTree(line));
+        assertTrue(resolutions.stream()
+                              .anyMatch(r -> r.get("expression").asText().contains("reportUser")
+                                             && "Alice".equals(r.get("value").asText())),
+                "Report should contain 'reportUser' resolution"
+        );
+    }
+
+    @Test
+    @DisplayName("Should summarize NDJSON values without rendering them whole")
+    void testNdjsonSummaries() {
+        var text = "x".repeat(1_000);
+        assertEquals("x".repeat(200) + "…", NdjsonTraceabilityReporter.summarize(text));
+        assertEquals(42, NdjsonTraceabilityReporter.summarize(42));
+        assertEquals("java.util.ArrayList[size=3]",
+                NdjsonTraceabilityReporter.summarize(new ArrayList<>(List.of(1, 2, 3))));
+        assertEquals("java.util.HashMap[size=1]", NdjsonTraceabilityReporter.summarize(new HashMap<>(Map.of("a", 1))));
+        assertEquals("byte[][size=4]", NdjsonTraceabilityReporter.summarize(new byte[4]));
+        assertEquals(Object.class.getName(), NdjsonTraceabilityReporter.summarize(new Object()));
+    }
+
     @Test
     @DisplayName("Should generate HTML viewer from JSON report")
     void testReportView() throws IOException {
@@ -0,0 +1,61 @@
+package pro.verron.officestamper.api;
+
+/// Holds the admission limits of a [BatchStamper].
+///
+/// An item is admitted once fewer than [#concurrency()] items are in flight and its estimated heap footprint, the
+/// template size multiplied by the [#expansionFactor()], fits within what remains of the [#heapBudget()]. An item whose
+/// estimate alone exceeds the budget is still admitted, but only when no other item is in flight.
+///
+/// @param concurrency     the maximum number of items stamped at the same time.
+/// @param heapBudget      the estimated heap, in bytes, the in-flight items are allowed to retain.
+/// @param expansionFactor the ratio between the heap retained by a loaded document and its template size.
+/// @author Joseph Verron
+/// @since 4.0
+public record BatchOptions(int concurrency, long heapBudget, int expansionFactor) {
+
+    /// The usual ratio between the heap retained by an unmarshalled package and the size of its compressed template.
+    public static final int DEFAULT_EXPANSION_FACTOR = 20;
+
+    /// Validates the limits.
+    ///
+    /// @param concurrency     the maximum number of items stamped at the same time.
+    /// @param heapBudget      the estimated heap, in bytes, the in-flight items are allowed to retain.
+    /// @param expansionFactor the ratio between the heap retained by a loaded document and its template size.
+    public BatchOptions {
+        if (concurrency < 1) throw new OfficeStamperException("Batch concurrency must be positive");
+        if (heapBudget < 1) throw new OfficeStamperException("Batch heap budget must be positive");
+        if (expansionFactor < 1) throw new OfficeStamperException("Batch expansion factor must be positive");
+    }
+
+    /// Creates the default options: one item per available processor, within a quarter of the maximum heap.
+    ///
+    /// @return the default [BatchOptions].
+    public static BatchOptions defaults() {
+        var runtime = Runtime.getRuntime();
+        return new BatchOptions(runtime.availableProcessors(), runtime.maxMemory() / 4, DEFAULT_EXPANSION_FACTOR);
+    }
+
+    /// Returns a copy of these options with another concurrency limit.
+    ///
+    /// @param concurrency the maximum number of items stamped at the same time.
+    /// @return the updated options.
+    public BatchOptions withConcurrency(int concurrency) {
+        return new BatchOptions(concurrency, heapBudget, expansionFactor);
+    }
+
+    /// Returns a copy of these options with another heap budget.
+    ///
+    /// @param heapBudget the estimated heap, in bytes, the in-flight items are allowed to retain.
+    /// @return the updated options.
+    public BatchOptions withHeapBudget(long heapBudget) {
+        return new BatchOptions(concurrency, heapBudget, expansionFactor);
+    }
+
+    /// Returns a copy of these options with another expansion factor.
+    ///
+    /// @param expansionFactor the ratio between the heap retained by a loaded document and its template size.
+    /// @return the updated options.
+    public BatchOptions withExpansionFactor(int expansionFactor) {
+        return new BatchOptions(concurrency, heapBudget, expansionFactor);
+    }
+}
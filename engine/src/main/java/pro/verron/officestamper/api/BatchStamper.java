@@ -0,0 +1,158 @@
+package pro.verron.officestamper.api;
+
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.utils.openpackaging.OpenPackage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/// Stamps one template against many contexts, running each stamp on its own virtual thread.
+///
+/// The batch is pulled lazily from its source: a new item is only admitted once both the concurrency limit and the
+/// heap budget of the [BatchOptions] allow it, so the in-flight memory stays bounded whatever the size of the batch.
+/// Each item is reported to the result consumer as soon as it completes; results are never buffered.
+///
+/// @param <T> The type of the template that can be stamped. This type must extend [OpcPackage].
+/// @author Joseph Verron
+/// @since 4.0
+public final class BatchStamper<T extends OpcPackage> {
+
+    private static final int KILOBYTE = 1024;
+
+    private final StreamStamper<T> stamper;
+    private final BatchOptions options;
+
+    /// Constructs a new [BatchStamper] running the given [StreamStamper] with the provided options.
+    ///
+    /// @param stamper the [StreamStamper] used to load, stamp and export each item.
+    /// @param options the concurrency and admission limits of the batch.
+    public BatchStamper(StreamStamper<T> stamper, BatchOptions options) {
+        this.stamper = stamper;
+        this.options = options;
+    }
+
+    /// Stamps the template read from the given stream once per item, see [#stamp(byte[], Iterator, Consumer)].
+    ///
+    /// @param template the stream of the template, fully read before the first item is admitted.
+    /// @param items    the items to stamp.
+    /// @param results  the consumer notified of each item result.
+    public void stamp(InputStream template, Iterable<Item> items, Consumer<Result> results) {
+        stamp(readAllBytes(template), items.iterator(), results);
+    }
+
+    /// Stamps the template read from the given stream once per item, see [#stamp(byte[], Iterator, Consumer)].
+    ///
+    /// @param template the stream of the template, fully read before the first item is admitted.
+    /// @param items    the items to stamp, consumed lazily.
+    /// @param results  the consumer notified of each item result.
+    public void stamp(InputStream template, Stream<Item> items, Consumer<Result> results) {
+        try (items) {
+            stamp(readAllBytes(template), items.iterator(), results);
+        }
+    }
+
+    /// Stamps the template once per item, returning when every admitted item completed.
+    ///
+    /// Each item loads its own copy of the template, so items never share a document. The result consumer is called
+    /// from the worker threads, but never concurrently.
+    ///
+    /// @param template the bytes of the template.
+    /// @param items    the items to stamp, consumed lazily.
+    /// @param results  the consumer notified of each item result.
+    /// @throws OfficeStamperException if the calling thread is interrupted while waiting for admission.
+    public void stamp(byte[] template, Iterator<Item> items, Consumer<Result> results) {
+        var slots = new Semaphore(options.concurrency());
+        var budget = new Semaphore(kilobytes(options.heapBudget()));
+        var footprint = Math.min(kilobytes((long) template.length * options.expansionFactor()),
+                kilobytes(options.heapBudget()));
+        var reporter = new SerialReporter(results);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (items.hasNext()) {
+                var item = items.next();
+                acquire(slots, 1);
+                acquire(budget, footprint);
+                executor.execute(() -> {
+                    try {
+                        reporter.accept(run(template, item));
+                    } finally {
+                        budget.release(footprint);
+                        slots.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private Result run(byte[] template, Item item) {
+        try (var outputStream = item.sink()
+                                    .get()) {
+            var document = stamper.load(new ByteArrayInputStream(template));
+            try {
+                stamper.export(stamper.stamp(document, item.context()), outputStream);
+            } finally {
+                OpenPackage.release(document);
+            }
+            return new Result(item, null);
+        } catch (IOException | RuntimeException e) {
+            return new Result(item, e);
+        }
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new OfficeStamperException("Batch interrupted while waiting for admission", e);
+        }
+    }
+
+    private static int kilobytes(long bytes) {
+        return Math.clamp(Math.ceilDiv(bytes, KILOBYTE), 1, Integer.MAX_VALUE);
+    }
+
+    private static byte[] readAllBytes(InputStream template) {
+        try {
+            return template.readAllBytes();
+        } catch (IOException e) {
+            throw new OfficeStamperException("Failed to read the batch template", e);
+        }
+    }
+
+    /// An item of a batch: the context to stamp and the sink receiving the stamped document.
+    ///
+    /// The sink is only opened once the item is admitted, and closed once the item completes.
+    ///
+    /// @param context the context to stamp the template with.
+    /// @param sink    the supplier of the output stream receiving the stamped document.
+    public record Item(Object context, Supplier<? extends OutputStream> sink) {}
+
+    /// The outcome of a batch item.
+    ///
+    /// @param item    the item the result belongs to.
+    /// @param failure the failure that aborted the item, or `null` when the item was stamped successfully.
+    public record Result(Item item, @Nullable Exception failure) {
+        /// Tells whether the item was stamped successfully.
+        ///
+        /// @return `true` if the item has no failure.
+        public boolean succeeded() {
+            return failure == null;
+        }
+    }
+
+    private record SerialReporter(Consumer<Result> results) {
+        synchronized void accept(Result result) {
+            results.accept(result);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package pro.verron.officestamper.api;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Optional;
+
+/// A stamp-scoped token, letting a caller interrupt a stamp cooperatively.
+///
+/// The stamping loop checks the token at each [#checkpoint()]: between hooks, inside repeat loops, and while the
+/// stamped document is exported. A token can be cancelled explicitly, or expire on its own once its deadline passes;
+/// either way the next checkpoint throws a [StampCancelledException].
+///
+/// @author Joseph Verron
+/// @since 4.0
+public final class CancellationToken {
+
+    private static final CancellationToken NONE = new CancellationToken(Long.MAX_VALUE, false);
+
+    private final long deadline;
+    private final boolean hasDeadline;
+    private volatile boolean cancelled;
+
+    private CancellationToken(long deadline, boolean hasDeadline) {
+        this.deadline = deadline;
+        this.hasDeadline = hasDeadline;
+    }
+
+    /// Returns a token that is never cancelled, and never expires.
+    ///
+    /// @return the shared non-cancellable token.
+    public static CancellationToken none() {
+        return NONE;
+    }
+
+    /// Creates a token that is only interrupted by an explicit call to [#cancel()].
+    ///
+    /// @return a new cancellable token.
+    public static CancellationToken cancellable() {
+        return new CancellationToken(Long.MAX_VALUE, false);
+    }
+
+    /// Creates a token that expires once the given timeout elapsed, unless cancelled earlier.
+    ///
+    /// @param timeout the time left to the stamp, starting now.
+    /// @return a new cancellable token with a deadline.
+    public static CancellationToken withTimeout(Duration timeout) {
+        return new CancellationToken(System.nanoTime() + timeout.toNanos(), true);
+    }
+
+    /// Cancels the token, the stamps it is attached to are interrupted at their next checkpoint.
+    ///
+    /// @throws OfficeStamperException if this is the [#none()] token.
+    public void cancel() {
+        if (this == NONE) throw new OfficeStamperException("The none() token cannot be cancelled");
+        cancelled = true;
+    }
+
+    /// Tells whether the token was cancelled or expired.
+    ///
+    /// @return `true` if the next checkpoint would interrupt the stamp.
+    public boolean isCancelled() {
+        return cancelled || expired();
+    }
+
+    /// Returns the time left before the deadline of this token.
+    ///
+    /// @return the remaining time, or an empty optional if the token has no deadline.
+    public Optional<Duration> remaining() {
+        if (!hasDeadline) return Optional.empty();
+        return Optional.of(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+
+    /// Interrupts the current stamp if the token was cancelled or expired.
+    ///
+    /// @throws StampCancelledException if the token was cancelled, or its deadline passed.
+    public void checkpoint() {
+        if (cancelled) throw new StampCancelledException(false);
+        if (expired()) throw new StampCancelledException(true);
+    }
+
+    /// Wraps the given stream so that each write is preceded by a [#checkpoint()].
+    ///
+    /// @param outputStream the stream to guard.
+    /// @return the guarded stream, or the given one for the [#none()] token.
+    public OutputStream guard(OutputStream outputStream) {
+        if (this == NONE) return outputStream;
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(int b)
+                    throws IOException {
+                checkpoint();
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length)
+                    throws IOException {
+                checkpoint();
+                out.write(bytes, offset, length);
+            }
+        };
+    }
+
+    /// Recovers the [StampCancelledException] found among the causes of the given exception, if any.
+    ///
+    /// Libraries used during the export may wrap the interruption raised by a [guarded][#guard(OutputStream)] stream;
+    /// this recovers it so callers can rethrow it as is.
+    ///
+    /// @param exception the exception to inspect.
+    /// @return the [StampCancelledException] cause, or the given exception when it has none.
+    public static RuntimeException unwrap(RuntimeException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause())
+            if (cause instanceof StampCancelledException cancellation) return cancellation;
+        return exception;
+    }
+
+    private boolean expired() {
+        return hasDeadline && System.nanoTime() - deadline >= 0;
+    }
+}
@@ -1,6 +1,6 @@
 package pro.verron.officestamper.api;
 
-import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
 import org.docx4j.utils.TraversalUtilVisitor;
 import org.docx4j.wml.CommentRangeStart;
 import org.docx4j.wml.ContentAccessor;
@@ -8,27 +8,33 @@ import pro.verron.officestamper.utils.wml.WmlUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static pro.verron.officestamper.utils.wml.WmlFactory.newCtAttr;
 import static pro.verron.officestamper.utils.wml.WmlFactory.newSmartTag;
 
 /// The [CommentHooker] class is responsible for preparing comment processors in a Word document. It implements the
-/// [PreProcessor] interface and provides functionality to process comment range starts and wrap them with smart tags
-/// for further processing by the OfficeStamper engine.
+/// [PartPreProcessor] interface and provides functionality to process comment range starts and wrap them with smart
+/// tags for further processing by the OfficeStamper engine.
 ///
 /// This pre-processor is typically used to identify and mark comment-based expressions, making them recognizable as
 /// hooks for subsequent processing steps.
 public final class CommentHooker
-        implements PreProcessor {
+        implements PartPreProcessor {
 
     /// Default constructor for CommentHooker.
     public CommentHooker() {
     }
 
     @Override
-    public void process(WordprocessingMLPackage document) {
+    public Optional<String> fingerprint() {
+        return Optional.of(getClass().getName());
+    }
+
+    @Override
+    public void process(JaxbXmlPart<?> part) {
         var visitor = new CRSCollector();
-        WmlUtils.visitDocument(document, visitor);
+        WmlUtils.visitPart(part, visitor);
         // Replaces comment range starts with smart tags
         for (var commentRangeStart : visitor.commentRangeStarts()) {
             var parent = (ContentAccessor) commentRangeStart.getParent();
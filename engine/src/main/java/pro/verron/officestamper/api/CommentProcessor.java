@@ -40,4 +40,15 @@ public abstract class CommentProcessor {
     protected Comment comment() {
         return context.comment();
     }
+
+    /// Tells whether this processor only ever removes elements from the document, through the removal methods of its
+    /// paragraph, table, row or [DocxPart#remove(Object)].
+    ///
+    /// The removals of such processors are left pending, to be applied together; any other processor first applies
+    /// the pending removals of its part, so that it always finds the document as if removals were immediate.
+    ///
+    /// @return `false` by default.
+    public boolean isRemovalOnly() {
+        return false;
+    }
 }
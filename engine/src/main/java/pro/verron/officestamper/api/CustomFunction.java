@@ -13,7 +13,23 @@ import java.util.function.Function;
 /// @param name the name of the function
 /// @param parameterTypes the parameter types expected by the function
 /// @param function the implementation of the function that accepts a list of arguments and produces a result.
-public record CustomFunction(String name, List<Class<?>> parameterTypes, Function<List<Object>, Object> function) {
+/// @param pure whether the function always returns the same result for the same arguments, without side effects, so
+///         that its calls may be memoized (see [OfficeStamperConfiguration#setExpressionMemoization(boolean)])
+public record CustomFunction(
+        String name,
+        List<Class<?>> parameterTypes,
+        Function<List<Object>, Object> function,
+        boolean pure
+) {
+
+    /// Creates a custom function that is not known to be pure.
+    ///
+    /// @param name the name of the function
+    /// @param parameterTypes the parameter types expected by the function
+    /// @param function the implementation of the function
+    public CustomFunction(String name, List<Class<?>> parameterTypes, Function<List<Object>, Object> function) {
+        this(name, parameterTypes, function, false);
+    }
 
     /// The NeedsFunctionImpl interface specifies a contract for classes that require the implementation of a function
     /// that operates on a specific type and produces a result.
@@ -28,6 +44,14 @@ public record CustomFunction(String name, List<Class<?>> parameterTypes, Functio
         ///
         /// @return the configuration object.
         OfficeStamperConfiguration withImplementation(Function<T, ?> function);
+
+        /// Sets a pure implementation: one that always returns the same result for the same arguments, without side
+        /// effects, so that its calls may be memoized.
+        ///
+        /// @param function the pure implementation of the function.
+        ///
+        /// @return the configuration object.
+        OfficeStamperConfiguration withPureImplementation(Function<T, ?> function);
     }
 
     /// Represents a contract for classes that require the implementation of a BiFunction.
@@ -48,6 +72,14 @@ public record CustomFunction(String name, List<Class<?>> parameterTypes, Functio
         ///
         /// @return the configuration object.
         OfficeStamperConfiguration withImplementation(BiFunction<T, U, ?> object);
+
+        /// Sets a pure implementation: one that always returns the same result for the same arguments, without side
+        /// effects, so that its calls may be memoized.
+        ///
+        /// @param function the pure implementation of the function.
+        ///
+        /// @return the configuration object.
+        OfficeStamperConfiguration withPureImplementation(BiFunction<T, U, ?> function);
     }
 
     /// Represents a contract for classes requiring the implementation of a TriFunction.
@@ -71,5 +103,13 @@ public record CustomFunction(String name, List<Class<?>> parameterTypes, Functio
         ///
         /// @return the configuration object.
         OfficeStamperConfiguration withImplementation(TriFunction<T, U, V, ?> function);
+
+        /// Sets a pure implementation: one that always returns the same result for the same arguments, without side
+        /// effects, so that its calls may be memoized.
+        ///
+        /// @param function the pure implementation of the function.
+        ///
+        /// @return the configuration object.
+        OfficeStamperConfiguration withPureImplementation(TriFunction<T, U, V, ?> function);
     }
 }
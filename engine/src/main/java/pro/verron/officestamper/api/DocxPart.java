@@ -1,7 +1,10 @@
 package pro.verron.officestamper.api;
 
+import org.docx4j.XmlUtils;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.Part;
+import org.jvnet.jaxb2_commons.ppp.Child;
+import pro.verron.officestamper.utils.wml.WmlUtils;
 
 import java.util.List;
 
@@ -25,4 +28,15 @@ public interface DocxPart {
     ///
     /// @return the [WordprocessingMLPackage] of the document
     WordprocessingMLPackage document();
+
+    /// Removes the given element from its parent.
+    ///
+    /// A part may defer the removal to the next safe point of the stamping, to remove many elements from the same
+    /// parent in a single pass: until then, the element stays in the document, but the hooks it contains are not run.
+    ///
+    /// @param element the element to remove, a child of a content list.
+    default void remove(Object element) {
+        if (XmlUtils.unwrap(element) instanceof Child child) WmlUtils.remove(child);
+        else throw new OfficeStamperException("Cannot remove %s, it has no parent".formatted(element));
+    }
 }
@@ -0,0 +1,19 @@
+package pro.verron.officestamper.api;
+
+/// Thrown when the evaluation of an expression exceeds one of the configured [EvaluationLimits].
+///
+/// The engine hands it to the configured [ExceptionResolver], which decides whether the placeholder is defaulted, kept
+/// as is, or whether the whole stamp fails.
+///
+/// @author Joseph Verron
+/// @since 4.0
+public final class EvaluationBudgetException
+        extends OfficeStamperException {
+
+    /// Constructs a new [EvaluationBudgetException].
+    ///
+    /// @param message a message describing the exceeded limit.
+    public EvaluationBudgetException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,105 @@
+package pro.verron.officestamper.api;
+
+import java.time.Duration;
+
+/// Holds the evaluation budget granted to the expressions of a template.
+///
+/// The budget is counted in evaluation steps: every property or index read, method invocation, type conversion and
+/// comparison performed while evaluating an expression consumes one step. Steps and elapsed time are bounded both per
+/// expression and for the whole document. Additionally, no method invoked by an expression, nor the expression itself,
+/// may produce a collection, map or array larger than [#collectionSize()].
+///
+/// Exceeding any limit fails the expression with an [EvaluationBudgetException], routed through the configured
+/// [ExceptionResolver] like any other evaluation failure.
+///
+/// @param expressionSteps the maximum number of steps of a single expression.
+/// @param expressionTime  the maximum evaluation time of a single expression.
+/// @param documentSteps   the maximum number of steps of all the expressions of a document.
+/// @param documentTime    the maximum evaluation time of all the expressions of a document.
+/// @param collectionSize  the maximum size of a collection produced during an evaluation.
+/// @author Joseph Verron
+/// @since 4.0
+public record EvaluationLimits(
+        long expressionSteps,
+        Duration expressionTime,
+        long documentSteps,
+        Duration documentTime,
+        long collectionSize
+) {
+
+    private static final Duration FOREVER = Duration.ofNanos(Long.MAX_VALUE);
+    private static final EvaluationLimits UNLIMITED = new EvaluationLimits(Long.MAX_VALUE,
+            FOREVER,
+            Long.MAX_VALUE,
+            FOREVER,
+            Long.MAX_VALUE);
+
+    /// Validates the limits.
+    ///
+    /// @param expressionSteps the maximum number of steps of a single expression.
+    /// @param expressionTime  the maximum evaluation time of a single expression.
+    /// @param documentSteps   the maximum number of steps of all the expressions of a document.
+    /// @param documentTime    the maximum evaluation time of all the expressions of a document.
+    /// @param collectionSize  the maximum size of a collection produced during an evaluation.
+    public EvaluationLimits {
+        if (expressionSteps < 1 || documentSteps < 1 || collectionSize < 0)
+            throw new OfficeStamperException("Evaluation limits must be positive");
+        if (expressionTime.isNegative() || documentTime.isNegative())
+            throw new OfficeStamperException("Evaluation time limits must be positive");
+    }
+
+    /// Returns the limits applied by default, which never interrupt an evaluation.
+    ///
+    /// @return the unlimited [EvaluationLimits].
+    public static EvaluationLimits unlimited() {
+        return UNLIMITED;
+    }
+
+    /// Tells whether these limits never interrupt an evaluation, in which case the engine skips the accounting
+    /// entirely.
+    ///
+    /// @return `true` if all limits are unbounded.
+    public boolean isUnlimited() {
+        return this.equals(UNLIMITED);
+    }
+
+    /// Returns a copy of these limits with another per-expression step limit.
+    ///
+    /// @param expressionSteps the maximum number of steps of a single expression.
+    /// @return the updated limits.
+    public EvaluationLimits withExpressionSteps(long expressionSteps) {
+        return new EvaluationLimits(expressionSteps, expressionTime, documentSteps, documentTime, collectionSize);
+    }
+
+    /// Returns a copy of these limits with another per-expression time limit.
+    ///
+    /// @param expressionTime the maximum evaluation time of a single expression.
+    /// @return the updated limits.
+    public EvaluationLimits withExpressionTime(Duration expressionTime) {
+        return new EvaluationLimits(expressionSteps, expressionTime, documentSteps, documentTime, collectionSize);
+    }
+
+    /// Returns a copy of these limits with another per-document step limit.
+    ///
+    /// @param documentSteps the maximum number of steps of all the expressions of a document.
+    /// @return the updated limits.
+    public EvaluationLimits withDocumentSteps(long documentSteps) {
+        return new EvaluationLimits(expressionSteps, expressionTime, documentSteps, documentTime, collectionSize);
+    }
+
+    /// Returns a copy of these limits with another per-document time limit.
+    ///
+    /// @param documentTime the maximum evaluation time of all the expressions of a document.
+    /// @return the updated limits.
+    public EvaluationLimits withDocumentTime(Duration documentTime) {
+        return new EvaluationLimits(expressionSteps, expressionTime, documentSteps, documentTime, collectionSize);
+    }
+
+    /// Returns a copy of these limits with another collection size limit.
+    ///
+    /// @param collectionSize the maximum size of a collection produced during an evaluation.
+    /// @return the updated limits.
+    public EvaluationLimits withCollectionSize(long collectionSize) {
+        return new EvaluationLimits(expressionSteps, expressionTime, documentSteps, documentTime, collectionSize);
+    }
+}
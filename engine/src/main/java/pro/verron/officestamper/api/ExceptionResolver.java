@@ -17,4 +17,16 @@ package pro.verron.officestamper.api;
     /// @param cause the underlying exception that was encountered
     /// @return a resolved fallback value as a String, which could be used as a replacement for the placeholder.
     Insert resolve(String expression, String message, Exception cause);
+
+    /// Resolves the given failure, like [#resolve(String, String, Exception)], which it calls by default with the
+    /// rendered message of the failure.
+    ///
+    /// Resolvers not always using the message should override this method, so that the message is only rendered when
+    /// actually used, see [ExpressionFailure#message()].
+    ///
+    /// @param failure the failure of the placeholder expression.
+    /// @return a resolved fallback value, which could be used as a replacement for the placeholder.
+    default Insert resolve(ExpressionFailure failure) {
+        return resolve(failure.expression(), failure.message(), failure.cause());
+    }
 }
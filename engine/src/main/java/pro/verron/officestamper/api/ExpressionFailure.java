@@ -0,0 +1,21 @@
+package pro.verron.officestamper.api;
+
+import java.util.function.Supplier;
+
+/// The failure to parse, evaluate or convert an expression, handed to an [ExceptionResolver].
+///
+/// Its message describes the context the expression failed against, which is costly to render, so it is only rendered
+/// when asked for: a resolver falling back silently on a missing value never pays for it.
+///
+/// @param expression the expression that failed.
+/// @param cause the exception raised by the failure.
+/// @param description the supplier of the message describing the failure.
+public record ExpressionFailure(String expression, Exception cause, Supplier<String> description) {
+
+    /// Renders the message describing the failure.
+    ///
+    /// @return the message.
+    public String message() {
+        return description.get();
+    }
+}
@@ -0,0 +1,347 @@
+package pro.verron.officestamper.api;
+
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.utils.openpackaging.OpenPackage;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// A [Flow.Processor] stamping a template for each context it receives, and publishing the stamped documents as
+/// [Chunk]s of bytes.
+///
+/// Contexts are requested from upstream one at a time, and only once the previous document has been fully published,
+/// so a slow subscriber throttles both the instantiation of the template and the stamping. Each document is exported
+/// straight into chunks of at most `chunkSize` bytes, a chunk being handed over only when the subscriber requested
+/// it; the export itself is therefore paced by the downstream demand. Cancelling the downstream subscription cancels
+/// the upstream one and aborts the document in progress at its next checkpoint.
+///
+/// The processor accepts a single subscriber, and does its work on a dedicated virtual thread.
+///
+/// @param <T> The type of the template that can be stamped. This type must extend [OpcPackage].
+/// @author Joseph Verron
+/// @since 4.0
+public final class FlowStamper<T extends OpcPackage>
+        implements Flow.Processor<Object, FlowStamper.Chunk> {
+
+    private final StreamStamper<T> stamper;
+    private final byte[] template;
+    private final int chunkSize;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(Thread.ofVirtual()
+                                                                                   .factory());
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition demanded = lock.newCondition();
+    private final CancellationToken cancellation = CancellationToken.cancellable();
+
+    private Flow.@Nullable Subscription upstream;
+    private Flow.@Nullable Subscriber<? super Chunk> downstream;
+    private long demand;
+    private boolean started;
+    private @Nullable Termination termination;
+    private volatile boolean cancelled;
+    private volatile boolean failing;
+
+    /// Constructs a new [FlowStamper] publishing each stamped document as a single chunk.
+    ///
+    /// @param stamper  the [StreamStamper] used to load, stamp and export each document.
+    /// @param template the bytes of the template.
+    public FlowStamper(StreamStamper<T> stamper, byte[] template) {
+        this(stamper, template, Integer.MAX_VALUE);
+    }
+
+    /// Constructs a new [FlowStamper] publishing each stamped document in chunks of at most `chunkSize` bytes.
+    ///
+    /// @param stamper   the [StreamStamper] used to load, stamp and export each document.
+    /// @param template  the bytes of the template.
+    /// @param chunkSize the maximum size of a published chunk.
+    public FlowStamper(StreamStamper<T> stamper, byte[] template, int chunkSize) {
+        if (chunkSize < 1) throw new OfficeStamperException("Chunk size must be positive");
+        this.stamper = stamper;
+        this.template = template.clone();
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Chunk> subscriber) {
+        @Nullable Termination pending;
+        lock.lock();
+        try {
+            if (downstream != null) {
+                subscriber.onSubscribe(new RejectedSubscription());
+                subscriber.onError(new OfficeStamperException("FlowStamper only supports a single subscriber"));
+                return;
+            }
+            downstream = subscriber;
+            pending = termination;
+        } finally {
+            lock.unlock();
+        }
+        subscriber.onSubscribe(new DownstreamSubscription());
+        if (pending != null) submit(() -> terminate(pending.error()));
+        else start();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        lock.lock();
+        try {
+            if (upstream != null) {
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+        } finally {
+            lock.unlock();
+        }
+        if (cancelled) subscription.cancel();
+        else start();
+    }
+
+    @Override
+    public void onNext(Object context) {
+        submit(() -> stamp(context));
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        submit(() -> terminate(throwable));
+    }
+
+    @Override
+    public void onComplete() {
+        submit(() -> terminate(null));
+    }
+
+    private void start() {
+        Flow.Subscription subscription;
+        lock.lock();
+        try {
+            if (started || upstream == null || downstream == null) return;
+            started = true;
+            subscription = upstream;
+        } finally {
+            lock.unlock();
+        }
+        subscription.request(1);
+    }
+
+    private void stamp(Object context) {
+        if (stopped()) return;
+        try {
+            var output = new ChunkingOutputStream(context);
+            var document = stamper.load(new ByteArrayInputStream(template));
+            try {
+                var stamped = stamper.stamp(document, context, cancellation);
+                stamper.export(stamped, output, cancellation);
+            } finally {
+                OpenPackage.release(document);
+            }
+            output.finish();
+        } catch (CancelledException | StampCancelledException _) {
+            return;
+        } catch (RuntimeException e) {
+            if (stopped()) return;
+            cancelUpstream();
+            terminate(e);
+            return;
+        }
+        if (!stopped()) requireNonNull(upstream).request(1);
+    }
+
+    private void publish(Chunk chunk) {
+        lock.lock();
+        try {
+            while (demand == 0 && !stopped()) demanded.awaitUninterruptibly();
+            checkCancellation();
+            demand--;
+        } finally {
+            lock.unlock();
+        }
+        requireNonNull(downstream).onNext(chunk);
+    }
+
+    private void terminate(@Nullable Throwable throwable) {
+        Flow.Subscriber<? super Chunk> subscriber;
+        lock.lock();
+        try {
+            if (cancelled) return;
+            subscriber = downstream;
+            if (subscriber == null) {
+                termination = new Termination(throwable);
+                return;
+            }
+            cancelled = true;
+        } finally {
+            lock.unlock();
+        }
+        worker.shutdown();
+        if (throwable == null) subscriber.onComplete();
+        else subscriber.onError(throwable);
+    }
+
+    /// Stops the work in progress and signals the given error to the subscriber from the worker, once the signal in
+    /// progress, if any, is over: signals must be serial, and none may follow a terminal one.
+    private void fail(Throwable throwable) {
+        lock.lock();
+        try {
+            if (cancelled) return;
+            failing = true;
+            demanded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        cancellation.cancel();
+        cancelUpstream();
+        submit(() -> terminate(throwable));
+    }
+
+    private void submit(Runnable task) {
+        if (cancelled) return;
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException _) {
+            // The processor already terminated, late upstream signals are dropped
+        }
+    }
+
+    private void cancel() {
+        lock.lock();
+        try {
+            cancelled = true;
+            demanded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        cancellation.cancel();
+        cancelUpstream();
+        worker.shutdown();
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription;
+        lock.lock();
+        try {
+            subscription = upstream;
+        } finally {
+            lock.unlock();
+        }
+        if (subscription != null) subscription.cancel();
+    }
+
+    private boolean stopped() {
+        return cancelled || failing;
+    }
+
+    private void checkCancellation() {
+        if (stopped()) throw new CancelledException();
+    }
+
+    private static <E> E requireNonNull(@Nullable E value) {
+        if (value == null) throw new OfficeStamperException("FlowStamper used before being subscribed");
+        return value;
+    }
+
+    /// A chunk of a stamped document.
+    ///
+    /// The chunks of a document are published in order, the last one being flagged as such. When the stamper publishes
+    /// complete outputs, each document is a single chunk flagged as last.
+    ///
+    /// @param context the context the document was stamped with.
+    /// @param bytes   the read-only bytes of the chunk.
+    /// @param last    whether this chunk ends its document.
+    public record Chunk(Object context, ByteBuffer bytes, boolean last) {}
+
+    private record Termination(@Nullable Throwable error) {}
+
+    private static final class CancelledException
+            extends RuntimeException {
+        private CancelledException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class RejectedSubscription
+            implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            // The subscriber has been rejected, it will never receive any chunk
+        }
+
+        @Override
+        public void cancel() {
+            // The subscriber has been rejected, there is nothing to cancel
+        }
+    }
+
+    private final class DownstreamSubscription
+            implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Non-positive request: " + n));
+                return;
+            }
+            lock.lock();
+            try {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                demanded.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            FlowStamper.this.cancel();
+        }
+    }
+
+    private final class ChunkingOutputStream
+            extends OutputStream {
+        private final Object context;
+        private byte[] buffer = new byte[Math.min(chunkSize, 8192)];
+        private int count;
+
+        private ChunkingOutputStream(Object context) {
+            this.context = context;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            checkCancellation();
+            while (length > 0) {
+                if (count == chunkSize) emit(false);
+                if (count == buffer.length) buffer = Arrays.copyOf(buffer, (int) Math.min(2L * count, chunkSize));
+                var copied = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        private void finish() {
+            emit(true);
+        }
+
+        private void emit(boolean last) {
+            var bytes = ByteBuffer.wrap(Arrays.copyOf(buffer, count))
+                                  .asReadOnlyBuffer();
+            count = 0;
+            publish(new Chunk(context, bytes, last));
+        }
+    }
+}
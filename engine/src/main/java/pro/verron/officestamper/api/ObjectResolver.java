@@ -2,6 +2,9 @@ package pro.verron.officestamper.api;
 
 import org.jspecify.annotations.Nullable;
 
+import java.util.Optional;
+import java.util.Set;
+
 /// The ObjectResolver interface provides a contract for resolving objects to create a run with the resolved content. It
 /// includes methods to check if an object can be resolved and to actually resolve an object to a run.
 ///
@@ -18,9 +21,35 @@ public interface ObjectResolver {
     /// @throws OfficeStamperException if no resolver is found for the object
     Insert resolve(DocxPart docxPart, String expression, @Nullable Object object);
 
+    /// Resolves the expression with the provided object to plain text, when this resolver renders the object as a
+    /// single run holding only that text.
+    ///
+    /// A placeholder sitting in a single run of text then has the text of that run set in place, instead of being
+    /// replaced with the run built by [#resolve(DocxPart, String, Object)]. Both methods must thus render the object
+    /// the same way.
+    ///
+    /// @param docxPart the [DocxPart] document in which to resolve the expression
+    /// @param expression the expression value to be replaced
+    /// @param object the object to be used for resolving the expression
+    /// @return the text of the resolved run, or `null` if this resolver renders the object otherwise
+    default @Nullable String resolveText(DocxPart docxPart, String expression, @Nullable Object object) {
+        return null;
+    }
+
     /// Checks if the given object can be resolved.
     ///
     /// @param object the object to be resolved
     /// @return true if the object can be resolved, false otherwise
     boolean canResolve(@Nullable Object object);
+
+    /// Declares the types of the non-null objects this resolver can resolve, so that it can be chosen by the class of
+    /// an object, once per class, instead of by calling [#canResolve(Object)] for each object.
+    ///
+    /// When declared, [#canResolve(Object)] must return `true` for a non-null object exactly when it is an instance of
+    /// one of these types; `null` objects are still checked with [#canResolve(Object)].
+    ///
+    /// @return the types this resolver handles, or empty if it must be asked for each object
+    default Optional<Set<Class<?>>> handledTypes() {
+        return Optional.empty();
+    }
 }
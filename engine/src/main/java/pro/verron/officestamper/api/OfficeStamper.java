@@ -16,4 +16,21 @@ public interface OfficeStamper<T extends OpcPackage> {
     /// @param context The context to use for stamping.
     /// @return The resulting document after stamping.
     T stamp(T template, Object context);
+
+    /// Stamps the given template with the given context, unless interrupted by the given token.
+    ///
+    /// Implementations check the token between their processing steps; this default implementation only checks it
+    /// before and after the whole stamp.
+    ///
+    /// @param template     The template to stamp.
+    /// @param context      The context to use for stamping.
+    /// @param cancellation The token interrupting the stamp when cancelled or expired.
+    /// @return The resulting document after stamping.
+    /// @throws StampCancelledException if the token was cancelled or expired before the stamp completed.
+    default T stamp(T template, Object context, CancellationToken cancellation) {
+        cancellation.checkpoint();
+        var stamped = stamp(template, context);
+        cancellation.checkpoint();
+        return stamped;
+    }
 }
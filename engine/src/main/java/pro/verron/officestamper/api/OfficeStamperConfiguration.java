@@ -8,6 +8,8 @@ import pro.verron.officestamper.api.CustomFunction.NeedsTriFunctionImpl;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
 
@@ -216,4 +218,180 @@ public interface OfficeStamperConfiguration {
     /// @param traceabilityReporter the [TraceabilityReporter] instance to set.
     /// @return the updated [OfficeStamperConfiguration] object.
     OfficeStamperConfiguration setTraceabilityReporter(TraceabilityReporter traceabilityReporter);
+
+    /// Retrieves the evaluation budget granted to the expressions of a template.
+    ///
+    /// Defaults to [EvaluationLimits#unlimited()].
+    ///
+    /// @return the [EvaluationLimits] instance.
+    EvaluationLimits getEvaluationLimits();
+
+    /// Sets the evaluation budget granted to the expressions of a template, protecting the stamper against templates
+    /// whose expressions run away.
+    ///
+    /// @param evaluationLimits the [EvaluationLimits] instance to set.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    OfficeStamperConfiguration setEvaluationLimits(EvaluationLimits evaluationLimits);
+
+    /// Tells whether the stream stampers load templates lazily, leaving unmarshalled the parts that cannot hold a
+    /// hook.
+    ///
+    /// Defaults to `false`.
+    ///
+    /// @return `true` if the parts without hooks are carried as raw bytes.
+    boolean isLazyPartLoading();
+
+    /// Sets whether the stream stampers load templates lazily.
+    ///
+    /// When enabled, the raw bytes of each part are scanned for the placeholder delimiters and comment markers before
+    /// loading. The parts that hold none of them and that the engine does not structurally need, such as the theme,
+    /// the fonts table or the glossary, are not unmarshalled, and are written back verbatim in the stamped document.
+    /// Preprocessors and postprocessors must not modify such parts.
+    ///
+    /// @param lazyPartLoading whether to load the parts without hooks lazily.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    OfficeStamperConfiguration setLazyPartLoading(boolean lazyPartLoading);
+
+    /// Returns the maximum number of parts the stream stampers unmarshal at the same time when loading a template.
+    ///
+    /// Defaults to `1`.
+    ///
+    /// @return the load parallelism.
+    int getLoadParallelism();
+
+    /// Sets the maximum number of parts the stream stampers unmarshal at the same time when loading a template.
+    ///
+    /// When greater than one, the main document, headers, footers, notes, comments, styles and numbering of a template
+    /// are unmarshalled concurrently. The leading [PartPreProcessor]s of the configuration then run on each part in
+    /// the task that unmarshalled it, instead of running on the whole document once loaded.
+    ///
+    /// @param loadParallelism the maximum number of parts unmarshalled at the same time, `1` to load the template
+    ///         on the calling thread.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    /// @throws OfficeStamperException if the parallelism is not positive.
+    OfficeStamperConfiguration setLoadParallelism(int loadParallelism);
+
+    /// Returns whether context-free expressions are evaluated once per stamp.
+    ///
+    /// Defaults to `false`.
+    ///
+    /// @return whether context-free expressions are folded.
+    boolean isExpressionFolding();
+
+    /// Sets whether context-free expressions are evaluated once per stamp.
+    ///
+    /// An expression is context-free when it reads no context object, like `${'a' + 1}` or
+    /// `${T(java.time.Year).now()}`. When enabled, each context-free expression is evaluated at its first occurrence,
+    /// and its value is reused by its other occurrences, including the copies made by repeats; each occurrence is
+    /// still reported to the [TraceabilityReporter]. Only enable it when the methods and constructors called on types
+    /// by such expressions are free of side effects, since they then run once instead of once per occurrence.
+    ///
+    /// @param expressionFolding whether to fold context-free expressions.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    OfficeStamperConfiguration setExpressionFolding(boolean expressionFolding);
+
+    /// Returns whether the values of pure expressions are memoized per context branch during a stamp.
+    ///
+    /// Defaults to `false`.
+    ///
+    /// @return whether pure expressions are memoized.
+    boolean isExpressionMemoization();
+
+    /// Sets whether the values of pure expressions are memoized per context branch during a stamp.
+    ///
+    /// An expression is pure when it only reads the context through plain property paths, and only calls custom
+    /// functions registered as pure (see [CustomFunction#pure()]).
+    /// When enabled, each pure expression is evaluated once per context branch, and its value is reused by its other
+    /// occurrences in the body, headers and footers; each occurrence is still reported to the [TraceabilityReporter].
+    ///
+    /// @param expressionMemoization whether to memoize pure expressions.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    OfficeStamperConfiguration setExpressionMemoization(boolean expressionMemoization);
+
+    /// Returns the maximum number of placeholders evaluated at the same time during a stamp.
+    ///
+    /// Defaults to `1`.
+    ///
+    /// @return the evaluation parallelism.
+    int getEvaluationParallelism();
+
+    /// Sets the maximum number of placeholders evaluated at the same time during a stamp.
+    ///
+    /// When greater than one, each part is stamped in two phases, repeated until no hook is left: the placeholders
+    /// preceding the next comment or inline processor are first evaluated concurrently, then converted to document
+    /// elements and inserted in document order on the stamping thread; the processor is then run alone, since it may
+    /// change the structure of the document. The resulting document is the same as with sequential stamping, as long
+    /// as evaluating a placeholder only reads the context: expressions with side effects may observe a different
+    /// order, and a context-independent expression may be evaluated more than once.
+    ///
+    /// @param evaluationParallelism the maximum number of placeholders evaluated at the same time, `1` to evaluate
+    ///         them on the stamping thread.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    /// @throws OfficeStamperException if the parallelism is not positive.
+    OfficeStamperConfiguration setEvaluationParallelism(int evaluationParallelism);
+
+    /// Returns the maximum number of parts stamped at the same time.
+    ///
+    /// Defaults to `1`.
+    ///
+    /// @return the part parallelism.
+    int getPartParallelism();
+
+    /// Sets the maximum number of parts stamped at the same time.
+    ///
+    /// When greater than one, the main document, headers and footers are stamped concurrently, each with its own
+    /// context tree. The work touching the whole package, converting values to document elements, reporting them to
+    /// the [TraceabilityReporter], resolving failures with the [ExceptionResolver] and running comment processors, is
+    /// serialized on the package, so these callbacks are never called concurrently; evaluating placeholders, inserting
+    /// their values and walking the parts run in parallel. Since a comment processor runs while its expression is
+    /// evaluated, the expressions of comments are evaluated one at a time: parts mostly made of comment processors
+    /// gain little from being stamped concurrently.
+    ///
+    /// @param partParallelism the maximum number of parts stamped at the same time, `1` to stamp them one after
+    ///         the other on the calling thread.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    /// @throws OfficeStamperException if the parallelism is not positive.
+    OfficeStamperConfiguration setPartParallelism(int partParallelism);
+
+    /// Returns the executor running the concurrent work of the stamps, when one was set.
+    ///
+    /// @return the executor owned by the caller, or empty when the stamps use the executors shared by the library.
+    Optional<ExecutorService> getExecutor();
+
+    /// Sets the executor running the concurrent work of the stamps: loading parts (see [#setLoadParallelism(int)]),
+    /// evaluating placeholders (see [#setEvaluationParallelism(int)]) and stamping parts (see
+    /// [#setPartParallelism(int)]).
+    ///
+    /// Without one, each kind of work runs on a daemon pool shared by every stamp of the application, whose threads
+    /// are reused from one stamp to the next. Either way, no pool is created per stamp, and each stamp runs at most as
+    /// many tasks at once as the corresponding parallelism allows. The executor belongs to the caller, who shuts it
+    /// down once done stamping. A single executor may serve all the stamps of an application, including concurrent
+    /// ones: when a stamp runs parts concurrently on it, it evaluates the placeholders of each part in the task
+    /// stamping the part, so that no task waits for another task of the executor.
+    ///
+    /// @param executor the executor owned by the caller.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    OfficeStamperConfiguration setExecutor(ExecutorService executor);
+
+    /// Returns whether the body of the main document is split into segments stamped concurrently.
+    ///
+    /// Defaults to `false`.
+    ///
+    /// @return whether the body is segmented.
+    boolean isBodySegmentation();
+
+    /// Sets whether the body of the main document is split into segments stamped concurrently, along with the
+    /// headers and footers, when the part parallelism is greater than one (see [#setPartParallelism(int)]).
+    ///
+    /// The body is only cut between top-level paragraphs and tables that no comment range crosses, and a commented
+    /// block stays with the paragraph preceding it. Each segment is stamped with its own context tree, then the
+    /// segments are joined back in order. Comment processors must therefore only touch the content of their comment
+    /// range and of the paragraph preceding it, as all the processors of the default configurations do.
+    ///
+    /// Segmenting pays off on bodies holding many placeholders, or slow ones, whose evaluation runs in parallel; the
+    /// comment processors of all the segments still run one at a time, as explained in [#setPartParallelism(int)].
+    ///
+    /// @param bodySegmentation whether to segment the body.
+    /// @return the updated [OfficeStamperConfiguration] object.
+    OfficeStamperConfiguration setBodySegmentation(boolean bodySegmentation);
 }
@@ -0,0 +1,30 @@
+package pro.verron.officestamper.api;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import pro.verron.officestamper.utils.wml.WmlUtils;
+
+/// A [PreProcessor] whose changes to each part of the document only depend on the content of that part.
+///
+/// Such a preprocessor can run on each part of a template as soon as the part is unmarshalled, in the task
+/// unmarshalling it, when the template is loaded with a load parallelism greater than one (see
+/// [OfficeStamperConfiguration#setLoadParallelism(int)]).
+public interface PartPreProcessor
+        extends PreProcessor {
+
+    /// Processes a single part of the document: the main document, a header, a footer, the footnotes or the endnotes.
+    ///
+    /// Implementations must only read and modify the given part, since other parts may be processed concurrently.
+    ///
+    /// @param part the part to be processed; cannot be null
+    void process(JaxbXmlPart<?> part);
+
+    /// Processes each part of the document holding content, one after the other.
+    ///
+    /// @param document the WordprocessingMLPackage document to be processed; cannot be null
+    @Override
+    default void process(WordprocessingMLPackage document) {
+        WmlUtils.streamDocumentContentParts(document)
+                .forEach(this::process);
+    }
+}
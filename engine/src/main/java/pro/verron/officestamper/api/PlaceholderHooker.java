@@ -1,6 +1,7 @@
 package pro.verron.officestamper.api;
 
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
 import org.docx4j.utils.TraversalUtilVisitor;
 import org.docx4j.wml.P;
 import pro.verron.officestamper.utils.wml.WmlUtils;
@@ -47,7 +48,7 @@ import static pro.verron.officestamper.utils.wml.WmlUtils.insertSmartTag;
 /// wrapped. Consequently a placeholder nested inside another one is part of the outer expression and is never wrapped
 /// on its own.
 public class PlaceholderHooker
-        implements PreProcessor {
+        implements PartPreProcessor {
 
     private static final char OPENING_BRACE = '{';
     private static final char CLOSING_BRACE = '}';
@@ -87,10 +88,22 @@ public class PlaceholderHooker
         return opening;
     }
 
+    /// Returns the opening delimiters this hooker recognizes.
+    ///
+    /// @return the opening delimiters, longest first.
+    public List<String> openings() {
+        return List.copyOf(elementByOpening.keySet());
+    }
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of(getClass().getName() + elementByOpening);
+    }
+
     @Override
-    public void process(WordprocessingMLPackage document) {
+    public void process(JaxbXmlPart<?> part) {
         var visitor = new ParagraphCollector(elementByOpening.keySet());
-        WmlUtils.visitDocument(document, visitor);
+        WmlUtils.visitPart(part, visitor);
         for (var paragraph : visitor.paragraphs()) hook(paragraph);
     }
 
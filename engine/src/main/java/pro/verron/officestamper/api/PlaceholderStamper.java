@@ -0,0 +1,31 @@
+package pro.verron.officestamper.api;
+
+import org.docx4j.wml.CTSmartTagRun;
+import pro.verron.officestamper.utils.wml.WmlUtils;
+
+/// Stamps the placeholders of the content a comment processor copies once per item, right as each copy is made,
+/// instead of leaving them to the hook loop walking the document again afterward.
+///
+/// A placeholder is stamped as the hook loop would stamp it: its expression is evaluated against the given context
+/// branch, reported, and its value converted by the object resolvers, failures going to the exception resolver. When
+/// the value is plain text and the placeholder holds a single run, the text of that run is set in place.
+///
+/// @author Joseph Verron
+/// @since 4.0
+@FunctionalInterface
+public interface PlaceholderStamper {
+
+    /// Returns a stamper only binding each placeholder to its context branch, the placeholder being stamped later by
+    /// the hook loop.
+    ///
+    /// @return the deferring stamper.
+    static PlaceholderStamper deferred() {
+        return (placeholder, contextKey) -> WmlUtils.setTagAttribute(placeholder, "context", contextKey);
+    }
+
+    /// Stamps the given placeholder against the given context branch.
+    ///
+    /// @param placeholder the smart tag of the placeholder, typed `placeholder`.
+    /// @param contextKey the key of the context branch to evaluate the placeholder against.
+    void stamp(CTSmartTagRun placeholder, String contextKey);
+}
@@ -2,6 +2,8 @@ package pro.verron.officestamper.api;
 
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 
+import java.util.Optional;
+
 /// The PreProcessor interface defines a method for processing a WordprocessingMLPackage
 /// document prior to executing specific operations.
 /// Implementations of this interface can modify, sanitize, or transform the document content as necessary.
@@ -12,4 +14,17 @@ public interface PreProcessor {
     ///
     /// @param document the WordprocessingMLPackage document to be processed; cannot be null
     void process(WordprocessingMLPackage document);
+
+    /// Returns a string identifying the changes this preprocessor makes to a document, so that two preprocessors with
+    /// the same fingerprint prepare any template the same way, in any process. Prepared template snapshots are keyed
+    /// by the fingerprints of the configured preprocessors (see [pro.verron.officestamper.preset.TemplateSnapshots]),
+    /// and are not used when one of them declares none.
+    ///
+    /// The fingerprint must cover the settings of the preprocessor, and must not depend on the run of the JVM, as the
+    /// name of a lambda's class does. The default implementation declares none.
+    ///
+    /// @return the fingerprint of this preprocessor, or empty when it cannot be identified across processes
+    default Optional<String> fingerprint() {
+        return Optional.empty();
+    }
 }
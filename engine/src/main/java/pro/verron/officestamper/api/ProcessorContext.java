@@ -20,6 +20,8 @@ public final class ProcessorContext {
     private final Comment comment;
     private final String expression;
     private final ContextTree contextTree;
+    private final CancellationToken cancellation;
+    private final PlaceholderStamper placeholderStamper;
 
     /// Constructs a ProcessorContext.
     ///
@@ -34,12 +36,55 @@ public final class ProcessorContext {
             Comment comment,
             String expression,
             ContextTree contextTree
+    ) {
+        this(part, paragraph, comment, expression, contextTree, CancellationToken.none());
+    }
+
+    /// Constructs a ProcessorContext bound to the cancellation token of the stamp.
+    ///
+    /// @param part The [DocxPart] representing a specific part of the document being processed.
+    /// @param paragraph The [Paragraph] associated with the processing context.
+    /// @param comment The [Comment] that is relevant to the current processing context.
+    /// @param expression A [String] containing the expression or directive being evaluated.
+    /// @param contextTree The [ContextTree] managing the hierarchical scopes for this context.
+    /// @param cancellation The [CancellationToken] of the stamp being processed.
+    public ProcessorContext(
+            DocxPart part,
+            Paragraph paragraph,
+            Comment comment,
+            String expression,
+            ContextTree contextTree,
+            CancellationToken cancellation
+    ) {
+        this(part, paragraph, comment, expression, contextTree, cancellation, PlaceholderStamper.deferred());
+    }
+
+    /// Constructs a ProcessorContext bound to the cancellation token of the stamp, and stamping the placeholders of
+    /// the content its processor copies with the given stamper.
+    ///
+    /// @param part The [DocxPart] representing a specific part of the document being processed.
+    /// @param paragraph The [Paragraph] associated with the processing context.
+    /// @param comment The [Comment] that is relevant to the current processing context.
+    /// @param expression A [String] containing the expression or directive being evaluated.
+    /// @param contextTree The [ContextTree] managing the hierarchical scopes for this context.
+    /// @param cancellation The [CancellationToken] of the stamp being processed.
+    /// @param placeholderStamper The [PlaceholderStamper] of the stamp being processed.
+    public ProcessorContext(
+            DocxPart part,
+            Paragraph paragraph,
+            Comment comment,
+            String expression,
+            ContextTree contextTree,
+            CancellationToken cancellation,
+            PlaceholderStamper placeholderStamper
     ) {
         this.part = part;
         this.paragraph = paragraph;
         this.comment = comment;
         this.expression = expression;
         this.contextTree = contextTree;
+        this.cancellation = cancellation;
+        this.placeholderStamper = placeholderStamper;
     }
 
     /// Returns an iterator over the content associated with the current comment's range.
@@ -90,4 +135,15 @@ public final class ProcessorContext {
     ///
     /// @return the [ContextTree] object.
     public ContextTree contextHolder() {return contextTree;}
+
+    /// Returns the cancellation token of the stamp, processors iterating over many items should check it regularly.
+    ///
+    /// @return the [CancellationToken] object.
+    public CancellationToken cancellation() {return cancellation;}
+
+    /// Returns the stamper of the placeholders of the content the processor copies once per item, see
+    /// [Table.Row#template(PlaceholderStamper)].
+    ///
+    /// @return the [PlaceholderStamper] object.
+    public PlaceholderStamper placeholderStamper() {return placeholderStamper;}
 }
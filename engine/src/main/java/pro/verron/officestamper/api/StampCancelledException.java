@@ -0,0 +1,29 @@
+package pro.verron.officestamper.api;
+
+/// Thrown when a stamp is interrupted because its [CancellationToken] was cancelled or its deadline passed.
+///
+/// It is raised at the next checkpoint reached by the stamp: between hooks, inside repeat loops, or while exporting the
+/// stamped document. The document being stamped is left in an unspecified state and should be discarded.
+///
+/// @author Joseph Verron
+/// @since 4.0
+public final class StampCancelledException
+        extends OfficeStamperException {
+
+    private final boolean deadlineExceeded;
+
+    /// Constructs a new [StampCancelledException].
+    ///
+    /// @param deadlineExceeded `true` if the stamp was interrupted by its deadline rather than by a cancellation.
+    public StampCancelledException(boolean deadlineExceeded) {
+        super(deadlineExceeded ? "Stamp deadline exceeded" : "Stamp cancelled");
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    /// Tells whether the stamp was interrupted by its deadline rather than by a cancellation.
+    ///
+    /// @return `true` if the deadline of the stamp passed.
+    public boolean deadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
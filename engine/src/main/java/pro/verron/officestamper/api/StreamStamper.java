@@ -2,8 +2,11 @@ package pro.verron.officestamper.api;
 
 import org.docx4j.openpackaging.packages.OpcPackage;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
@@ -19,6 +22,9 @@ public class StreamStamper<T extends OpcPackage> {
     /// Holds a reference to a function that takes in an [InputStream] and produces an instance of type [T].
     private final Function<InputStream, T> loader;
 
+    /// Holds a reference to a function that takes in a [Path] and produces an instance of type [T].
+    private final Function<Path, T> pathLoader;
+
     /// Holds a reference to an [OfficeStamper] used to execute the stamp operation.
     private final OfficeStamper<T> stamper;
 
@@ -34,12 +40,37 @@ public class StreamStamper<T extends OpcPackage> {
             Function<InputStream, T> loader,
             OfficeStamper<T> stamper,
             BiConsumer<T, OutputStream> exporter
+    ) {
+        this(loader, path -> load(loader, path), stamper, exporter);
+    }
+
+    /// Constructs a new [StreamStamper] with the provided loaders, stamper and exporter.
+    ///
+    /// @param loader A Function that takes in an [InputStream] and produces an instance of type [T].
+    /// @param pathLoader A Function that takes in a [Path] and produces an instance of type [T], reading the file
+    ///         through random access rather than as a stream where it can.
+    /// @param stamper An [OfficeStamper] used to execute the stamp operation.
+    /// @param exporter A [BiConsumer] that exports the stamped document to an [OutputStream].
+    public StreamStamper(
+            Function<InputStream, T> loader,
+            Function<Path, T> pathLoader,
+            OfficeStamper<T> stamper,
+            BiConsumer<T, OutputStream> exporter
     ) {
         this.loader = loader;
+        this.pathLoader = pathLoader;
         this.stamper = stamper;
         this.exporter = exporter;
     }
 
+    private static <T> T load(Function<InputStream, T> loader, Path path) {
+        try (var inputStream = Files.newInputStream(path)) {
+            return loader.apply(inputStream);
+        } catch (IOException e) {
+            throw new OfficeStamperException("Failed to read the template " + path, e);
+        }
+    }
+
     /// Stamps the template present in the given InputStream with the context given and writes the result to the
     /// provided [OutputStream]. This method first uses the loader to load the template from the [InputStream] into a
     /// type [T] instance, then uses the stamper to perform the stamp operation using the template and context, writing
@@ -51,8 +82,68 @@ public class StreamStamper<T extends OpcPackage> {
     /// @throws OfficeStamperException if the stamping fails for any reason
     public void stamp(InputStream inputStream, Object context, OutputStream outputStream)
             throws OfficeStamperException {
-        var template = loader.apply(inputStream);
-        var stamped = stamper.stamp(template, context);
+        var template = load(inputStream);
+        var stamped = stamp(template, context);
+        export(stamped, outputStream);
+    }
+
+    /// Stamps the template present in the given InputStream with the context given and writes the result to the
+    /// provided [OutputStream], unless interrupted by the given token. The token is checked after loading the
+    /// template, during the stamp operation, and before each write of the export.
+    ///
+    /// @param inputStream template to stamp
+    /// @param context context to use for stamping
+    /// @param outputStream output stream to write the result to
+    /// @param cancellation token interrupting the operation when cancelled or expired
+    /// @throws StampCancelledException if the token was cancelled or expired before the operation completed
+    /// @throws OfficeStamperException if the stamping fails for any other reason
+    public void stamp(InputStream inputStream, Object context, OutputStream outputStream, CancellationToken cancellation)
+            throws OfficeStamperException {
+        var template = load(inputStream);
+        cancellation.checkpoint();
+        var stamped = stamp(template, context, cancellation);
+        export(stamped, outputStream, cancellation);
+    }
+
+    /// Stamps the template stored in the given file with the context given and writes the result to the provided
+    /// [OutputStream]. Depending on the loader, the file may be memory-mapped instead of read onto the heap.
+    ///
+    /// @param template path of the template to stamp
+    /// @param context context to use for stamping
+    /// @param outputStream output stream to write the result to
+    /// @throws OfficeStamperException if the stamping fails for any reason
+    public void stamp(Path template, Object context, OutputStream outputStream)
+            throws OfficeStamperException {
+        var document = load(template);
+        var stamped = stamp(document, context);
+        export(stamped, outputStream);
+    }
+
+    T load(Path template) {
+        return pathLoader.apply(template);
+    }
+
+    T load(InputStream inputStream) {
+        return loader.apply(inputStream);
+    }
+
+    T stamp(T template, Object context) {
+        return stamper.stamp(template, context);
+    }
+
+    T stamp(T template, Object context, CancellationToken cancellation) {
+        return stamper.stamp(template, context, cancellation);
+    }
+
+    void export(T stamped, OutputStream outputStream) {
         exporter.accept(stamped, outputStream);
     }
+
+    void export(T stamped, OutputStream outputStream, CancellationToken cancellation) {
+        try {
+            exporter.accept(stamped, cancellation.guard(outputStream));
+        } catch (RuntimeException e) {
+            throw CancellationToken.unwrap(e);
+        }
+    }
 }
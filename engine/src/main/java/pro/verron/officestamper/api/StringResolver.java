@@ -2,6 +2,9 @@ package pro.verron.officestamper.api;
 
 import org.jspecify.annotations.Nullable;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static pro.verron.officestamper.utils.wml.WmlFactory.newRun;
 
 /// This is an abstract class that provides a generic implementation for resolving objects to strings. It is used in
@@ -35,6 +38,18 @@ public abstract class StringResolver<T>
         return new Insert(newRun(resolve(type.cast(object))));
     }
 
+    /// Resolves an object to the string the run created by [#resolve(DocxPart, String, Object)] contains.
+    ///
+    /// @param part the WordprocessingMLPackage document
+    /// @param expression the expression string
+    /// @param object the object to be resolved
+    /// @return the resolved string
+    @Override
+    public final String resolveText(DocxPart part, String expression, @Nullable Object object) {
+        if (object == null) throw new OfficeStamperException("Cannot resolve null object");
+        return resolve(type.cast(object));
+    }
+
     /// Determines if the given object can be resolved by the StringResolver.
     ///
     /// @param object the object to be resolved
@@ -44,6 +59,14 @@ public abstract class StringResolver<T>
         return type.isInstance(object);
     }
 
+    /// Declares the type of the objects resolved by the StringResolver.
+    ///
+    /// @return the type given at creation
+    @Override
+    public final Optional<Set<Class<?>>> handledTypes() {
+        return Optional.of(Set.of(type));
+    }
+
     /// Resolves an object to a string.
     ///
     /// @param object the object to be resolved
@@ -61,5 +61,33 @@ public interface Table {
         ///
         /// @return the [Tr] object.
         Tr asTr();
+
+        /// Compiles this row into a [RowTemplate], producing copies of the row whose hooks are bound to a given
+        /// context branch, and whose placeholders may already be stamped by the given stamper.
+        ///
+        /// The default implementation copies the row and rebinds the hooks of each copy, leaving its placeholders to
+        /// the hook loop; implementations should rather do the work shared by all copies once.
+        ///
+        /// @param stamper the stamper of the placeholders of the copies.
+        /// @return a template of this row.
+        default RowTemplate template(PlaceholderStamper stamper) {
+            return contextKey -> {
+                var copy = copy();
+                copy.hooks()
+                    .forEach(hook -> hook.setContextKey(contextKey));
+                return copy;
+            };
+        }
+    }
+
+    /// Produces copies of a row, with every hook of each copy bound to a context branch, for processors repeating a
+    /// row once per item.
+    interface RowTemplate {
+        /// Creates a new copy of the template row, not yet added to any table, its placeholders possibly already
+        /// stamped against the context branch.
+        ///
+        /// @param contextKey the key of the context branch the hooks of the copy are bound to.
+        /// @return the copy.
+        Row instantiate(String contextKey);
     }
 }
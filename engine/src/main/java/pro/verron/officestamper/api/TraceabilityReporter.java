@@ -6,11 +6,29 @@ import java.util.List;
 ///
 /// @since 4.0
 public interface TraceabilityReporter {
-    /// A reporter that does nothing.
+    /// A reporter that does nothing, and is disabled so that the engine does not even build the resolutions to report.
     ///
     /// @return a no-op reporter.
     static TraceabilityReporter noop() {
-        return (_, _, _) -> {};
+        return new TraceabilityReporter() {
+            @Override
+            public void onResolution(String expression, Object resolution, List<Object> contextStack) {
+                // Nothing to report
+            }
+
+            @Override
+            public boolean enabled() {
+                return false;
+            }
+        };
+    }
+
+    /// Tells whether this reporter wants to be told about resolutions. When it does not, the engine skips building the
+    /// context stack of each resolution and never calls [#onResolution(String, Object, List)].
+    ///
+    /// @return `true` by default.
+    default boolean enabled() {
+        return true;
     }
 
     /// Called when a placeholder expression is resolved.
@@ -0,0 +1,132 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.Body;
+import org.docx4j.wml.Child;
+import org.docx4j.wml.CommentRangeEnd;
+import org.docx4j.wml.CommentRangeStart;
+import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R.CommentReference;
+import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.utils.wml.DocxIterator;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/// The body of a main document part, split into segments stamped independently of each other.
+///
+/// The body is only cut between two top-level blocks outside of any comment: no comment range, nor the reference
+/// closing it, crosses a cut. A commented block is besides kept with the paragraph preceding it, which
+/// `repeatDocPart` reads to find the section the repeated range belongs to. Every comment processor thus finds its
+/// whole range, and its neighbourhood, in a single segment.
+///
+/// While split, the blocks of each segment are moved to a detached [Body] of their own, so that processors adding or
+/// removing blocks only touch the content of their segment; [#join()] moves them back in the body, in order.
+final class BodySegments {
+    private final Body body;
+    private final List<Body> segments;
+
+    private BodySegments(Body body, List<Body> segments) {
+        this.body = body;
+        this.segments = segments;
+    }
+
+    /// Splits the body of the given document into at most the given number of segments of similar sizes.
+    ///
+    /// @param document the document whose body to split.
+    /// @param count the maximum number of segments.
+    /// @return the segments, a single one when the body cannot be cut.
+    static BodySegments split(WordprocessingMLPackage document, int count) {
+        var body = document.getMainDocumentPart()
+                           .getJaxbElement()
+                           .getBody();
+        var content = body.getContent();
+        var cuts = cuts(content);
+        var target = Math.max(1, Math.ceilDiv(content.size(), count));
+        var segments = new ArrayList<Body>();
+        var start = 0;
+        for (int i = 1; i < content.size(); i++) {
+            if (i - start < target || !cuts[i]) continue;
+            segments.add(segment(body, content.subList(start, i)));
+            start = i;
+        }
+        if (start == 0) return new BodySegments(body, List.of());
+        segments.add(segment(body, content.subList(start, content.size())));
+        return new BodySegments(body, segments);
+    }
+
+    /// Tells, for each index of the content, whether the content can be cut right before the block at that index.
+    private static boolean[] cuts(List<Object> content) {
+        var cuts = new boolean[content.size()];
+        var openRanges = new HashSet<BigInteger>();
+        var openReferences = new HashSet<BigInteger>();
+        var lastParagraph = -1;
+        for (int i = 0; i < content.size(); i++) {
+            var block = content.get(i);
+            cuts[i] = openRanges.isEmpty() && openReferences.isEmpty();
+            var iterator = new DocxIterator(() -> List.of(block));
+            while (iterator.hasNext()) {
+                switch (iterator.next()) {
+                    case CommentRangeStart start -> {
+                        openRanges.add(start.getId());
+                        openReferences.add(start.getId());
+                        for (int j = Math.max(1, lastParagraph + 1); j <= i; j++)
+                            cuts[j] = false;
+                    }
+                    case CommentRangeEnd end -> openRanges.remove(end.getId());
+                    case CommentReference reference -> openReferences.remove(reference.getId());
+                    default -> { /* DO NOTHING */ }
+                }
+            }
+            if (XmlUtils.unwrap(block) instanceof P) lastParagraph = i;
+        }
+        return cuts;
+    }
+
+    private static Body segment(Body body, List<Object> blocks) {
+        var segment = new Body();
+        segment.setParent(body.getParent());
+        segment.getContent()
+               .addAll(blocks);
+        adopt(segment);
+        return segment;
+    }
+
+    private static void adopt(ContentAccessor parent) {
+        for (var block : parent.getContent())
+            if (XmlUtils.unwrap(block) instanceof Child child) child.setParent(parent);
+    }
+
+    /// Tells whether the body was cut in several segments.
+    ///
+    /// @return `true` if the body was split.
+    boolean isSplit() {
+        return !segments.isEmpty();
+    }
+
+    /// Returns a part for each segment, in document order.
+    ///
+    /// @param document the document the body belongs to.
+    /// @return the parts of the segments.
+    List<DocxPart> parts(WordprocessingMLPackage document) {
+        var mainDocumentPart = document.getMainDocumentPart();
+        var parts = new ArrayList<DocxPart>(segments.size());
+        for (var segment : segments)
+            parts.add(new TextualDocxPart(document, mainDocumentPart, segment));
+        return parts;
+    }
+
+    /// Moves the blocks of every segment back in the body, in order.
+    void join() {
+        if (segments.isEmpty()) return;
+        var content = body.getContent();
+        content.clear();
+        for (var segment : segments)
+            content.addAll(segment.getContent());
+        adopt(body);
+    }
+}
@@ -1,7 +1,9 @@
 package pro.verron.officestamper.core;
 
+import pro.verron.officestamper.api.CancellationToken;
 import pro.verron.officestamper.api.Comment;
 import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.api.PlaceholderStamper;
 import pro.verron.officestamper.api.ProcessorContext;
 import pro.verron.officestamper.utils.wml.WmlUtils;
 
@@ -22,14 +24,26 @@ public class CommentHook
     public boolean run(
             EngineFactory engineFactory,
             ContextRoot contextRoot,
-            OfficeStamperEvaluationContextFactory evaluationContextFactory
+            OfficeStamperEvaluationContextFactory evaluationContextFactory,
+            CancellationToken cancellation
     ) {
-        if (WmlUtils.hasTagAttribute(tag.tag(), "status", "executed")) return false;
+        if (isExecuted()) return false;
         var paragraph = tag.getParagraph();
         var expression = comment.expression();
         var contextKey = tag.getContextKey();
         var contextStack = contextRoot.find(contextKey);
-        var processorContext = new ProcessorContext(part, paragraph, comment, expression, contextStack);
+        PlaceholderStamper placeholderStamper = (placeholder, key) -> {
+            var hook = new TagHook(part, Tag.of(part, placeholder));
+            hook.setContextKey(key);
+            hook.run(engineFactory, contextRoot, evaluationContextFactory, cancellation);
+        };
+        var processorContext = new ProcessorContext(part,
+                paragraph,
+                comment,
+                expression,
+                contextStack,
+                cancellation,
+                placeholderStamper);
         var evaluationContext = evaluationContextFactory.create(processorContext, contextStack);
         var engine = engineFactory.create(processorContext);
         var processed = engine.process(evaluationContext);
@@ -37,6 +51,11 @@ public class CommentHook
         return processed;
     }
 
+    @Override
+    public boolean isExecuted() {
+        return WmlUtils.hasTagAttribute(tag.tag(), "status", "executed");
+    }
+
     @Override
     public void setContextKey(String contextKey) {
         var smartTag = tag.tag();
@@ -3,6 +3,7 @@ package pro.verron.officestamper.core;
 import org.docx4j.wml.CTSmartTagRun;
 import org.docx4j.wml.CommentRangeStart;
 import org.docx4j.wml.ContentAccessor;
+import pro.verron.officestamper.api.CancellationToken;
 import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.Hook;
 import pro.verron.officestamper.utils.iterator.ResetableIterator;
@@ -14,13 +15,16 @@ import static pro.verron.officestamper.utils.wml.WmlUtils.isTagElement;
 public interface DocxHook
         extends Hook {
 
-    /// Creates an iterator over the hooks in the given content accessor.
+    /// Creates an iterator over the hooks in the given content accessor, skipping the hooks inside elements removed
+    /// from the part but not yet compacted, see [TextualDocxPart#compact()].
     ///
     /// @param contentAccessor the content accessor to search for hooks.
     /// @param part the document part.
     /// @return an iterator over the found hooks.
     static ResetableIterator<DocxHook> ofHooks(ContentAccessor contentAccessor, DocxPart part) {
         return new DocxIterator(contentAccessor).filter(DocxHook::isPotentialHook)
+                                                .filter(o -> !(part instanceof TextualDocxPart textual
+                                                               && textual.isRemoved(o)))
                                                 .map(o -> asHook(part, o));
     }
 
@@ -71,6 +75,11 @@ public interface DocxHook
         return new CommentHook(part, myTag, comment);
     }
 
+    /// Tells whether this hook already ran, in which case running it again does nothing.
+    ///
+    /// @return `true` if the hook already ran.
+    boolean isExecuted();
+
     /// Executes the hook's logic within the context of a document processing flow.
     ///
     /// @param engineFactory a factory responsible for creating instances of the [Engine] class, which may be
@@ -79,11 +88,13 @@ public interface DocxHook
     ///         branches available during document processing
     /// @param officeStamperContextFactory a factory for creating evaluation contexts, which are used to
     ///         evaluate expressions and handle dynamic behavior during the document processing flow
+    /// @param cancellation the cancellation token of the stamp, handed over to the processors run by the hook
     ///
     /// @return `true` if the execution of the hook was successful, otherwise `false`
     boolean run(
             EngineFactory engineFactory,
             ContextRoot contextTree,
-            OfficeStamperEvaluationContextFactory officeStamperContextFactory
+            OfficeStamperEvaluationContextFactory officeStamperContextFactory,
+            CancellationToken cancellation
     );
 }
@@ -3,12 +3,20 @@ package pro.verron.officestamper.core;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.Part;
 import org.docx4j.wml.ContentAccessor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import pro.verron.officestamper.api.*;
+import pro.verron.officestamper.utils.concurrent.BoundedExecutor;
 import pro.verron.officestamper.utils.svg.SvgUtils;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static org.docx4j.openpackaging.parts.relationships.Namespaces.FOOTER;
 import static org.docx4j.openpackaging.parts.relationships.Namespaces.HEADER;
@@ -22,34 +30,66 @@ import static org.docx4j.openpackaging.parts.relationships.Namespaces.HEADER;
 public class DocxStamper
         implements OfficeStamper<WordprocessingMLPackage> {
 
+    private static final int SEGMENTS_PER_WORKER = 4;
+
     private final List<PreProcessor> preprocessors;
     private final List<PostProcessor> postprocessors;
-    private final EngineFactory engineFactory;
+    private final SpelParserConfiguration parserConfiguration;
+    private final ExceptionResolver exceptionResolver;
+    private final ObjectResolverRegistry resolverRegistry;
+    private final TraceabilityReporter traceabilityReporter;
+    private final EvaluationLimits evaluationLimits;
     private final EvaluationContextFactory contextFactory;
     private final Map<Class<?>, Object> interfaceFunctions;
     private final List<CustomFunction> customFunctions;
     private final Map<Class<?>, CommentProcessorFactory> commentProcessors;
+    private final boolean expressionFolding;
+    private final boolean expressionMemoization;
+    private final Set<String> pureFunctions;
+    private final int evaluationParallelism;
+    private final int partParallelism;
+    private final boolean bodySegmentation;
+    private final @Nullable ExecutorService executor;
 
     /// Creates new [DocxStamper] with the given configuration.
     ///
     /// @param configuration the configuration to use for this [DocxStamper].
     public DocxStamper(OfficeStamperConfiguration configuration) {
+        this(configuration, 0);
+    }
+
+    /// Creates new [DocxStamper] with the given configuration, for templates on which the first preprocessors of the
+    /// configuration already ran while loading.
+    ///
+    /// @param configuration the configuration to use for this [DocxStamper].
+    /// @param preloadedPreprocessors the number of leading preprocessors of the configuration to skip.
+    public DocxStamper(OfficeStamperConfiguration configuration, int preloadedPreprocessors) {
         this.contextFactory = configuration.getEvaluationContextFactory();
         this.interfaceFunctions = configuration.getExpressionFunctions();
         this.customFunctions = configuration.customFunctions();
+        this.expressionFolding = configuration.isExpressionFolding();
+        this.expressionMemoization = configuration.isExpressionMemoization();
+        this.pureFunctions = customFunctions.stream()
+                                            .filter(CustomFunction::pure)
+                                            .map(CustomFunction::name)
+                                            .collect(Collectors.toUnmodifiableSet());
         this.commentProcessors = configuration.getCommentProcessors();
+        this.evaluationParallelism = configuration.getEvaluationParallelism();
+        this.partParallelism = configuration.getPartParallelism();
+        this.bodySegmentation = configuration.isBodySegmentation();
+        this.executor = configuration.getExecutor()
+                                     .orElse(null);
         // Apply global SVG safe-mode preference early so that any SVG manipulations during stamping honor it.
         if (SecurityMode.PERMISSIVE.equals(configuration.getSvgSecurityMode())) SvgUtils.disableSafeMode();
         else SvgUtils.enableSafeMode();
-        this.engineFactory = processorContext -> {
-            var parserConfiguration = configuration.getParserConfiguration();
-            var exceptionResolver = configuration.getExceptionResolver();
-            var resolvers = configuration.getResolvers();
-            var registry = new ObjectResolverRegistry(resolvers);
-            var traceabilityReporter = configuration.getTraceabilityReporter();
-            return new Engine(parserConfiguration, exceptionResolver, registry, processorContext, traceabilityReporter);
-        };
-        this.preprocessors = new ArrayList<>(configuration.getPreprocessors());
+        this.parserConfiguration = configuration.getParserConfiguration();
+        this.exceptionResolver = configuration.getExceptionResolver();
+        this.resolverRegistry = new ObjectResolverRegistry(configuration.getResolvers());
+        this.traceabilityReporter = configuration.getTraceabilityReporter();
+        this.evaluationLimits = configuration.getEvaluationLimits();
+        var configuredPreprocessors = configuration.getPreprocessors();
+        this.preprocessors = new ArrayList<>(configuredPreprocessors.subList(preloadedPreprocessors,
+                configuredPreprocessors.size()));
         this.postprocessors = new ArrayList<>(configuration.getPostprocessors());
     }
 
@@ -76,52 +116,242 @@ public class DocxStamper
     /// @return the stamped document
     @Override
     public WordprocessingMLPackage stamp(WordprocessingMLPackage document, Object contextRoot) {
-        preprocess(document);
-        process(document, contextRoot);
-        postprocess(document);
+        return stamp(document, contextRoot, CancellationToken.none());
+    }
+
+    /// Stamps the .docx template like [#stamp(WordprocessingMLPackage, Object)], checking the given token before each
+    /// pre- and postprocessor, between hooks, and inside the repeat loops of the comment processors.
+    ///
+    /// @param document the .docx template to stamp
+    /// @param contextRoot the context object to use for stamping
+    /// @param cancellation the token interrupting the stamp when cancelled or expired
+    /// @return the stamped document
+    /// @throws StampCancelledException if the token was cancelled or expired before the stamp completed
+    @Override
+    public WordprocessingMLPackage stamp(
+            WordprocessingMLPackage document,
+            Object contextRoot,
+            CancellationToken cancellation
+    ) {
+        preprocess(document, cancellation);
+        process(document, contextRoot, cancellation);
+        postprocess(document, cancellation);
         return document;
     }
 
-    private void preprocess(WordprocessingMLPackage document) {
-        preprocessors.forEach(processor -> processor.process(document));
+    private void preprocess(WordprocessingMLPackage document, CancellationToken cancellation) {
+        for (var processor : preprocessors) {
+            cancellation.checkpoint();
+            processor.process(document);
+        }
     }
 
-    private void process(WordprocessingMLPackage document, Object contextRoot) {
+    private void process(WordprocessingMLPackage document, Object contextRoot, CancellationToken cancellation) {
+        var expressionCache = new ExpressionCache(expressionFolding, expressionMemoization, pureFunctions);
+        var engineFactory = engineFactory(EvaluationBudget.start(evaluationLimits), expressionCache);
+        var parts = new ArrayList<DocxPart>();
         var mainDocumentPart = document.getMainDocumentPart();
-        var mainPart = new TextualDocxPart(document, mainDocumentPart, mainDocumentPart);
-        process(mainPart, contextRoot);
-
+        var segments = bodySegmentation && partParallelism > 1
+                ? BodySegments.split(document, partParallelism * SEGMENTS_PER_WORKER)
+                : null;
+        if (segments != null && segments.isSplit()) parts.addAll(segments.parts(document));
+        else parts.add(new TextualDocxPart(document, mainDocumentPart, mainDocumentPart));
         var relationshipsPart = mainDocumentPart.getRelationshipsPart();
         for (var relationship : relationshipsPart.getRelationshipsByType(HEADER)) {
-            Part part1 = relationshipsPart.getPart(relationship);
-            TextualDocxPart textualDocxPart = new TextualDocxPart(document, part1, (ContentAccessor) part1);
-            process(textualDocxPart, contextRoot);
+            Part part = relationshipsPart.getPart(relationship);
+            parts.add(new TextualDocxPart(document, part, (ContentAccessor) part));
         }
-
         for (var relationship : relationshipsPart.getRelationshipsByType(FOOTER)) {
             Part part = relationshipsPart.getPart(relationship);
-            TextualDocxPart textualDocxPart = new TextualDocxPart(document, part, (ContentAccessor) part);
-            process(textualDocxPart, contextRoot);
+            parts.add(new TextualDocxPart(document, part, (ContentAccessor) part));
+        }
+
+        var evaluationPool = evaluationParallelism > 1
+                ? new BoundedExecutor(executor("officestamper-evaluate-"), evaluationParallelism)
+                : null;
+        try {
+            process(parts, contextRoot, engineFactory, evaluationPool, cancellation);
+        } finally {
+            if (segments != null) segments.join();
+        }
+    }
+
+    private void process(
+            List<DocxPart> parts,
+            Object contextRoot,
+            EngineFactory engineFactory,
+            @Nullable BoundedExecutor pool,
+            CancellationToken cancellation
+    ) {
+        if (partParallelism == 1 || parts.size() == 1) {
+            for (var part : parts)
+                process(part, contextRoot, engineFactory, pool, cancellation);
+            return;
         }
+        var partExecutor = executor("officestamper-part-");
+        var partPool = new BoundedExecutor(partExecutor, partParallelism);
+        // A part task waiting for evaluations queued on its own executor could starve it: evaluate in the task instead.
+        var evaluationPool = partExecutor == executor("officestamper-evaluate-") ? null : pool;
+        var tasks = new ArrayList<Future<?>>(parts.size());
+        for (var part : parts)
+            tasks.add(partPool.submit(() -> process(part, contextRoot, engineFactory, evaluationPool, cancellation)));
+        RuntimeException failure = null;
+        for (var task : tasks) {
+            var exception = failure(task);
+            if (exception != null && failure == null) failure = exception;
+            else if (exception != null) failure.addSuppressed(exception);
+        }
+        if (failure != null) throw failure;
+    }
+
+    /// Returns the executor configured by the caller, or else the executor the library shares for the given work.
+    private ExecutorService executor(String prefix) {
+        return executor != null ? executor : BoundedExecutor.shared(prefix);
     }
 
-    private void postprocess(WordprocessingMLPackage document) {
-        postprocessors.forEach(processor -> processor.process(document));
+    private static @Nullable RuntimeException failure(Future<?> task) {
+        try {
+            task.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            return new OfficeStamperException("Interrupted while stamping the parts", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException exception) return exception;
+            return new OfficeStamperException("Failed to stamp a part", e.getCause());
+        }
+    }
+
+    private void postprocess(WordprocessingMLPackage document, CancellationToken cancellation) {
+        for (var processor : postprocessors) {
+            cancellation.checkpoint();
+            processor.process(document);
+        }
     }
 
-    private void process(DocxPart part, Object contextRoot) {
+    private EngineFactory engineFactory(EvaluationBudget evaluationBudget, ExpressionCache expressionCache) {
+        return processorContext -> new Engine(parserConfiguration,
+                exceptionResolver,
+                resolverRegistry,
+                processorContext,
+                traceabilityReporter,
+                evaluationBudget,
+                expressionCache);
+    }
+
+    private void process(
+            DocxPart part,
+            Object contextRoot,
+            EngineFactory engineFactory,
+            @Nullable BoundedExecutor pool,
+            CancellationToken cancellation
+    ) {
+        if (pool != null) {
+            processInTwoPhases(part, contextRoot, engineFactory, pool, cancellation);
+            return;
+        }
         var contextTree = new ContextRoot(contextRoot);
         var iterator = DocxHook.ofHooks(part::content, part);
         while (iterator.hasNext()) {
+            cancellation.checkpoint();
             var hook = iterator.next();
-            var officeStamperContextFactory = new OfficeStamperEvaluationContextFactory(customFunctions,
-                    commentProcessors,
-                    interfaceFunctions,
-                    contextFactory);
-            if (hook.run(engineFactory, contextTree, officeStamperContextFactory)) {
+            var officeStamperContextFactory = evaluationContextFactory();
+            if (hook.run(engineFactory, contextTree, officeStamperContextFactory, cancellation)) {
                 iterator.reset();
             }
         }
+        compact(part);
+    }
+
+    /// Applies the removals left pending by the processors of the part, see [CommentProcessor#isRemovalOnly()].
+    private static void compact(DocxPart part) {
+        if (part instanceof TextualDocxPart textual) textual.compact();
+    }
+
+    /// Processes the hooks of a part, gathering the placeholders met before the next other hook to evaluate them
+    /// concurrently, and then insert their values in document order; the other hooks still run one at a time.
+    private void processInTwoPhases(
+            DocxPart part,
+            Object contextRoot,
+            EngineFactory engineFactory,
+            BoundedExecutor pool,
+            CancellationToken cancellation
+    ) {
+        var contextTree = new ContextRoot(contextRoot);
+        var iterator = DocxHook.ofHooks(part::content, part);
+        var placeholders = new ArrayList<TagHook.Placeholder>();
+        while (iterator.hasNext()) {
+            cancellation.checkpoint();
+            var hook = iterator.next();
+            var officeStamperContextFactory = evaluationContextFactory();
+            if (hook instanceof TagHook tagHook && tagHook.isPlaceholder() && !tagHook.isExecuted()) {
+                placeholders.add(tagHook.placeholder(engineFactory,
+                        contextTree,
+                        officeStamperContextFactory,
+                        cancellation));
+            }
+            else if (!hook.isExecuted()) {
+                if (!placeholders.isEmpty()) resolve(placeholders, pool, cancellation);
+                else if (!hook.run(engineFactory, contextTree, officeStamperContextFactory, cancellation)) continue;
+                iterator.reset();
+                continue;
+            }
+            if (!iterator.hasNext() && !placeholders.isEmpty()) {
+                resolve(placeholders, pool, cancellation);
+                iterator.reset();
+            }
+        }
+        compact(part);
+    }
+
+    private OfficeStamperEvaluationContextFactory evaluationContextFactory() {
+        return new OfficeStamperEvaluationContextFactory(customFunctions,
+                commentProcessors,
+                interfaceFunctions,
+                contextFactory);
+    }
+
+    /// Evaluates the given placeholders concurrently, then inserts their values one after the other, in document
+    /// order, on the calling thread.
+    private static void resolve(
+            List<TagHook.Placeholder> placeholders,
+            BoundedExecutor pool,
+            CancellationToken cancellation
+    ) {
+        if (placeholders.size() == 1) {
+            var placeholder = placeholders.getFirst();
+            placeholder.apply(placeholder.evaluate());
+            placeholders.clear();
+            return;
+        }
+        var evaluations = new ArrayList<Future<Engine.Evaluation>>(placeholders.size());
+        try {
+            for (var placeholder : placeholders)
+                evaluations.add(pool.submit(placeholder::evaluate));
+            for (int i = 0; i < placeholders.size(); i++) {
+                cancellation.checkpoint();
+                placeholders.get(i)
+                            .apply(join(evaluations.get(i)));
+            }
+        } finally {
+            for (var evaluation : evaluations)
+                evaluation.cancel(true);
+            placeholders.clear();
+        }
+    }
+
+    private static Engine.Evaluation join(Future<Engine.Evaluation> evaluation) {
+        try {
+            return evaluation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new OfficeStamperException("Interrupted while evaluating placeholders", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException exception) throw exception;
+            throw new OfficeStamperException("Failed to evaluate a placeholder", e.getCause());
+        }
     }
 
 }
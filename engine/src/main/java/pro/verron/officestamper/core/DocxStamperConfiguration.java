@@ -1,6 +1,7 @@
 package pro.verron.officestamper.core;
 
 
+import org.jspecify.annotations.Nullable;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
@@ -17,6 +18,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
 /// The [DocxStamperConfiguration] class represents the configuration for the [DocxStamper] class.
@@ -40,6 +43,15 @@ public class DocxStamperConfiguration
     private SecurityMode svgSecurityMode = SecurityMode.RESTRICTED;
     private SecurityMode spelSecurityMode = SecurityMode.RESTRICTED;
     private TraceabilityReporter traceabilityReporter = TraceabilityReporter.noop();
+    private EvaluationLimits evaluationLimits = EvaluationLimits.unlimited();
+    private boolean lazyPartLoading;
+    private int loadParallelism = 1;
+    private boolean expressionFolding;
+    private boolean expressionMemoization;
+    private int evaluationParallelism = 1;
+    private int partParallelism = 1;
+    private boolean bodySegmentation;
+    private @Nullable ExecutorService executor;
 
     /// Constructs a new instance of the [DocxStamperConfiguration] class and initializes its default configuration
     /// settings.
@@ -372,4 +384,106 @@ public class DocxStamperConfiguration
         this.traceabilityReporter = traceabilityReporter;
         return this;
     }
+
+    @Override
+    public EvaluationLimits getEvaluationLimits() {
+        return evaluationLimits;
+    }
+
+    @Override
+    public OfficeStamperConfiguration setEvaluationLimits(EvaluationLimits evaluationLimits) {
+        this.evaluationLimits = evaluationLimits;
+        return this;
+    }
+
+    @Override
+    public boolean isLazyPartLoading() {
+        return lazyPartLoading;
+    }
+
+    @Override
+    public OfficeStamperConfiguration setLazyPartLoading(boolean lazyPartLoading) {
+        this.lazyPartLoading = lazyPartLoading;
+        return this;
+    }
+
+    @Override
+    public int getLoadParallelism() {
+        return loadParallelism;
+    }
+
+    @Override
+    public OfficeStamperConfiguration setLoadParallelism(int loadParallelism) {
+        if (loadParallelism < 1) throw new OfficeStamperException("Load parallelism must be positive");
+        this.loadParallelism = loadParallelism;
+        return this;
+    }
+
+    @Override
+    public boolean isExpressionFolding() {
+        return expressionFolding;
+    }
+
+    @Override
+    public OfficeStamperConfiguration setExpressionFolding(boolean expressionFolding) {
+        this.expressionFolding = expressionFolding;
+        return this;
+    }
+
+    @Override
+    public boolean isExpressionMemoization() {
+        return expressionMemoization;
+    }
+
+    @Override
+    public OfficeStamperConfiguration setExpressionMemoization(boolean expressionMemoization) {
+        this.expressionMemoization = expressionMemoization;
+        return this;
+    }
+
+    @Override
+    public int getEvaluationParallelism() {
+        return evaluationParallelism;
+    }
+
+    @Override
+    public OfficeStamperConfiguration setEvaluationParallelism(int evaluationParallelism) {
+        if (evaluationParallelism < 1) throw new OfficeStamperException("Evaluation parallelism must be positive");
+        this.evaluationParallelism = evaluationParallelism;
+        return this;
+    }
+
+    @Override
+    public int getPartParallelism() {
+        return partParallelism;
+    }
+
+    @Override
+    public OfficeStamperConfiguration setPartParallelism(int partParallelism) {
+        if (partParallelism < 1) throw new OfficeStamperException("Part parallelism must be positive");
+        this.partParallelism = partParallelism;
+        return this;
+    }
+
+    @Override
+    public boolean isBodySegmentation() {
+        return bodySegmentation;
+    }
+
+    @Override
+    public OfficeStamperConfiguration setBodySegmentation(boolean bodySegmentation) {
+        this.bodySegmentation = bodySegmentation;
+        return this;
+    }
+
+    @Override
+    public Optional<ExecutorService> getExecutor() {
+        return Optional.ofNullable(executor);
+    }
+
+    @Override
+    public OfficeStamperConfiguration setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
 }
@@ -1,5 +1,6 @@
 package pro.verron.officestamper.core;
 
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.expression.EvaluationContext;
@@ -22,6 +23,8 @@ public class Engine {
     private final DocxPart docxPart;
     private final SpelExpressionParser expressionParser;
     private final TraceabilityReporter traceabilityReporter;
+    private final EvaluationBudget evaluationBudget;
+    private final ExpressionCache expressionCache;
 
     /// Constructs an Engine.
     ///
@@ -36,6 +39,58 @@ public class Engine {
             ObjectResolverRegistry objectResolverRegistry,
             ProcessorContext processorContext,
             TraceabilityReporter traceabilityReporter
+    ) {
+        this(parserConfiguration,
+                exceptionResolver,
+                objectResolverRegistry,
+                processorContext,
+                traceabilityReporter,
+                EvaluationBudget.unlimited());
+    }
+
+    /// Constructs an Engine evaluating its expression within the given budget.
+    ///
+    /// @param parserConfiguration the parser configuration.
+    /// @param exceptionResolver the exception resolver.
+    /// @param objectResolverRegistry the object resolver registry.
+    /// @param processorContext the processor context.
+    /// @param traceabilityReporter the traceability reporter.
+    /// @param evaluationBudget the evaluation budget of the document being stamped.
+    public Engine(
+            SpelParserConfiguration parserConfiguration,
+            ExceptionResolver exceptionResolver,
+            ObjectResolverRegistry objectResolverRegistry,
+            ProcessorContext processorContext,
+            TraceabilityReporter traceabilityReporter,
+            EvaluationBudget evaluationBudget
+    ) {
+        this(parserConfiguration,
+                exceptionResolver,
+                objectResolverRegistry,
+                processorContext,
+                traceabilityReporter,
+                evaluationBudget,
+                new ExpressionCache());
+    }
+
+    /// Constructs an Engine evaluating its expression within the given budget, and sharing parsed expressions and
+    /// context-independent values with the other engines of the same stamp.
+    ///
+    /// @param parserConfiguration the parser configuration.
+    /// @param exceptionResolver the exception resolver.
+    /// @param objectResolverRegistry the object resolver registry.
+    /// @param processorContext the processor context.
+    /// @param traceabilityReporter the traceability reporter.
+    /// @param evaluationBudget the evaluation budget of the document being stamped.
+    /// @param expressionCache the expression cache of the document being stamped.
+    public Engine(
+            SpelParserConfiguration parserConfiguration,
+            ExceptionResolver exceptionResolver,
+            ObjectResolverRegistry objectResolverRegistry,
+            ProcessorContext processorContext,
+            TraceabilityReporter traceabilityReporter,
+            EvaluationBudget evaluationBudget,
+            ExpressionCache expressionCache
     ) {
         this.parserConfiguration = parserConfiguration;
         this.expressionParser = new SpelExpressionParser(parserConfiguration);
@@ -44,6 +99,8 @@ public class Engine {
         this.expression = processorContext.expression();
         this.docxPart = processorContext.part();
         this.traceabilityReporter = traceabilityReporter;
+        this.evaluationBudget = evaluationBudget;
+        this.expressionCache = expressionCache;
     }
 
     /// Processes the provided evaluation context against the expression defined in the processor context.
@@ -52,44 +109,54 @@ public class Engine {
     ///
     /// If successful, the process completes and logs a debug message.
     ///
-    /// Otherwise, on failure ([SpelEvaluationException] or [SpelParseException]), it handles the exception by invoking
-    /// the exceptionResolver and logs an error.
+    /// Otherwise, on failure ([SpelEvaluationException], [SpelParseException] or [EvaluationBudgetException]), it
+    /// handles the exception by invoking the exceptionResolver and logs an error.
+    ///
+    /// Processing runs comment processors, which may restructure the document, so the evaluation holds the lock of the
+    /// document: the parts of a document stamped concurrently, segments of the body included, never process
+    /// expressions at the same time, only parsing them runs outside the lock.
     ///
     /// @param evaluationContext the evaluation context for processing the expression.
     /// @return true if the processing was successful, otherwise false
     public boolean process(EvaluationContext evaluationContext) {
         SpelNode spelNode;
         try {
-            spelNode = parseAST(expressionParser, expression);
+            spelNode = expressionCache.parse(expressionParser, expression);
         } catch (SpelParseException e) {
             var msgTemplate = "Expression %s could not be parsed successfully.";
-            var message = msgTemplate.formatted(expression, evaluationContext);
-            exceptionResolver.resolve(expression, message, e);
+            synchronized (docxPart.document()) {
+                exceptionResolver.resolve(failure(msgTemplate, evaluationContext, e));
+            }
             return false;
         }
+        synchronized (docxPart.document()) {
+            return process(evaluationContext, spelNode);
+        }
+    }
 
-        var expressionState = buildExpressionState(evaluationContext);
+    private boolean process(EvaluationContext evaluationContext, SpelNode spelNode) {
+        var meter = evaluationBudget.meter(expression);
+        var expressionState = buildExpressionState(meter.wrap(evaluationContext));
         try {
+            meter.checkTime();
             var value = spelNode.getValue(expressionState);
+            meter.checkSize(value);
             log.debug("Processed '{}' successfully.", expression);
-            var contextBranch = (ContextBranch) Objects.requireNonNull(evaluationContext.getRootObject().getValue());
-            traceabilityReporter.onResolution(expression, value, contextBranch.stream().collect(Collectors.toList()));
-        } catch (SpelEvaluationException e) {
+            report(evaluationContext, value);
+        } catch (SpelEvaluationException | EvaluationBudgetException e) {
+            var violation = EvaluationMeter.violation(e);
+            if (violation.isPresent()) {
+                exceptionResolver.resolve(failure(violation.get()));
+                return false;
+            }
             var msgTemplate = "Expression %s could not be processed against context '%s'";
-            var message = msgTemplate.formatted(expression, evaluationContext);
-            exceptionResolver.resolve(expression, message, e);
+            exceptionResolver.resolve(failure(msgTemplate, evaluationContext, e));
             return false;
         }
 
         return true;
     }
 
-    private static SpelNode parseAST(SpelExpressionParser parser, String expression) {
-        var parsedExpression = parser.parseRaw(expression);
-        log.trace("Parsed '{}' successfully.", expression);
-        return parsedExpression.getAST();
-    }
-
     private ExpressionState buildExpressionState(EvaluationContext evaluationContext) {
         var contextBranchTypedValue = evaluationContext.getRootObject();
         var contextBranch = (ContextBranch) Objects.requireNonNull(contextBranchTypedValue.getValue());
@@ -109,36 +176,154 @@ public class Engine {
     /// @param evaluationContext the evaluation context for processing the expression.
     /// @return an [Insert] object representing the resolved result of the expression within the context.
     public Insert resolve(EvaluationContext evaluationContext) {
+        return resolve(evaluationContext, evaluate(evaluationContext));
+    }
+
+    /// Evaluates the expression of the processor context, without reporting nor converting its value.
+    ///
+    /// The evaluation only reads the context and the shared caches of the stamp, so the expressions of several engines
+    /// can be evaluated concurrently, leaving to [#resolve(EvaluationContext, Evaluation)] what touches the document.
+    ///
+    /// @param evaluationContext the evaluation context for processing the expression.
+    /// @return the value of the expression, or the failure to parse or evaluate it.
+    public Evaluation evaluate(EvaluationContext evaluationContext) {
         SpelNode spelNode;
         try {
-            spelNode = parseAST(expressionParser, expression);
+            spelNode = expressionCache.parse(expressionParser, expression);
         } catch (SpelParseException e) {
             var msgTemplate = "Expression %s could not be parsed successfully.";
-            var message = msgTemplate.formatted(expression, evaluationContext);
-            return exceptionResolver.resolve(expression, message, e);
+            return new Evaluation.Failure(failure(msgTemplate, evaluationContext, e));
         }
 
-        var expressionState = buildExpressionState(evaluationContext);
-        Object javaResolution;
+        var contextBranch = (ContextBranch) Objects.requireNonNull(evaluationContext.getRootObject().getValue());
+        var memoized = expressionCache.value(expression, contextBranch);
+        if (memoized.isPresent()) {
+            log.debug("Reused the value of '{}'.", expression);
+            return new Evaluation.Value(memoized.get()
+                                                .value());
+        }
         try {
-            javaResolution = spelNode.getValue(expressionState);
+            var meter = evaluationBudget.meter(expression);
+            var expressionState = buildExpressionState(meter.wrap(evaluationContext));
+            meter.checkTime();
+            var javaResolution = spelNode.getValue(expressionState);
+            meter.checkSize(javaResolution);
+            expressionCache.store(expression, contextBranch, javaResolution);
             log.debug("Resolved '{}' successfully.", expression);
-            var contextBranch = (ContextBranch) Objects.requireNonNull(evaluationContext.getRootObject().getValue());
-            traceabilityReporter.onResolution(expression, javaResolution, contextBranch.stream().collect(Collectors.toList()));
-        } catch (SpelEvaluationException e) {
+            return new Evaluation.Value(javaResolution);
+        } catch (SpelEvaluationException | EvaluationBudgetException e) {
+            var violation = EvaluationMeter.violation(e);
+            if (violation.isPresent()) return new Evaluation.Failure(failure(violation.get()));
             var msgTemplate = "Expression %s could not be resolved against context '%s'";
-            var message = msgTemplate.formatted(expression, evaluationContext);
-            return exceptionResolver.resolve(expression, message, e);
+            return new Evaluation.Failure(failure(msgTemplate, evaluationContext, e));
+        }
+    }
+
+    /// Describes a failure of the expression, the message being only rendered, from the given template, the
+    /// expression and the evaluation context, when the exception resolver asks for it.
+    private ExpressionFailure failure(String msgTemplate, EvaluationContext evaluationContext, Exception cause) {
+        return new ExpressionFailure(expression, cause, () -> msgTemplate.formatted(expression, evaluationContext));
+    }
+
+    private ExpressionFailure failure(EvaluationBudgetException violation) {
+        return new ExpressionFailure(expression, violation, violation::getMessage);
+    }
+
+    /// Reports the given evaluation of the expression and converts it to an [Insert], or hands its failure to the
+    /// exception resolver.
+    ///
+    /// Converting may add parts to the package, so it holds the lock of the document, like
+    /// [#process(EvaluationContext)].
+    ///
+    /// @param evaluationContext the evaluation context the expression was evaluated with.
+    /// @param evaluation the evaluation of the expression, see [#evaluate(EvaluationContext)].
+    /// @return an [Insert] object representing the resolved result of the expression within the context.
+    public Insert resolve(EvaluationContext evaluationContext, Evaluation evaluation) {
+        synchronized (docxPart.document()) {
+            return switch (evaluation) {
+                case Evaluation.Failure(var failure) -> exceptionResolver.resolve(failure);
+                case Evaluation.Value(var javaResolution) -> {
+                    report(evaluationContext, javaResolution);
+                    yield convert(evaluationContext, javaResolution);
+                }
+            };
         }
+    }
 
+    /// Reports the given evaluation of the expression and replaces the given placeholder with it, like
+    /// [#resolve(EvaluationContext, Evaluation)] followed by [Tag#replace(Insert)].
+    ///
+    /// When the placeholder holds a single run of text and its value resolves to plain text, see
+    /// [ObjectResolver#resolveText(DocxPart, String, Object)], the text of that run is set in place, without building
+    /// any new run.
+    ///
+    /// Only reporting, resolving failures and converting the value hold the lock of the document: the placeholder
+    /// belongs to the part being stamped, so it is replaced once the lock is released.
+    ///
+    /// @param tag the placeholder to replace.
+    /// @param evaluationContext the evaluation context the expression was evaluated with.
+    /// @param evaluation the evaluation of the expression, see [#evaluate(EvaluationContext)].
+    public void replace(Tag tag, EvaluationContext evaluationContext, Evaluation evaluation) {
+        var singleText = tag.singleText();
+        String text = null;
+        Insert insert = null;
+        synchronized (docxPart.document()) {
+            if (evaluation instanceof Evaluation.Value(var javaResolution)) {
+                report(evaluationContext, javaResolution);
+                if (singleText.isPresent()) text = convertText(javaResolution);
+                if (text == null || text.isEmpty()) insert = convert(evaluationContext, javaResolution);
+            }
+            else insert = resolve(evaluationContext, evaluation);
+        }
+        if (insert != null) tag.replace(insert);
+        else {
+            var value = singleText.get();
+            value.setValue(text);
+            value.setSpace("preserve");
+        }
+    }
+
+    private void report(EvaluationContext evaluationContext, @Nullable Object javaResolution) {
+        if (!traceabilityReporter.enabled()) return;
+        var contextBranch = (ContextBranch) Objects.requireNonNull(evaluationContext.getRootObject().getValue());
+        var contextStack = contextBranch.stream()
+                                        .collect(Collectors.toList());
+        traceabilityReporter.onResolution(expression, javaResolution, contextStack);
+    }
+
+    /// Converts the value to plain text, leaving to [#convert] the values failing to, so that their failure is handled
+    /// the same way.
+    private @Nullable String convertText(@Nullable Object javaResolution) {
+        try {
+            return objectResolverRegistry.resolveText(docxPart, expression, javaResolution);
+        } catch (SpelEvaluationException _) {
+            return null;
+        }
+    }
+
+    private Insert convert(EvaluationContext evaluationContext, @Nullable Object javaResolution) {
         try {
             var docxResolution = objectResolverRegistry.resolve(docxPart, expression, javaResolution);
             log.debug("Converted '{}' to docx ({}) successfully.", expression, docxResolution);
             return docxResolution;
         } catch (SpelEvaluationException e) {
             var msgTemplate = "Expression %s could not be converted to docx inserts.";
-            var message = msgTemplate.formatted(expression, evaluationContext);
-            return exceptionResolver.resolve(expression, message, e);
+            return exceptionResolver.resolve(failure(msgTemplate, evaluationContext, e));
         }
     }
+
+    /// The outcome of the evaluation of an expression, before its conversion to document elements.
+    public sealed interface Evaluation {
+        /// A successful evaluation.
+        ///
+        /// @param value the value of the expression, possibly `null`.
+        record Value(@Nullable Object value)
+                implements Evaluation {}
+
+        /// A failed parsing or evaluation.
+        ///
+        /// @param failure the failure, whose message is only rendered when resolving it.
+        record Failure(ExpressionFailure failure)
+                implements Evaluation {}
+    }
 }
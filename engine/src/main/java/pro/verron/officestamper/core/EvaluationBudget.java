@@ -0,0 +1,68 @@
+package pro.verron.officestamper.core;
+
+import pro.verron.officestamper.api.EvaluationBudgetException;
+import pro.verron.officestamper.api.EvaluationLimits;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Tracks the evaluation budget of a document while it is stamped, and hands out an [EvaluationMeter] to each evaluated
+/// expression.
+///
+/// The document-wide counters are shared by all the meters, and safe to update concurrently.
+public final class EvaluationBudget {
+
+    private static final EvaluationBudget UNLIMITED = new EvaluationBudget(EvaluationLimits.unlimited());
+
+    private final EvaluationLimits limits;
+    private final AtomicLong steps = new AtomicLong();
+    private final long start = System.nanoTime();
+
+    private EvaluationBudget(EvaluationLimits limits) {
+        this.limits = limits;
+    }
+
+    /// Starts the budget of a document.
+    ///
+    /// @param limits the limits of the budget.
+    /// @return a new budget, or the shared unlimited one when the limits are unbounded.
+    public static EvaluationBudget start(EvaluationLimits limits) {
+        return limits.isUnlimited() ? UNLIMITED : new EvaluationBudget(limits);
+    }
+
+    /// Returns a budget that never interrupts an evaluation.
+    ///
+    /// @return the shared unlimited budget.
+    public static EvaluationBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /// Creates the meter accounting for a single evaluation of the given expression.
+    ///
+    /// @param expression the evaluated expression.
+    /// @return a new meter, or a no-op one when the budget is unlimited.
+    public EvaluationMeter meter(String expression) {
+        return this == UNLIMITED ? EvaluationMeter.UNMETERED : new EvaluationMeter(this, expression);
+    }
+
+    EvaluationLimits limits() {
+        return limits;
+    }
+
+    long step() {
+        return steps.incrementAndGet();
+    }
+
+    void checkTime(String expression, long now) {
+        if (now - start > limits.documentTime()
+                                .toNanos()) throw exceeded(expression, "the document evaluation time");
+    }
+
+    void checkSteps(String expression, long documentSteps) {
+        if (documentSteps > limits.documentSteps()) throw exceeded(expression, "the document evaluation steps");
+    }
+
+    static EvaluationBudgetException exceeded(String expression, String limit) {
+        var message = "Expression %s exceeded %s budget".formatted(expression, limit);
+        return new EvaluationBudgetException(message);
+    }
+}
@@ -0,0 +1,92 @@
+package pro.verron.officestamper.core;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.expression.EvaluationContext;
+import pro.verron.officestamper.api.EvaluationBudgetException;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/// Accounts for the steps and time consumed by a single evaluation of an expression, against both its own limits and
+/// the budget of its document.
+///
+/// A meter is used by a single thread at a time.
+public final class EvaluationMeter {
+
+    static final EvaluationMeter UNMETERED = new EvaluationMeter(null, "");
+
+    private static final int TIME_CHECK_INTERVAL = 32;
+
+    private final @Nullable EvaluationBudget budget;
+    private final String expression;
+    private final long start = System.nanoTime();
+    private long steps;
+
+    EvaluationMeter(@Nullable EvaluationBudget budget, String expression) {
+        this.budget = budget;
+        this.expression = expression;
+    }
+
+    /// Finds the budget violation that caused the given exception, if any.
+    ///
+    /// Spring wraps the exceptions raised by property accessors, so the violation may be nested.
+    ///
+    /// @param exception the exception raised by an evaluation.
+    /// @return the budget violation, if any.
+    public static Optional<EvaluationBudgetException> violation(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause())
+            if (cause instanceof EvaluationBudgetException violation) return Optional.of(violation);
+        return Optional.empty();
+    }
+
+    /// Wraps the given evaluation context so that each step it performs is accounted for by this meter.
+    ///
+    /// @param evaluationContext the context to meter.
+    /// @return the metered context, or the given one when this meter is unbounded.
+    public EvaluationContext wrap(EvaluationContext evaluationContext) {
+        return budget == null ? evaluationContext : new MeteredEvaluationContext(evaluationContext, this);
+    }
+
+    /// Accounts for one evaluation step.
+    ///
+    /// @throws EvaluationBudgetException if a step or time limit is exceeded.
+    public void step() {
+        if (budget == null) return;
+        var limits = budget.limits();
+        if (++steps > limits.expressionSteps())
+            throw EvaluationBudget.exceeded(expression, "the expression evaluation steps");
+        budget.checkSteps(expression, budget.step());
+        if (steps % TIME_CHECK_INTERVAL == 0) checkTime();
+    }
+
+    /// Checks the time limits, whatever the number of steps consumed so far.
+    ///
+    /// @throws EvaluationBudgetException if a time limit is exceeded.
+    public void checkTime() {
+        if (budget == null) return;
+        var now = System.nanoTime();
+        if (now - start > budget.limits()
+                                .expressionTime()
+                                .toNanos()) throw EvaluationBudget.exceeded(expression, "the expression evaluation time");
+        budget.checkTime(expression, now);
+    }
+
+    /// Checks that the given value, produced by the evaluation, is not a collection larger than allowed.
+    ///
+    /// @param value the produced value.
+    /// @throws EvaluationBudgetException if the value is a collection, map or array larger than allowed.
+    public void checkSize(@Nullable Object value) {
+        if (budget == null) return;
+        var size = switch (value) {
+            case Collection<?> collection -> collection.size();
+            case Map<?, ?> map -> map.size();
+            case Object array when array.getClass()
+                                        .isArray() -> Array.getLength(array);
+            case null, default -> 0;
+        };
+        if (size > budget.limits()
+                         .collectionSize()) throw EvaluationBudget.exceeded(expression, "the collection size");
+    }
+}
@@ -0,0 +1,134 @@
+package pro.verron.officestamper.core;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Memoizes, for the duration of a single stamp, the parsing of expressions and the values of the expressions that do
+/// not depend on the context branch they are evaluated in.
+///
+/// A template evaluates the same expressions many times: once per occurrence, and once per copy made by a repeat. Each
+/// expression is parsed and classified by [ExpressionDependency] once. When folding is enabled, the value of a
+/// context-free expression is then evaluated at its first successful occurrence and reused by the others. When pure
+/// memoization is enabled, the value of a pure expression is likewise reused by the other occurrences evaluated
+/// against the same context objects. Only values are shared: each occurrence still converts its value to its own
+/// document elements, and still reports its resolution.
+public final class ExpressionCache {
+
+    private final boolean fold;
+    private final boolean memoizePure;
+    private final Set<String> pureFunctions;
+    private final Map<String, Parsed> parsed = new ConcurrentHashMap<>();
+    private final Map<String, Value> values = new ConcurrentHashMap<>();
+    private final Map<BranchKey, Value> branchValues = new ConcurrentHashMap<>();
+
+    /// Creates an empty cache, meant to be used for a single stamp, only caching the parsing of expressions.
+    public ExpressionCache() {
+        this(false, false, Set.of());
+    }
+
+    /// Creates an empty cache, meant to be used for a single stamp.
+    ///
+    /// @param fold whether to evaluate context-free expressions once per stamp.
+    /// @param memoizePure whether to memoize the values of pure expressions per context branch.
+    /// @param pureFunctions the names of the custom functions registered as pure.
+    public ExpressionCache(boolean fold, boolean memoizePure, Set<String> pureFunctions) {
+        this.fold = fold;
+        this.memoizePure = memoizePure;
+        this.pureFunctions = Set.copyOf(pureFunctions);
+    }
+
+    /// Parses the given expression, or returns the abstract syntax tree of its previous parsing.
+    ///
+    /// @param parser the parser to use on the first parsing.
+    /// @param expression the expression to parse.
+    /// @return the root of the abstract syntax tree of the expression.
+    /// @throws org.springframework.expression.spel.SpelParseException if the expression cannot be parsed.
+    public SpelNode parse(SpelExpressionParser parser, String expression) {
+        return parsed(parser, expression).ast();
+    }
+
+    private Parsed parsed(SpelExpressionParser parser, String expression) {
+        var cached = parsed.get(expression);
+        if (cached != null) return cached;
+        var ast = parser.parseRaw(expression)
+                        .getAST();
+        var entry = new Parsed(ast, ExpressionDependency.of(ast, pureFunctions));
+        var previous = parsed.putIfAbsent(expression, entry);
+        return previous == null ? entry : previous;
+    }
+
+    /// Returns the value memoized for the given expression in the given branch, if any.
+    ///
+    /// @param expression the expression.
+    /// @param branch the context branch the expression is evaluated in.
+    /// @return the memoized value, which may itself be `null`, or empty when the expression has to be evaluated.
+    public Optional<Value> value(String expression, ContextBranch branch) {
+        var value = values.get(expression);
+        if (value == null && memoizePure) value = branchValues.get(new BranchKey(expression, branch));
+        return Optional.ofNullable(value);
+    }
+
+    /// Memoizes the value of the given expression, when it is context-free and folding is enabled, or when it is pure
+    /// and pure memoization is enabled.
+    ///
+    /// @param expression the expression, already parsed through this cache.
+    /// @param branch the context branch the expression was evaluated in.
+    /// @param value the value it evaluated to.
+    public void store(String expression, ContextBranch branch, @Nullable Object value) {
+        var entry = parsed.get(expression);
+        if (entry == null) return;
+        switch (entry.dependency()) {
+            case CONTEXT_FREE -> {
+                if (fold) values.putIfAbsent(expression, new Value(value));
+            }
+            case PURE -> {
+                if (memoizePure) branchValues.putIfAbsent(new BranchKey(expression, branch), new Value(value));
+            }
+            case BRANCH_DEPENDENT -> {}
+        }
+    }
+
+    /// A memoized value.
+    ///
+    /// @param value the value of the expression, possibly `null`.
+    public record Value(@Nullable Object value) {}
+
+    private record Parsed(SpelNode ast, ExpressionDependency dependency) {}
+
+    /// Identifies an expression evaluated against given context objects, compared by identity: two branches holding
+    /// the same objects, such as the root branches of the body and of a header, share their values.
+    private static final class BranchKey {
+        private final String expression;
+        private final Object[] objects;
+        private final int hash;
+
+        private BranchKey(String expression, ContextBranch branch) {
+            this.expression = expression;
+            this.objects = branch.toArray();
+            var hash = expression.hashCode();
+            for (var object : objects)
+                hash = 31 * hash + System.identityHashCode(object);
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof BranchKey key) || !expression.equals(key.expression)) return false;
+            if (objects.length != key.objects.length) return false;
+            for (int i = 0; i < objects.length; i++)
+                if (objects[i] != key.objects[i]) return false;
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
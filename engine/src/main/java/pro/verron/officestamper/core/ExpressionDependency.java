@@ -0,0 +1,98 @@
+package pro.verron.officestamper.core;
+
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.*;
+
+import java.util.Set;
+
+/// Classifies expressions by the part of the context their value depends on.
+///
+/// The classification only reads the parsed expression: an expression reading no context object is
+/// [#CONTEXT_FREE], one reading it only through plain property paths and calls to pure custom functions is [#PURE],
+/// and any other one is [#BRANCH_DEPENDENT]. The classification is conservative: when in doubt, for instance on
+/// variables, selections or projections, an expression is considered branch-dependent. So are increments and
+/// decrements, like `counter++`, which write to the context.
+///
+/// The `#root` variable does not designate the root of the stamp but the whole [ContextBranch], whose properties are
+/// looked up from its innermost object, so an expression reading it is branch-dependent.
+public enum ExpressionDependency {
+    /// The value does not depend on the context, like `${'a' + 1}` or `${T(java.time.LocalDate).now().year}`.
+    CONTEXT_FREE,
+    /// The value only depends on the context branch the expression is evaluated in, and reading it has no side effect,
+    /// like `${customer.name}` or `${fmt(total)}` when `fmt` is a pure custom function.
+    PURE,
+    /// The value may depend on the context branch the expression is evaluated in.
+    BRANCH_DEPENDENT;
+
+    /// Classifies the given parsed expression.
+    ///
+    /// @param node the root of the abstract syntax tree of the expression.
+    /// @return the part of the context the value of the expression depends on.
+    public static ExpressionDependency of(SpelNode node) {
+        return of(node, Set.of());
+    }
+
+    /// Classifies the given parsed expression, knowing which custom functions are pure.
+    ///
+    /// @param node the root of the abstract syntax tree of the expression.
+    /// @param pureFunctions the names of the pure custom functions.
+    /// @return the part of the context the value of the expression depends on.
+    public static ExpressionDependency of(SpelNode node, Set<String> pureFunctions) {
+        return switch (node) {
+            case Literal _, TypeReference _, QualifiedIdentifier _ -> CONTEXT_FREE;
+            case VariableReference _ when "#this".equals(node.toStringAST()) -> PURE;
+            case PropertyOrFieldReference _ -> PURE;
+            case MethodReference method when pureFunctions.contains(method.getName()) ->
+                    PURE.and(children(node, pureFunctions));
+            case CompoundExpression _ -> compound(node, pureFunctions);
+            case OpInc _, OpDec _ -> BRANCH_DEPENDENT;
+            case Operator _, OperatorNot _, Ternary _, Elvis _, InlineList _, InlineMap _, ConstructorReference _ ->
+                    children(node, pureFunctions);
+            default -> BRANCH_DEPENDENT;
+        };
+    }
+
+    /// Classifies a node applied to the value of the previous nodes of a compound expression, whose dependency is
+    /// `receiver`.
+    ///
+    /// Reading a property of the value keeps the dependency of the receiver. Calling a method or indexing only keeps
+    /// it when both the receiver and the arguments are context-free: on a value read from the context, such a call may
+    /// have side effects, like `items.remove(0)` or `counter.incrementAndGet()`.
+    private static ExpressionDependency chained(
+            SpelNode node,
+            ExpressionDependency receiver,
+            Set<String> pureFunctions
+    ) {
+        return switch (node) {
+            case PropertyOrFieldReference _ -> receiver;
+            case MethodReference _, Indexer _ when receiver == CONTEXT_FREE
+                                                   && children(node, pureFunctions) == CONTEXT_FREE -> CONTEXT_FREE;
+            default -> BRANCH_DEPENDENT;
+        };
+    }
+
+    /// Classifies a node by its children, each evaluated against the active context object.
+    private static ExpressionDependency children(SpelNode node, Set<String> pureFunctions) {
+        var dependency = CONTEXT_FREE;
+        for (int i = 0; i < node.getChildCount(); i++)
+            dependency = dependency.and(of(node.getChild(i), pureFunctions));
+        return dependency;
+    }
+
+    /// Classifies a compound expression: its first node applies to the active context object, and each following
+    /// node to the value of the previous ones.
+    private static ExpressionDependency compound(SpelNode node, Set<String> pureFunctions) {
+        var dependency = of(node.getChild(0), pureFunctions);
+        for (int i = 1; i < node.getChildCount(); i++)
+            dependency = chained(node.getChild(i), dependency, pureFunctions);
+        return dependency;
+    }
+
+    /// Combines two dependencies into the widest one.
+    ///
+    /// @param other the other dependency.
+    /// @return the dependency covering both.
+    public ExpressionDependency and(ExpressionDependency other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+}
@@ -0,0 +1,231 @@
+package pro.verron.officestamper.core;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.*;
+
+import java.util.List;
+
+/// An [EvaluationContext] accounting for each step of an evaluation on an [EvaluationMeter].
+///
+/// Spring caches the accessors and executors it resolves on the nodes of an expression, so metering happens by
+/// wrapping them: every property or index read, method execution, type conversion and comparison goes through the
+/// meter, including the ones repeated over the elements of a projection or a selection.
+final class MeteredEvaluationContext
+        implements EvaluationContext {
+    private final EvaluationContext evaluationContext;
+    private final EvaluationMeter meter;
+
+    MeteredEvaluationContext(EvaluationContext evaluationContext, EvaluationMeter meter) {
+        this.evaluationContext = evaluationContext;
+        this.meter = meter;
+    }
+
+    @Override
+    public TypedValue getRootObject() {
+        return evaluationContext.getRootObject();
+    }
+
+    @Override
+    public List<PropertyAccessor> getPropertyAccessors() {
+        return evaluationContext.getPropertyAccessors()
+                                .stream()
+                                .<PropertyAccessor>map(accessor -> new MeteredPropertyAccessor(accessor, meter))
+                                .toList();
+    }
+
+    @Override
+    public List<IndexAccessor> getIndexAccessors() {
+        return evaluationContext.getIndexAccessors()
+                                .stream()
+                                .<IndexAccessor>map(accessor -> new MeteredIndexAccessor(accessor, meter))
+                                .toList();
+    }
+
+    @Override
+    public List<ConstructorResolver> getConstructorResolvers() {
+        return evaluationContext.getConstructorResolvers();
+    }
+
+    @Override
+    public List<MethodResolver> getMethodResolvers() {
+        return evaluationContext.getMethodResolvers()
+                                .stream()
+                                .<MethodResolver>map(resolver -> new MeteredMethodResolver(resolver, meter))
+                                .toList();
+    }
+
+    @Override
+    public @Nullable BeanResolver getBeanResolver() {
+        return evaluationContext.getBeanResolver();
+    }
+
+    @Override
+    public TypeLocator getTypeLocator() {
+        return evaluationContext.getTypeLocator();
+    }
+
+    @Override
+    public TypeConverter getTypeConverter() {
+        return new MeteredTypeConverter(evaluationContext.getTypeConverter(), meter);
+    }
+
+    @Override
+    public TypeComparator getTypeComparator() {
+        return new MeteredTypeComparator(evaluationContext.getTypeComparator(), meter);
+    }
+
+    @Override
+    public OperatorOverloader getOperatorOverloader() {
+        return evaluationContext.getOperatorOverloader();
+    }
+
+    @Override
+    public void setVariable(String name, @Nullable Object value) {
+        evaluationContext.setVariable(name, value);
+    }
+
+    @Override
+    public @Nullable Object lookupVariable(String name) {
+        meter.step();
+        return evaluationContext.lookupVariable(name);
+    }
+
+    @Override
+    public boolean isAssignmentEnabled() {
+        return evaluationContext.isAssignmentEnabled();
+    }
+
+    @Override
+    public String toString() {
+        return evaluationContext.toString();
+    }
+
+    private record MeteredPropertyAccessor(PropertyAccessor accessor, EvaluationMeter meter)
+            implements PropertyAccessor {
+        @Override
+        public Class<?> @Nullable [] getSpecificTargetClasses() {
+            return accessor.getSpecificTargetClasses();
+        }
+
+        @Override
+        public boolean canRead(EvaluationContext context, @Nullable Object target, String name)
+                throws AccessException {
+            return accessor.canRead(context, target, name);
+        }
+
+        @Override
+        public TypedValue read(EvaluationContext context, @Nullable Object target, String name)
+                throws AccessException {
+            meter.step();
+            return accessor.read(context, target, name);
+        }
+
+        @Override
+        public boolean canWrite(EvaluationContext context, @Nullable Object target, String name)
+                throws AccessException {
+            return accessor.canWrite(context, target, name);
+        }
+
+        @Override
+        public void write(EvaluationContext context, @Nullable Object target, String name, @Nullable Object newValue)
+                throws AccessException {
+            meter.step();
+            accessor.write(context, target, name, newValue);
+        }
+    }
+
+    private record MeteredIndexAccessor(IndexAccessor accessor, EvaluationMeter meter)
+            implements IndexAccessor {
+        @Override
+        public Class<?> @Nullable [] getSpecificTargetClasses() {
+            return accessor.getSpecificTargetClasses();
+        }
+
+        @Override
+        public boolean canRead(EvaluationContext context, Object target, Object index)
+                throws AccessException {
+            return accessor.canRead(context, target, index);
+        }
+
+        @Override
+        public TypedValue read(EvaluationContext context, Object target, Object index)
+                throws AccessException {
+            meter.step();
+            return accessor.read(context, target, index);
+        }
+
+        @Override
+        public boolean canWrite(EvaluationContext context, Object target, Object index)
+                throws AccessException {
+            return accessor.canWrite(context, target, index);
+        }
+
+        @Override
+        public void write(EvaluationContext context, @Nullable Object target, Object index, @Nullable Object newValue)
+                throws AccessException {
+            meter.step();
+            accessor.write(context, target, index, newValue);
+        }
+    }
+
+    private record MeteredMethodResolver(MethodResolver resolver, EvaluationMeter meter)
+            implements MethodResolver {
+        @Override
+        public @Nullable MethodExecutor resolve(
+                EvaluationContext context,
+                Object target,
+                String name,
+                List<TypeDescriptor> argumentTypes
+        )
+                throws AccessException {
+            var executor = resolver.resolve(context, target, name, argumentTypes);
+            return executor == null ? null : new MeteredMethodExecutor(executor, meter);
+        }
+    }
+
+    private record MeteredMethodExecutor(MethodExecutor executor, EvaluationMeter meter)
+            implements MethodExecutor {
+        @Override
+        public TypedValue execute(EvaluationContext context, Object target, @Nullable Object... arguments)
+                throws AccessException {
+            meter.step();
+            var value = executor.execute(context, target, arguments);
+            meter.checkSize(value.getValue());
+            meter.checkTime();
+            return value;
+        }
+    }
+
+    private record MeteredTypeConverter(TypeConverter converter, EvaluationMeter meter)
+            implements TypeConverter {
+        @Override
+        public boolean canConvert(@Nullable TypeDescriptor sourceType, TypeDescriptor targetType) {
+            return converter.canConvert(sourceType, targetType);
+        }
+
+        @Override
+        public @Nullable Object convertValue(
+                @Nullable Object value,
+                @Nullable TypeDescriptor sourceType,
+                TypeDescriptor targetType
+        ) {
+            meter.step();
+            return converter.convertValue(value, sourceType, targetType);
+        }
+    }
+
+    private record MeteredTypeComparator(TypeComparator comparator, EvaluationMeter meter)
+            implements TypeComparator {
+        @Override
+        public boolean canCompare(@Nullable Object firstObject, @Nullable Object secondObject) {
+            return comparator.canCompare(firstObject, secondObject);
+        }
+
+        @Override
+        public int compare(@Nullable Object firstObject, @Nullable Object secondObject) {
+            meter.step();
+            return comparator.compare(firstObject, secondObject);
+        }
+    }
+}
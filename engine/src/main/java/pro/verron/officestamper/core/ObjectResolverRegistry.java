@@ -8,13 +8,26 @@ import pro.verron.officestamper.api.OfficeStamperException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /// A registry for object resolvers. It allows registering and resolving object resolvers based on certain criteria.
 ///
+/// The resolvers declaring their handled types, see [ObjectResolver#handledTypes()], are matched once per class of
+/// object: for each class, the registry remembers the resolvers still to ask, in order, up to the first declared one
+/// handling the class. Only the resolvers declaring nothing are asked with [ObjectResolver#canResolve(Object)] for
+/// each object, so the first resolver able to resolve an object is the same as with an ordered scan.
+///
 /// @author Joseph Verron
 /// @since 1.6.7
 public final class ObjectResolverRegistry {
     private final List<ObjectResolver> resolvers = new ArrayList<>();
+    private final ClassValue<List<Candidate>> plans = new ClassValue<>() {
+        @Override
+        protected List<Candidate> computeValue(Class<?> type) {
+            return plan(type);
+        }
+    };
 
     /// A registry for object resolvers.
     ///
@@ -33,8 +46,56 @@ public final class ObjectResolverRegistry {
     /// @return the resolved value for the expression.
     /// @throws OfficeStamperException if no resolver is found for the object.
     public Insert resolve(DocxPart part, String expression, @Nullable Object object) {
-        for (ObjectResolver resolver : resolvers)
-            if (resolver.canResolve(object)) return resolver.resolve(part, expression, object);
+        return find(object).resolve(part, expression, object);
+    }
+
+    /// Resolves the expression in the given document with the provided object to plain text, see
+    /// [ObjectResolver#resolveText(DocxPart, String, Object)].
+    ///
+    /// @param part       the document part in which to resolve the placeholder.
+    /// @param expression the expression to resolve.
+    /// @param object     the object to be used for resolving the expression.
+    /// @return the resolved text, or `null` if the resolver of the object does not render it as plain text.
+    /// @throws OfficeStamperException if no resolver is found for the object.
+    public @Nullable String resolveText(DocxPart part, String expression, @Nullable Object object) {
+        return find(object).resolveText(part, expression, object);
+    }
+
+    private ObjectResolver find(@Nullable Object object) {
+        if (object == null) {
+            for (ObjectResolver resolver : resolvers)
+                if (resolver.canResolve(null)) return resolver;
+        }
+        else {
+            for (Candidate candidate : plans.get(object.getClass()))
+                if (candidate.handles() || candidate.resolver()
+                                                    .canResolve(object)) return candidate.resolver();
+        }
         throw new OfficeStamperException("No resolver for %s".formatted(object));
     }
+
+    private List<Candidate> plan(Class<?> type) {
+        var plan = new ArrayList<Candidate>();
+        for (ObjectResolver resolver : resolvers) {
+            Optional<Set<Class<?>>> handledTypes = resolver.handledTypes();
+            if (handledTypes.isEmpty()) plan.add(new Candidate(resolver, false));
+            else if (handles(handledTypes.get(), type)) {
+                plan.add(new Candidate(resolver, true));
+                break;
+            }
+        }
+        return List.copyOf(plan);
+    }
+
+    private static boolean handles(Set<Class<?>> handledTypes, Class<?> type) {
+        for (Class<?> handledType : handledTypes)
+            if (handledType.isAssignableFrom(type)) return true;
+        return false;
+    }
+
+    /// A resolver to consider for the objects of a class.
+    ///
+    /// @param resolver the resolver.
+    /// @param handles `true` if the resolver declared handling the class, `false` if it must be asked.
+    private record Candidate(ObjectResolver resolver, boolean handles) {}
 }
@@ -1,6 +1,10 @@
 package pro.verron.officestamper.core;
 
+import org.jspecify.annotations.Nullable;
+import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodExecutor;
+import org.springframework.expression.TypedValue;
 import pro.verron.officestamper.api.*;
 
 import java.util.HashMap;
@@ -46,7 +50,16 @@ public final class OfficeStamperEvaluationContextFactory {
     public EvaluationContext create(ProcessorContext processorContext, ContextBranch branch) {
         var ec = contextFactory.create(branch);
         var processors = instantiate(commentProcessors, processorContext);
-        var invokerStream = Stream.of(streamInvokersFromClass(processors),
+        var removalOnlyProcessors = new HashMap<Class<?>, CommentProcessor>();
+        var otherProcessors = new HashMap<Class<?>, CommentProcessor>();
+        for (var entry : processors.entrySet()) {
+            var processor = entry.getValue();
+            if (processor.isRemovalOnly()) removalOnlyProcessors.put(entry.getKey(), processor);
+            else otherProcessors.put(entry.getKey(), processor);
+        }
+        var part = processorContext.part();
+        var invokerStream = Stream.of(streamInvokersFromClass(removalOnlyProcessors),
+                                          streamInvokersFromClass(otherProcessors).map(i -> compacting(part, i)),
                                           streamInvokersFromClass(interfaceFunctions),
                                           streamInvokersFromCustomFunction(customFunctions))
                                   .flatMap(identity());
@@ -54,6 +67,13 @@ public final class OfficeStamperEvaluationContextFactory {
         return new UnionEvaluationContext(ec, invokers);
     }
 
+    /// Makes the given processor invoker apply the pending removals of the part before running the processor, see
+    /// [CommentProcessor#isRemovalOnly()].
+    private static Invoker compacting(DocxPart part, Invoker invoker) {
+        if (!(part instanceof TextualDocxPart textual)) return invoker;
+        return new Invoker(invoker.name(), invoker.args(), new CompactingExecutor(textual, invoker.executor()));
+    }
+
     /// Returns a set view of the mappings contained in this map. Each entry in the set is a mapping between a
     /// [Class<?>] key and its associated [CommentProcessor] value.
     ///
@@ -73,4 +93,14 @@ public final class OfficeStamperEvaluationContextFactory {
         }
         return map;
     }
+
+    private record CompactingExecutor(TextualDocxPart part, MethodExecutor executor)
+            implements MethodExecutor {
+        @Override
+        public TypedValue execute(EvaluationContext context, Object target, @Nullable Object... arguments)
+                throws AccessException {
+            part.compact();
+            return executor.execute(context, target, arguments);
+        }
+    }
 }
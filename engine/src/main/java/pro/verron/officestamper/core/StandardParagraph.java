@@ -99,7 +99,7 @@ public class StandardParagraph implements Paragraph {
     /// that handles the underlying P object.
     @Override
     public void remove() {
-        WmlUtils.remove((Child) p.getParent());
+        part.remove(p.getParent());
     }
 
     @Override
@@ -186,7 +186,7 @@ public class StandardParagraph implements Paragraph {
 
     @Override
     public Optional<Table> parentTable() {
-        return parent(Tbl.class).map(StandardTable::new);
+        return parent(Tbl.class).map(tbl -> new StandardTable(part, tbl));
     }
 
     /// Returns the string representation of the paragraph. This method delegates to the [#asString()] method to
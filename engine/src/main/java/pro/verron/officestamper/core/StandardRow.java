@@ -31,12 +31,12 @@ public class StandardRow
 
     @Override
     public void remove() {
-        WmlUtils.remove(this.tr);
+        part.remove(tr);
     }
 
     @Override
     public Table table() {
-        return new StandardTable(tbl);
+        return new StandardTable(part, tbl);
     }
 
     @Override
@@ -59,4 +59,9 @@ public class StandardRow
     public Tr asTr() {
         return tr;
     }
+
+    @Override
+    public Table.RowTemplate template(PlaceholderStamper stamper) {
+        return new StandardRowTemplate(part, tbl, tr, stamper);
+    }
 }
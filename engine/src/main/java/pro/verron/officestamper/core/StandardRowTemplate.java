@@ -0,0 +1,148 @@
+package pro.verron.officestamper.core;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+import org.docx4j.XmlUtils;
+import org.docx4j.jaxb.Context;
+import org.docx4j.jaxb.Namespaces;
+import org.docx4j.wml.CTSmartTagRun;
+import org.docx4j.wml.CommentRangeEnd;
+import org.docx4j.wml.CommentRangeStart;
+import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.Tr;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.api.Hooks;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.api.PlaceholderStamper;
+import pro.verron.officestamper.api.Table;
+
+import javax.xml.namespace.QName;
+import java.math.BigInteger;
+import java.util.*;
+
+/// A row compiled once into a template, for the processors repeating it once per item.
+///
+/// Copying a row with [XmlUtils#deepCopy(Object)] marshals and unmarshals it again for each copy, and binding the
+/// copy to its context branch walks it again to find its hooks. Here, the row is marshalled once into a DOM document,
+/// in which the context attribute of each hook is located once: these are the context slots of the template. Each copy
+/// then only fills the context slots with its context key and unmarshals the document, coming out with its hooks
+/// already bound.
+///
+/// The placeholders of the row are located once too, by their position in the row: these are its text slots. Each
+/// copy reaches them directly and hands them to the [PlaceholderStamper], which evaluates them and sets their text in
+/// place, so that the hook loop later skips them. Only the placeholders within the range of a comment, whose processor
+/// may still copy or drop them, the ones nested in other elements than plain content, and the comment processors are
+/// left to the hook loop.
+///
+/// A template is not thread-safe, its slots being filled in place.
+final class StandardRowTemplate
+        implements Table.RowTemplate {
+    private static final String SLOT = "row-template-slot";
+
+    private final DocxPart part;
+    private final Tbl tbl;
+    private final PlaceholderStamper stamper;
+    private final Document document;
+    private final List<Attr> slots;
+    private final List<int[]> placeholders;
+    private final Unmarshaller unmarshaller;
+
+    /// Compiles the given row, binding its hooks to a placeholder context key in the process.
+    ///
+    /// @param part the document part containing the table
+    /// @param tbl the table containing the row
+    /// @param tr the row to compile
+    /// @param stamper the stamper of the placeholders of the copies
+    StandardRowTemplate(DocxPart part, Tbl tbl, Tr tr, PlaceholderStamper stamper) {
+        this.part = part;
+        this.tbl = tbl;
+        this.stamper = stamper;
+        Hooks.ofHooks(tr)
+             .forEachRemaining(hook -> hook.setContextKey(SLOT));
+        try {
+            this.document = XmlUtils.neww3cDomDocument();
+            Context.jc.createMarshaller()
+                      .marshal(new JAXBElement<>(new QName(Namespaces.NS_WORD12, "tr"), Tr.class, tr), document);
+            this.unmarshaller = Context.jc.createUnmarshaller();
+        } catch (JAXBException e) {
+            throw new OfficeStamperException("Failed to compile the table row", e);
+        }
+        this.slots = slots(document);
+        this.placeholders = new ArrayList<>();
+        placeholders(unmarshal().getContent(), new int[0], new HashSet<>(), placeholders);
+    }
+
+    /// Locates the placeholders of the given content outside any comment range, as paths of indexes from the row.
+    private static void placeholders(List<Object> content, int[] path, Set<BigInteger> ranges, List<int[]> found) {
+        for (int i = 0; i < content.size(); i++) {
+            var element = XmlUtils.unwrap(content.get(i));
+            var elementPath = Arrays.copyOf(path, path.length + 1);
+            elementPath[path.length] = i;
+            switch (element) {
+                case CommentRangeStart start -> ranges.add(start.getId());
+                case CommentRangeEnd end -> ranges.remove(end.getId());
+                case CTSmartTagRun tag when ranges.isEmpty() && isPlaceholder(tag) -> found.add(elementPath);
+                case ContentAccessor accessor -> placeholders(accessor.getContent(), elementPath, ranges, found);
+                default -> { /* Leaves the placeholders of other elements to the hook loop */ }
+            }
+        }
+    }
+
+    private static boolean isPlaceholder(CTSmartTagRun tag) {
+        return DocxHook.isPotentialHook(tag) && DocxHook.isType(tag, "placeholder", "type");
+    }
+
+    private static List<Attr> slots(Document document) {
+        var slots = new ArrayList<Attr>();
+        var attributes = document.getElementsByTagNameNS(Namespaces.NS_WORD12, "attr");
+        for (int i = 0; i < attributes.getLength(); i++) {
+            var attribute = (Element) attributes.item(i);
+            var name = attribute(attribute, "name");
+            var value = attribute(attribute, "val");
+            if (name != null && value != null && "context".equals(name.getValue()) && SLOT.equals(value.getValue()))
+                slots.add(value);
+        }
+        return slots;
+    }
+
+    private static @Nullable Attr attribute(Element element, String name) {
+        var attribute = element.getAttributeNodeNS(Namespaces.NS_WORD12, name);
+        return attribute != null ? attribute : element.getAttributeNode(name);
+    }
+
+    @Override
+    public Table.Row instantiate(String contextKey) {
+        for (var slot : slots)
+            slot.setValue(contextKey);
+        var tr = unmarshal();
+        var tags = new ArrayList<CTSmartTagRun>(placeholders.size());
+        for (var path : placeholders)
+            tags.add((CTSmartTagRun) at(tr, path));
+        for (var tag : tags)
+            stamper.stamp(tag, contextKey);
+        return new StandardRow(part, tbl, tr);
+    }
+
+    private Tr unmarshal() {
+        try {
+            return unmarshaller.unmarshal(document.getDocumentElement(), Tr.class)
+                               .getValue();
+        } catch (JAXBException e) {
+            throw new OfficeStamperException("Failed to instantiate the table row", e);
+        }
+    }
+
+    private static Object at(Tr tr, int[] path) {
+        Object element = tr;
+        for (int index : path)
+            element = XmlUtils.unwrap(((ContentAccessor) element).getContent()
+                                                                  .get(index));
+        return element;
+    }
+}
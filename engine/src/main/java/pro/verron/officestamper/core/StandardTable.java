@@ -1,8 +1,8 @@
 package pro.verron.officestamper.core;
 
 import org.docx4j.wml.Tbl;
+import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.Table;
-import pro.verron.officestamper.utils.wml.WmlUtils;
 
 import java.util.List;
 
@@ -10,19 +10,22 @@ import java.util.List;
 /// functionality to manipulate and interact with tables in documents.
 public class StandardTable
         implements Table {
+    private final DocxPart part;
     private final Tbl tbl;
 
 
     /// Constructs a new [StandardTable] object with the specified [Tbl] object.
     ///
+    /// @param part the document part containing the table
     /// @param tbl the [Tbl] object representing the table
-    public StandardTable(Tbl tbl) {
+    public StandardTable(DocxPart part, Tbl tbl) {
+        this.part = part;
         this.tbl = tbl;
     }
 
     @Override
     public void remove() {
-        WmlUtils.remove(tbl);
+        part.remove(tbl);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package pro.verron.officestamper.core;
 
+import org.docx4j.XmlUtils;
 import org.docx4j.wml.*;
 import pro.verron.officestamper.api.Comment;
 import pro.verron.officestamper.api.DocxPart;
@@ -79,6 +80,19 @@ public record Tag(DocxPart docxPart, CTSmartTagRun tag) {
         siblings.addAll(insert.elements());
     }
 
+    /// Retrieves the text of the tag when the tag holds a single run, itself holding a single text, as placeholders
+    /// do when inserted. Setting the value of that text replaces the tag content in place, keeping its run and its
+    /// Run Properties [RPr], as [#replace(Insert)] would for a run of plain text.
+    ///
+    /// @return the single text of the tag, or empty if the tag holds anything else.
+    public Optional<Text> singleText() {
+        var content = tag.getContent();
+        if (content.size() != 1 || !(content.getFirst() instanceof R run)) return Optional.empty();
+        var runContent = run.getContent();
+        if (runContent.size() != 1) return Optional.empty();
+        return XmlUtils.unwrap(runContent.getFirst()) instanceof Text text ? Optional.of(text) : Optional.empty();
+    }
+
     private static <T> Optional<T> getFirst(CTSmartTagRun tagRun, Class<T> clazz) {
         return tagRun.getContent()
                      .stream()
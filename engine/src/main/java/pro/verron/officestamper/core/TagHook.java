@@ -1,5 +1,7 @@
 package pro.verron.officestamper.core;
 
+import org.springframework.expression.EvaluationContext;
+import pro.verron.officestamper.api.CancellationToken;
 import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.ProcessorContext;
 import pro.verron.officestamper.utils.wml.WmlUtils;
@@ -19,15 +21,12 @@ public class TagHook
     public boolean run(
             EngineFactory engineFactory,
             ContextRoot contextRoot,
-            OfficeStamperEvaluationContextFactory evaluationContextFactory
+            OfficeStamperEvaluationContextFactory evaluationContextFactory,
+            CancellationToken cancellation
     ) {
-        if (WmlUtils.hasTagAttribute(tag.tag(), "status", "executed")) return false;
-        var comment = tag.asComment();
-        var paragraph = tag.getParagraph();
-        var expression = tag.expression();
-        var contextKey = tag.getContextKey();
-        var contextStack = contextRoot.find(contextKey);
-        var processorContext = new ProcessorContext(part, paragraph, comment, expression, contextStack);
+        if (isExecuted()) return false;
+        var contextStack = contextRoot.find(tag.getContextKey());
+        var processorContext = processorContext(contextStack, cancellation);
         var evaluationContext = evaluationContextFactory.create(processorContext, contextStack);
         var engine = engineFactory.create(processorContext);
         var tagType = tag.type()
@@ -38,17 +37,80 @@ public class TagHook
             tag.remove();
         }
         else if ("placeholder".equals(tagType)) {
-            var insert = engine.resolve(evaluationContext);
+            engine.replace(tag, evaluationContext, engine.evaluate(evaluationContext));
             processed = true;
-            tag.replace(insert);
         }
         WmlUtils.setTagAttribute(tag.tag(), "status", "executed");
         return processed;
     }
 
+    @Override
+    public boolean isExecuted() {
+        return WmlUtils.hasTagAttribute(tag.tag(), "status", "executed");
+    }
+
+    /// Tells whether this hook is a placeholder, whose evaluation can be separated from the insertion of its value,
+    /// see [#placeholder].
+    ///
+    /// @return `true` if this hook is a placeholder.
+    boolean isPlaceholder() {
+        return tag.type()
+                  .filter("placeholder"::equals)
+                  .isPresent();
+    }
+
+    /// Prepares this placeholder for a two-phase execution: reading the document to build its contexts now,
+    /// then evaluating it, possibly on another thread, and finally inserting its value on the stamping thread.
+    ///
+    /// @param engineFactory the factory of the engine evaluating the placeholder.
+    /// @param contextRoot the root of the context tree of the part.
+    /// @param evaluationContextFactory the factory of the evaluation context of the placeholder.
+    /// @param cancellation the cancellation token of the stamp.
+    /// @return the prepared placeholder.
+    Placeholder placeholder(
+            EngineFactory engineFactory,
+            ContextRoot contextRoot,
+            OfficeStamperEvaluationContextFactory evaluationContextFactory,
+            CancellationToken cancellation
+    ) {
+        var contextStack = contextRoot.find(tag.getContextKey());
+        var processorContext = processorContext(contextStack, cancellation);
+        var evaluationContext = evaluationContextFactory.create(processorContext, contextStack);
+        return new Placeholder(tag, engineFactory.create(processorContext), evaluationContext);
+    }
+
+    private ProcessorContext processorContext(ContextBranch contextStack, CancellationToken cancellation) {
+        var comment = tag.asComment();
+        var paragraph = tag.getParagraph();
+        var expression = tag.expression();
+        return new ProcessorContext(part, paragraph, comment, expression, contextStack, cancellation);
+    }
+
     @Override
     public void setContextKey(String contextKey) {
         WmlUtils.setTagAttribute(tag.tag(), "context", contextKey);
     }
 
+    /// A placeholder whose evaluation is separated from the insertion of its value.
+    ///
+    /// @param tag the tag of the placeholder.
+    /// @param engine the engine evaluating the placeholder.
+    /// @param evaluationContext the evaluation context of the placeholder.
+    record Placeholder(Tag tag, Engine engine, EvaluationContext evaluationContext) {
+
+        /// Evaluates the placeholder, without touching the document.
+        ///
+        /// @return the evaluation of the placeholder.
+        Engine.Evaluation evaluate() {
+            return engine.evaluate(evaluationContext);
+        }
+
+        /// Converts the given evaluation of the placeholder and replaces the tag with it.
+        ///
+        /// @param evaluation the evaluation returned by [#evaluate()].
+        void apply(Engine.Evaluation evaluation) {
+            engine.replace(tag, evaluationContext, evaluation);
+            WmlUtils.setTagAttribute(tag.tag(), "status", "executed");
+        }
+    }
 }
@@ -1,20 +1,33 @@
 package pro.verron.officestamper.core;
 
+import org.docx4j.XmlUtils;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.Part;
 import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.Tc;
+import org.jvnet.jaxb2_commons.ppp.Child;
 import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.utils.wml.WmlUtils;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /// Represents a textual part of a DOCX document, encapsulating the content and structure of the part while enabling
 /// various operations such as accessing paragraphs, runs, and related parts. This class functions as a concrete
 /// implementation of the [DocxPart] interface. It manages the association with the XML structure of a DOCX document.
+///
+/// Removals are deferred: a removed element is only marked as such, a tombstone, until [#compact()] removes every
+/// marked element from each affected content list in a single pass, instead of searching and shifting a list for each
+/// removed element.
 public final class TextualDocxPart
         implements DocxPart {
     private final WordprocessingMLPackage document;
     private final Part part;
     private final ContentAccessor contentAccessor;
+    private final Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<ContentAccessor> affected = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /// Constructs a [TextualDocxPart] using the provided [WordprocessingMLPackage]. This constructor initializes the
     ///  instance with the
@@ -52,4 +65,44 @@ public final class TextualDocxPart
     ///
     /// @return the [WordprocessingMLPackage] instance representing the document.
     public WordprocessingMLPackage document() {return document;}
+
+    /// Marks the given element as removed, leaving it in its parent's content until the next [#compact()]. Elements
+    /// whose parent is not a content list are removed at once.
+    ///
+    /// @param element the element to remove.
+    @Override
+    public void remove(Object element) {
+        if (XmlUtils.unwrap(element) instanceof Child child && child.getParent() instanceof ContentAccessor parent) {
+            removed.add(child);
+            affected.add(parent);
+        }
+        else DocxPart.super.remove(element);
+    }
+
+    /// Tells whether the given element, or one of its ancestors, is marked as removed.
+    ///
+    /// @param element the element to check.
+    /// @return `true` if the element is to be removed by the next [#compact()].
+    public boolean isRemoved(Object element) {
+        if (removed.isEmpty()) return false;
+        var current = XmlUtils.unwrap(element);
+        while (current instanceof Child child) {
+            if (removed.contains(child)) return true;
+            current = child.getParent();
+        }
+        return false;
+    }
+
+    /// Removes the elements marked as removed from their parent, in a single pass over each affected content list. A
+    /// table cell left without paragraph is given an empty one, as an immediate removal would.
+    public void compact() {
+        if (removed.isEmpty()) return;
+        for (var parent : affected) {
+            parent.getContent()
+                  .removeIf(element -> removed.contains(XmlUtils.unwrap(element)));
+            if (parent instanceof Tc cell) WmlUtils.ensureValidity(cell);
+        }
+        removed.clear();
+        affected.clear();
+    }
 }
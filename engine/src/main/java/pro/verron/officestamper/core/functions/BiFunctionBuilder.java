@@ -46,12 +46,24 @@ public class BiFunctionBuilder<T, U>
     ///         and [U], and producing a result.
     @Override
     public OfficeStamperConfiguration withImplementation(BiFunction<T, U, ?> implementation) {
+        return register(implementation, false);
+    }
+
+    /// Sets a pure implementation for the custom function being built, whose calls may be memoized.
+    ///
+    /// @param implementation the pure implementation of the function
+    @Override
+    public OfficeStamperConfiguration withPureImplementation(BiFunction<T, U, ?> implementation) {
+        return register(implementation, true);
+    }
+
+    private OfficeStamperConfiguration register(BiFunction<T, U, ?> implementation, boolean pure) {
         Function<List<Object>, Object> function = args -> {
             var arg0 = class0.cast(args.getFirst());
             var arg1 = class1.cast(args.get(1));
             return implementation.apply(arg0, arg1);
         };
-        var customFunction = new CustomFunction(name, List.of(class0, class1), function);
+        var customFunction = new CustomFunction(name, List.of(class0, class1), function, pure);
         source.addCustomFunction(customFunction);
         return source;
     }
@@ -38,11 +38,23 @@ public class FunctionBuilder<T>
     /// @param implementation a [Function] that takes an input of type [T] and produces a result
     @Override
     public OfficeStamperConfiguration withImplementation(Function<T, ?> implementation) {
+        return register(implementation, false);
+    }
+
+    /// Sets a pure implementation for the custom function being built, whose calls may be memoized.
+    ///
+    /// @param implementation the pure implementation of the function
+    @Override
+    public OfficeStamperConfiguration withPureImplementation(Function<T, ?> implementation) {
+        return register(implementation, true);
+    }
+
+    private OfficeStamperConfiguration register(Function<T, ?> implementation, boolean pure) {
         Function<List<Object>, Object> objectFunction = args -> {
             var arg0 = class0.cast(args.getFirst());
             return implementation.apply(arg0);
         };
-        var customFunction = new CustomFunction(name, List.of(class0), objectFunction);
+        var customFunction = new CustomFunction(name, List.of(class0), objectFunction, pure);
         source.addCustomFunction(customFunction);
         return source;
     }
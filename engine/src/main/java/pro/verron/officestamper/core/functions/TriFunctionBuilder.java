@@ -58,13 +58,25 @@ public class TriFunctionBuilder<T, U, V>
     ///         arguments of types [T], [U], and [V] and produces a result.
     @Override
     public OfficeStamperConfiguration withImplementation(TriFunction<T, U, V, ?> implementation) {
+        return register(implementation, false);
+    }
+
+    /// Sets a pure implementation for the custom function being built, whose calls may be memoized.
+    ///
+    /// @param implementation the pure implementation of the function
+    @Override
+    public OfficeStamperConfiguration withPureImplementation(TriFunction<T, U, V, ?> implementation) {
+        return register(implementation, true);
+    }
+
+    private OfficeStamperConfiguration register(TriFunction<T, U, V, ?> implementation, boolean pure) {
         Function<List<Object>, Object> function = args -> {
             var arg0 = class0.cast(args.getFirst());
             var arg1 = class1.cast(args.get(1));
             var arg2 = class2.cast(args.get(2));
             return implementation.apply(arg0, arg1, arg2);
         };
-        var customFunction = new CustomFunction(name, List.of(class0, class1, class2), function);
+        var customFunction = new CustomFunction(name, List.of(class0, class1, class2), function, pure);
         configuration.addCustomFunction(customFunction);
         return configuration;
     }
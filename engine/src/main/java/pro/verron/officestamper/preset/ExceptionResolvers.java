@@ -3,6 +3,7 @@ package pro.verron.officestamper.preset;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pro.verron.officestamper.api.ExceptionResolver;
+import pro.verron.officestamper.api.ExpressionFailure;
 import pro.verron.officestamper.api.Insert;
 import pro.verron.officestamper.api.OfficeStamperException;
 
@@ -63,10 +64,17 @@ public class ExceptionResolvers {
 
         @Override
         public Insert resolve(String expression, String message, Exception cause) {
-            var description = "Placeholder '%s' could not be resolved; falling back to the default value '%s'. %s"
-                    .formatted(expression, value, message);
-            if (tracing) logger.warn(description, cause);
-            else logger.warn(description);
+            return resolve(new ExpressionFailure(expression, cause, () -> message));
+        }
+
+        @Override
+        public Insert resolve(ExpressionFailure failure) {
+            if (logger.isWarnEnabled()) {
+                var description = "Placeholder '%s' could not be resolved; falling back to the default value '%s'. %s"
+                        .formatted(failure.expression(), value, failure.message());
+                if (tracing) logger.warn(description, failure.cause());
+                else logger.warn(description);
+            }
             return new Insert(newRun(value));
         }
     }
@@ -76,10 +84,18 @@ public class ExceptionResolvers {
 
         @Override
         public Insert resolve(String expression, String message, Exception cause) {
-            var description = "Placeholder '%s' could not be resolved; passing it through unchanged. %s"
-                    .formatted(expression, message);
-            if (tracing) logger.warn(description, cause);
-            else logger.warn(description);
+            return resolve(new ExpressionFailure(expression, cause, () -> message));
+        }
+
+        @Override
+        public Insert resolve(ExpressionFailure failure) {
+            var expression = failure.expression();
+            if (logger.isWarnEnabled()) {
+                var description = "Placeholder '%s' could not be resolved; passing it through unchanged. %s"
+                        .formatted(expression, failure.message());
+                if (tracing) logger.warn(description, failure.cause());
+                else logger.warn(description);
+            }
             return new Insert(newRun(template.formatted(expression)));
         }
     }
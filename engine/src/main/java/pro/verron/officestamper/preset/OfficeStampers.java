@@ -1,12 +1,31 @@
 package pro.verron.officestamper.preset;
 
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import pro.verron.officestamper.api.BatchOptions;
+import pro.verron.officestamper.api.BatchStamper;
+import pro.verron.officestamper.api.FlowStamper;
 import pro.verron.officestamper.api.OfficeStamper;
 import pro.verron.officestamper.api.OfficeStamperConfiguration;
 import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.api.PartPreProcessor;
+import pro.verron.officestamper.api.PlaceholderHooker;
 import pro.verron.officestamper.api.StreamStamper;
 import pro.verron.officestamper.core.DocxStamper;
+import pro.verron.officestamper.utils.openpackaging.ExportOptions;
 import pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils;
+import pro.verron.officestamper.utils.wml.WmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /// [OfficeStampers] is a utility class that provides factory methods for creating document stampers for Office
 /// documents. This class offers convenient methods to create stampers for DOCX documents with various configurations.
@@ -37,8 +56,109 @@ public class OfficeStampers {
     ///         preprocessing steps of the stamper
     /// @return a [StreamStamper] of [WordprocessingMLPackage] configured to process DOCX documents
     public static StreamStamper<WordprocessingMLPackage> docxStamper(OfficeStamperConfiguration configuration) {
-        var stamper = docxPackageStamper(configuration);
-        return new StreamStamper<>(OpenpackagingUtils::loadWord, stamper, OpenpackagingUtils::exportWord);
+        return docxStamper(configuration, ExportOptions.defaults());
+    }
+
+    /// Creates a [StreamStamper] instance that processes [WordprocessingMLPackage] (DOCX) documents with the given
+    /// configuration, and compresses the stamped documents with the given export options.
+    ///
+    /// @param configuration an instance of [OfficeStamperConfiguration] that defines the behavior and
+    ///         preprocessing steps of the stamper
+    /// @param exportOptions the compression level, media storage and deflate parallelism of the exported
+    ///         documents
+    /// @return a [StreamStamper] of [WordprocessingMLPackage] configured to process DOCX documents
+    public static StreamStamper<WordprocessingMLPackage> docxStamper(
+            OfficeStamperConfiguration configuration,
+            ExportOptions exportOptions
+    ) {
+        BiConsumer<WordprocessingMLPackage, OutputStream> exporter =
+                (document, os) -> OpenpackagingUtils.exportWord(document, os, exportOptions);
+        var parallelism = configuration.getLoadParallelism();
+        var lazy = configuration.isLazyPartLoading();
+        if (parallelism == 1) {
+            var stamper = docxPackageStamper(configuration);
+            if (!lazy) return docxStamper(OpenpackagingUtils::loadWord, stamper, exporter);
+            var markers = hookMarkers(configuration);
+            return docxStamper(archive -> OpenpackagingUtils.loadWord(archive, markers), stamper, exporter);
+        }
+        var partPreprocessors = leadingPartPreprocessors(configuration);
+        var stamper = new DocxStamper(configuration, partPreprocessors.size());
+        Consumer<JaxbXmlPart<?>> partHook = part -> {
+            if (!WmlUtils.isDocumentContentPart(part)) return;
+            for (var preprocessor : partPreprocessors)
+                preprocessor.process(part);
+        };
+        var executor = configuration.getExecutor()
+                                    .orElse(null);
+        if (!lazy) return docxStamper(archive -> executor == null
+                ? OpenpackagingUtils.loadWord(archive, parallelism, partHook)
+                : OpenpackagingUtils.loadWord(archive, parallelism, executor, partHook), stamper, exporter);
+        var markers = hookMarkers(configuration);
+        return docxStamper(archive -> executor == null
+                ? OpenpackagingUtils.loadWord(archive, markers, parallelism, partHook)
+                : OpenpackagingUtils.loadWord(archive, markers, parallelism, executor, partHook), stamper, exporter);
+    }
+
+    /// Creates a [StreamStamper] instance that processes [WordprocessingMLPackage] (DOCX) documents with the given
+    /// configuration, caching the prepared templates in the given directory (see [TemplateSnapshots]).
+    ///
+    /// The preprocessors of the configuration run once per template and configuration: later stamps, including those
+    /// of other processes sharing the directory, load the prepared snapshot instead.
+    ///
+    /// @param configuration an instance of [OfficeStamperConfiguration] that defines the behavior and
+    ///         preprocessing steps of the stamper
+    /// @param snapshotDirectory the directory holding the prepared template snapshots
+    /// @return a [StreamStamper] of [WordprocessingMLPackage] configured to process DOCX documents
+    public static StreamStamper<WordprocessingMLPackage> docxStamper(
+            OfficeStamperConfiguration configuration,
+            Path snapshotDirectory
+    ) {
+        var snapshots = new TemplateSnapshots(snapshotDirectory, configuration);
+        var stamper = new DocxStamper(configuration,
+                configuration.getPreprocessors()
+                             .size());
+        return docxStamper(snapshots::load, stamper, OpenpackagingUtils::exportWord);
+    }
+
+    /// Creates a [StreamStamper] loading its templates with the given loader: streamed templates are read in memory
+    /// once, and templates stored in files are memory-mapped.
+    private static StreamStamper<WordprocessingMLPackage> docxStamper(
+            Function<ByteBuffer, WordprocessingMLPackage> loader,
+            OfficeStamper<WordprocessingMLPackage> stamper,
+            BiConsumer<WordprocessingMLPackage, OutputStream> exporter
+    ) {
+        return new StreamStamper<>(is -> loader.apply(ByteBuffer.wrap(readAllBytes(is))),
+                path -> loader.apply(OpenpackagingUtils.map(path)),
+                stamper,
+                exporter);
+    }
+
+    private static byte[] readAllBytes(InputStream is) {
+        try {
+            return is.readAllBytes();
+        } catch (IOException e) {
+            throw new OfficeStamperException("Failed to read the template", e);
+        }
+    }
+
+    /// Lists the [PartPreProcessor]s at the head of the configured preprocessors, which can run on each part while
+    /// it is loaded without changing the order in which the preprocessors apply.
+    private static List<PartPreProcessor> leadingPartPreprocessors(OfficeStamperConfiguration configuration) {
+        var partPreprocessors = new ArrayList<PartPreProcessor>();
+        for (var preprocessor : configuration.getPreprocessors()) {
+            if (!(preprocessor instanceof PartPreProcessor partPreprocessor)) break;
+            partPreprocessors.add(partPreprocessor);
+        }
+        return List.copyOf(partPreprocessors);
+    }
+
+    /// Lists the strings whose presence in a part reveals it may hold a hook: the opening delimiters of the configured
+    /// [PlaceholderHooker]s, the comment anchors, and the smart tags of already hooked templates.
+    private static List<String> hookMarkers(OfficeStamperConfiguration configuration) {
+        var markers = new ArrayList<>(List.of("officestamper", "commentRangeStart", "commentReference"));
+        for (var preprocessor : configuration.getPreprocessors())
+            if (preprocessor instanceof PlaceholderHooker hooker) markers.addAll(hooker.openings());
+        return List.copyOf(markers);
     }
 
     /// Creates an [OfficeStamper] instance for processing [WordprocessingMLPackage] documents with the specified
@@ -51,4 +171,44 @@ public class OfficeStampers {
     public static OfficeStamper<WordprocessingMLPackage> docxPackageStamper(OfficeStamperConfiguration configuration) {
         return new DocxStamper(configuration);
     }
+
+    /// Creates a [BatchStamper] stamping [WordprocessingMLPackage] documents with a default full configuration and the
+    /// default batch options.
+    ///
+    /// @return a [BatchStamper] for [WordprocessingMLPackage] documents
+    /// @see OfficeStamperConfigurations#full()
+    /// @see BatchOptions#defaults()
+    public static BatchStamper<WordprocessingMLPackage> docxBatchStamper() {
+        return docxBatchStamper(OfficeStamperConfigurations.full(), BatchOptions.defaults());
+    }
+
+    /// Creates a [BatchStamper] stamping [WordprocessingMLPackage] documents with the given configuration, running as
+    /// many items concurrently as the given options admit.
+    ///
+    /// @param configuration an instance of [OfficeStamperConfiguration] that defines the behavior of the
+    ///         stamper
+    /// @param options the concurrency and admission limits of the batch
+    /// @return a [BatchStamper] for [WordprocessingMLPackage] documents
+    public static BatchStamper<WordprocessingMLPackage> docxBatchStamper(
+            OfficeStamperConfiguration configuration,
+            BatchOptions options
+    ) {
+        return new BatchStamper<>(docxStamper(configuration), options);
+    }
+
+    /// Creates a [FlowStamper] stamping the given template with the given configuration for each context it receives,
+    /// and publishing the stamped documents in chunks of at most `chunkSize` bytes.
+    ///
+    /// @param configuration an instance of [OfficeStamperConfiguration] that defines the behavior of the
+    ///         stamper
+    /// @param template the bytes of the DOCX template
+    /// @param chunkSize the maximum size of a published chunk, [Integer#MAX_VALUE] to publish complete documents
+    /// @return a [FlowStamper] for [WordprocessingMLPackage] documents
+    public static FlowStamper<WordprocessingMLPackage> docxFlowStamper(
+            OfficeStamperConfiguration configuration,
+            byte[] template,
+            int chunkSize
+    ) {
+        return new FlowStamper<>(docxStamper(configuration), template, chunkSize);
+    }
 }
@@ -37,6 +37,58 @@ public class StampTable
         return new StampTable(singletonList("placeholder"), singletonList(singletonList("placeholder")));
     }
 
+    /// Creates a table from its columns, without copying them into lines: each line is a view reading the values of
+    /// the columns at its index.
+    ///
+    /// @param headers the header line
+    /// @param columns the columns of the table, all of the same size
+    /// @return a [StampTable] object viewing the given columns as lines
+    public static StampTable ofColumns(List<String> headers, List<List<String>> columns) {
+        var size = columns.stream()
+                          .mapToInt(List::size)
+                          .findFirst()
+                          .orElse(0);
+        for (var column : columns)
+            if (column.size() != size) throw new IllegalArgumentException("Columns must all have the same size");
+        var records = new AbstractList<List<String>>() {
+            @Override
+            public List<String> get(int index) {
+                Objects.checkIndex(index, size);
+                return new AbstractList<>() {
+                    @Override
+                    public String get(int column) {
+                        return columns.get(column)
+                                      .get(index);
+                    }
+
+                    @Override
+                    public int size() {
+                        return columns.size();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+        return new StampTable(headers, records);
+    }
+
+    /// Creates a table whose lines are read from the given source only when the table is iterated, so that large
+    /// tables can be streamed into a document without being held in memory.
+    ///
+    /// The table is meant to be iterated once, by the table resolver: each iteration, as well as [#size()], iterates
+    /// the source again.
+    ///
+    /// @param headers the header line
+    /// @param records the source of the lines of the table
+    /// @return a [StampTable] object reading its lines from the given source
+    public static StampTable ofRows(List<String> headers, Iterable<List<String>> records) {
+        return new StampTable(headers, new StreamedRecords(records));
+    }
+
     @Override
     public boolean equals(@Nullable Object o) {
         if (this == o) return true;
@@ -68,4 +120,93 @@ public class StampTable
         return headers;
     }
 
+    /// The lines of a streamed table, read from their source on each iteration.
+    private static final class StreamedRecords
+            extends AbstractSequentialList<List<String>> {
+        private final Iterable<List<String>> source;
+
+        private StreamedRecords(Iterable<List<String>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public int size() {
+            var size = 0;
+            for (var iterator = source.iterator(); iterator.hasNext(); iterator.next())
+                size++;
+            return size;
+        }
+
+        @Override
+        public Iterator<List<String>> iterator() {
+            return source.iterator();
+        }
+
+        @Override
+        public ListIterator<List<String>> listIterator(int index) {
+            var iterator = source.iterator();
+            for (int i = 0; i < index; i++)
+                iterator.next();
+            return new ForwardIterator(iterator, index);
+        }
+    }
+
+    /// A list iterator only moving forward, over a plain iterator.
+    private static final class ForwardIterator
+            implements ListIterator<List<String>> {
+        private final Iterator<List<String>> iterator;
+        private int index;
+
+        private ForwardIterator(Iterator<List<String>> iterator, int index) {
+            this.iterator = iterator;
+            this.index = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public List<String> next() {
+            var next = iterator.next();
+            index++;
+            return next;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return false;
+        }
+
+        @Override
+        public List<String> previous() {
+            throw new UnsupportedOperationException("Streamed tables can only be iterated forward");
+        }
+
+        @Override
+        public int nextIndex() {
+            return index;
+        }
+
+        @Override
+        public int previousIndex() {
+            return index - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Streamed tables are read-only");
+        }
+
+        @Override
+        public void set(List<String> line) {
+            throw new UnsupportedOperationException("Streamed tables are read-only");
+        }
+
+        @Override
+        public void add(List<String> line) {
+            throw new UnsupportedOperationException("Streamed tables are read-only");
+        }
+    }
 }
@@ -0,0 +1,199 @@
+package pro.verron.officestamper.preset;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.api.OfficeStamper;
+import pro.verron.officestamper.api.OfficeStamperConfiguration;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.api.PreProcessor;
+import pro.verron.officestamper.core.DocxStamper;
+import pro.verron.officestamper.utils.openpackaging.ExportOptions;
+import pro.verron.officestamper.utils.openpackaging.OpenPackage;
+import pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/// Holds the prepared templates of a directory in memory, for services stamping many templates.
+///
+/// A template is prepared once: loaded, run through every preprocessor of the configuration, and kept as a DOCX whose
+/// entries are stored rather than deflated. Each stamp gets its own document, loaded from those bytes, so stamps never
+/// share mutable state with the cached original nor with each other, and neither inflate nor preprocess again.
+///
+/// The prepared templates are kept under a least-recently-used policy, bounded by the total size of their bytes: a
+/// template prepared while the budget is exceeded evicts the templates left unused the longest, and a template larger
+/// than the whole budget is prepared for each stamp without being kept. Before serving a cached template, the registry
+/// compares the size and modification time of its file with those it was prepared from, and prepares it again when
+/// they changed.
+///
+/// The registry is safe for concurrent use; two threads missing the same template may both prepare it.
+public final class TemplateRegistry {
+
+    private static final ExportOptions STORED = ExportOptions.defaults()
+                                                             .withLevel(Deflater.NO_COMPRESSION);
+
+    private final Path directory;
+    private final long byteBudget;
+    private final List<PreProcessor> preprocessors;
+    private final OfficeStamper<WordprocessingMLPackage> stamper;
+    private final LinkedHashMap<Path, Prepared> templates = new LinkedHashMap<>(16, 0.75f, true);
+    private long retainedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long reloads;
+
+    /// Creates a registry of the templates of the given directory.
+    ///
+    /// @param directory the directory holding the templates
+    /// @param configuration the configuration preparing and stamping the templates
+    /// @param byteBudget the maximum total size, in bytes, of the prepared templates kept in memory
+    public TemplateRegistry(Path directory, OfficeStamperConfiguration configuration, long byteBudget) {
+        if (byteBudget < 0) throw new OfficeStamperException("Byte budget must not be negative");
+        this.directory = directory.toAbsolutePath()
+                                  .normalize();
+        this.byteBudget = byteBudget;
+        this.preprocessors = List.copyOf(configuration.getPreprocessors());
+        this.stamper = new DocxStamper(configuration, preprocessors.size());
+    }
+
+    /// Stamps the named template with the given context and writes the result to the given stream.
+    ///
+    /// @param name the path of the template, relative to the directory of the registry
+    /// @param context the context to use for stamping
+    /// @param outputStream the output stream to write the stamped document to
+    /// @throws OfficeStamperException if the template cannot be read, or if the stamping fails
+    public void stamp(String name, Object context, OutputStream outputStream) {
+        var document = acquire(name);
+        try {
+            var stamped = stamper.stamp(document, context);
+            OpenpackagingUtils.exportWord(stamped, outputStream);
+        } finally {
+            OpenPackage.release(document);
+        }
+    }
+
+    /// Returns a new instance of the named template, already prepared by the preprocessors of the configuration.
+    ///
+    /// The instance belongs to the caller, who may modify it freely; it must only be stamped by a stamper skipping
+    /// the preprocessors, such as [DocxStamper#DocxStamper(OfficeStamperConfiguration, int)]. Once done with it, the
+    /// caller must pass it to [OpenPackage#release(org.docx4j.openpackaging.packages.OpcPackage)], or the images
+    /// stamped into it and the archive it was loaded from stay reachable for the lifetime of the application.
+    ///
+    /// @param name the path of the template, relative to the directory of the registry
+    /// @return a prepared instance of the template
+    /// @throws OfficeStamperException if the template cannot be read
+    public WordprocessingMLPackage acquire(String name) {
+        var path = resolve(name);
+        var version = Version.of(path);
+        var prepared = cached(path, version);
+        if (prepared == null) prepared = retain(path, prepare(path, version));
+        return OpenpackagingUtils.loadWord(ByteBuffer.wrap(prepared.bytes()));
+    }
+
+    /// Forgets the named template, which is prepared again on its next use.
+    ///
+    /// @param name the path of the template, relative to the directory of the registry
+    public synchronized void invalidate(String name) {
+        var removed = templates.remove(resolve(name));
+        if (removed != null) retainedBytes -= removed.size();
+    }
+
+    /// Returns the counters of the registry since its creation.
+    ///
+    /// @return a snapshot of the metrics
+    public synchronized Metrics metrics() {
+        return new Metrics(hits, misses, evictions, reloads, retainedBytes, templates.size());
+    }
+
+    private Path resolve(String name) {
+        var path = directory.resolve(name)
+                            .normalize();
+        if (!path.startsWith(directory))
+            throw new OfficeStamperException("Template '%s' is outside the registry directory".formatted(name));
+        return path;
+    }
+
+    private synchronized @Nullable Prepared cached(Path path, Version version) {
+        var prepared = templates.get(path);
+        if (prepared == null) {
+            misses++;
+            return null;
+        }
+        if (prepared.version()
+                    .equals(version)) {
+            hits++;
+            return prepared;
+        }
+        templates.remove(path);
+        retainedBytes -= prepared.size();
+        reloads++;
+        return null;
+    }
+
+    private synchronized Prepared retain(Path path, Prepared prepared) {
+        if (prepared.size() > byteBudget) return prepared;
+        var previous = templates.put(path, prepared);
+        if (previous != null) retainedBytes -= previous.size();
+        retainedBytes += prepared.size();
+        var iterator = templates.values()
+                                .iterator();
+        while (retainedBytes > byteBudget && iterator.hasNext()) {
+            var eldest = iterator.next();
+            if (eldest == prepared) continue;
+            iterator.remove();
+            retainedBytes -= eldest.size();
+            evictions++;
+        }
+        return prepared;
+    }
+
+    private Prepared prepare(Path path, Version version) {
+        var document = OpenpackagingUtils.loadWord(path);
+        for (var preprocessor : preprocessors)
+            preprocessor.process(document);
+        var outputStream = new ByteArrayOutputStream();
+        try {
+            OpenpackagingUtils.exportWord(document, outputStream, STORED);
+        } finally {
+            OpenPackage.release(document);
+        }
+        return new Prepared(version, outputStream.toByteArray());
+    }
+
+    /// The counters of a [TemplateRegistry].
+    ///
+    /// @param hits the number of templates served from memory
+    /// @param misses the number of templates absent from memory when requested
+    /// @param evictions the number of templates dropped to stay within the byte budget
+    /// @param reloads the number of templates prepared again because their file changed
+    /// @param retainedBytes the total size of the prepared templates currently kept in memory
+    /// @param templates the number of prepared templates currently kept in memory
+    public record Metrics(long hits, long misses, long evictions, long reloads, long retainedBytes, int templates) {}
+
+    /// The size and modification time of a template file, telling whether it changed since it was prepared.
+    private record Version(long size, FileTime modified) {
+        static Version of(Path path) {
+            try {
+                return new Version(Files.size(path), Files.getLastModifiedTime(path));
+            } catch (IOException e) {
+                throw new OfficeStamperException("Failed to read the template " + path, e);
+            }
+        }
+    }
+
+    /// A prepared template and the version of the file it was prepared from.
+    private record Prepared(Version version, byte[] bytes) {
+        int size() {
+            return bytes.length;
+        }
+    }
+}
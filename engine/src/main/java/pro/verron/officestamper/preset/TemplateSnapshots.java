@@ -0,0 +1,167 @@
+package pro.verron.officestamper.preset;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pro.verron.officestamper.api.OfficeStamperConfiguration;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.api.PreProcessor;
+import pro.verron.officestamper.utils.openpackaging.ExportOptions;
+import pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.Deflater;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/// A local cache of prepared templates: templates on which every preprocessor of a configuration already ran.
+///
+/// Preparing a template means unzipping it, unmarshalling its parts and running the preprocessors, which every process
+/// restart or CLI invocation would otherwise pay again. The first time a template is loaded, the prepared document is
+/// written to the cache directory as a DOCX whose entries are stored rather than deflated; the following loads map that
+/// snapshot and skip both the inflate and the preprocessing. The hooks themselves are found again by the engine, which
+/// only scans the smart tags and comments the preprocessors left.
+///
+/// A snapshot is named after the SHA-256 of the template bytes and a fingerprint of the configured preprocessors (see
+/// [PreProcessor#fingerprint()]), so a changed template or configuration is prepared again instead of reusing a stale
+/// snapshot. When a preprocessor declares no fingerprint, its changes cannot be told apart from those of another
+/// configuration, so no snapshot is read nor written and every load prepares the template. The snapshots of former
+/// templates are never deleted; the directory can be emptied at any time.
+///
+/// The snapshot entries are stored so they load quickly. The stamped documents are as compact as without snapshots,
+/// since exporting a document compresses its entries again, even when copying untouched entries from its source (see
+/// [ExportOptions#rawCopy()]).
+///
+/// Snapshots are written to a temporary file and then moved in place, so concurrent processes sharing a directory never
+/// read a partial snapshot. Failing to write a snapshot does not fail the load.
+public final class TemplateSnapshots {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateSnapshots.class);
+
+    /// The version of the snapshot layout, part of the fingerprint so that a new layout never reads an older one.
+    private static final int FORMAT = 1;
+
+    private static final ExportOptions STORED = ExportOptions.defaults()
+                                                             .withLevel(Deflater.NO_COMPRESSION);
+
+    private final Path directory;
+    private final List<PreProcessor> preprocessors;
+    private final @Nullable String fingerprint;
+
+    /// Creates a cache of the templates prepared by the preprocessors of the given configuration.
+    ///
+    /// @param directory the directory holding the snapshots, created when the first snapshot is written
+    /// @param configuration the configuration whose preprocessors prepare the templates
+    public TemplateSnapshots(Path directory, OfficeStamperConfiguration configuration) {
+        this.directory = directory;
+        this.preprocessors = List.copyOf(configuration.getPreprocessors());
+        this.fingerprint = fingerprint(preprocessors);
+        if (fingerprint == null)
+            logger.info("Template snapshots are disabled, a configured preprocessor declares no fingerprint");
+    }
+
+    private static @Nullable String fingerprint(List<PreProcessor> preprocessors) {
+        var fingerprints = new StringBuilder().append(FORMAT);
+        for (var preprocessor : preprocessors) {
+            var fingerprint = preprocessor.fingerprint();
+            if (fingerprint.isEmpty()) return null;
+            fingerprints.append('\n')
+                        .append(fingerprint.get());
+        }
+        var bytes = fingerprints.toString()
+                                .getBytes(StandardCharsets.UTF_8);
+        return HexFormat.of()
+                        .formatHex(sha256(ByteBuffer.wrap(bytes)), 0, 8);
+    }
+
+    private static byte[] sha256(ByteBuffer bytes) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes.slice());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new OfficeStamperException("SHA-256 is not available", e);
+        }
+    }
+
+    /// Returns the fingerprint of the configured preprocessors, shared by the names of all the snapshots they prepare.
+    ///
+    /// @return the fingerprint, as hexadecimal digits, or empty when a preprocessor declares none
+    public Optional<String> fingerprint() {
+        return Optional.ofNullable(fingerprint);
+    }
+
+    /// Returns the path of the snapshot of the given template, whether it exists or not.
+    ///
+    /// @param template the bytes of the DOCX template
+    /// @return the path of its snapshot in the cache directory, or empty when snapshots are disabled
+    public Optional<Path> snapshotOf(ByteBuffer template) {
+        if (fingerprint == null) return Optional.empty();
+        var hash = HexFormat.of()
+                            .formatHex(sha256(template));
+        return Optional.of(directory.resolve(hash + "-" + fingerprint + ".docx"));
+    }
+
+    /// Loads the prepared version of the given template: its snapshot when present, otherwise the template itself,
+    /// prepared by the configured preprocessors and then written as a new snapshot when snapshots are enabled.
+    ///
+    /// @param template the bytes of the DOCX template, which must not be modified afterward
+    /// @return the prepared document, on which no preprocessor must run again
+    public WordprocessingMLPackage load(ByteBuffer template) {
+        var snapshot = snapshotOf(template);
+        if (snapshot.isEmpty()) return prepare(template);
+        return load(template, snapshot.get());
+    }
+
+    private WordprocessingMLPackage load(ByteBuffer template, Path snapshot) {
+        if (Files.isRegularFile(snapshot)) {
+            try {
+                return OpenpackagingUtils.loadWord(snapshot);
+            } catch (RuntimeException e) {
+                logger.atWarn()
+                      .setCause(e)
+                      .log("Preparing again the template of unreadable snapshot {}", snapshot);
+            }
+        }
+        var document = prepare(template);
+        store(document, snapshot);
+        return document;
+    }
+
+    private WordprocessingMLPackage prepare(ByteBuffer template) {
+        var document = OpenpackagingUtils.loadWord(template);
+        for (var preprocessor : preprocessors)
+            preprocessor.process(document);
+        return document;
+    }
+
+    private void store(WordprocessingMLPackage document, Path snapshot) {
+        try {
+            Files.createDirectories(directory);
+            var temporary = Files.createTempFile(directory, "snapshot-", ".tmp");
+            try {
+                try (var outputStream = Files.newOutputStream(temporary)) {
+                    OpenpackagingUtils.exportWord(document, outputStream, STORED);
+                }
+                Files.move(temporary, snapshot, ATOMIC_MOVE, REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.atWarn()
+                  .setCause(e)
+                  .log("Failed to write the template snapshot {}", snapshot);
+        }
+    }
+}
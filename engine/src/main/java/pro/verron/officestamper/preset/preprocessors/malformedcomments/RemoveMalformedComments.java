@@ -37,6 +37,11 @@ public class RemoveMalformedComments
         implements PreProcessor {
     private static final Logger log = LoggerFactory.getLogger(RemoveMalformedComments.class);
 
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of(getClass().getName());
+    }
+
     @Override
     public void process(WordprocessingMLPackage document) {
         var commentElements = WmlUtils.extractCommentElements(document);
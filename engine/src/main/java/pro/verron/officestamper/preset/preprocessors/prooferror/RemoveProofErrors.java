@@ -1,23 +1,30 @@
 package pro.verron.officestamper.preset.preprocessors.prooferror;
 
-import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
 import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.ProofErr;
-import pro.verron.officestamper.api.PreProcessor;
+import pro.verron.officestamper.api.PartPreProcessor;
 
-import static pro.verron.officestamper.utils.wml.WmlUtils.visitDocument;
+import java.util.Optional;
+
+import static pro.verron.officestamper.utils.wml.WmlUtils.visitPart;
 
 /// This pre-processor removes all [ProofErr] elements from the document.
 ///
 /// Proof errors are markup elements that indicate potential grammar or spelling errors in the document. This
 /// pre-processor removes them to clean up the document before further processing.
 public class RemoveProofErrors
-        implements PreProcessor {
+        implements PartPreProcessor {
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of(getClass().getName());
+    }
 
     @Override
-    public void process(WordprocessingMLPackage document) {
+    public void process(JaxbXmlPart<?> part) {
         var visitor = new ProofErrVisitor();
-        visitDocument(document, visitor);
+        visitPart(part, visitor);
         for (ProofErr proofErr : visitor.getProofErrs()) {
             var proofErrParent = proofErr.getParent();
             if (proofErrParent instanceof ContentAccessor parent) {
@@ -1,9 +1,11 @@
 package pro.verron.officestamper.preset.preprocessors.rmlang;
 
-import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
-import pro.verron.officestamper.api.PreProcessor;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import pro.verron.officestamper.api.PartPreProcessor;
 
-import static pro.verron.officestamper.utils.wml.WmlUtils.visitDocument;
+import java.util.Optional;
+
+import static pro.verron.officestamper.utils.wml.WmlUtils.visitPart;
 
 /// The [RemoveLang] preprocessor removes language settings from paragraphs and runs within a Word document. This is
 /// useful when working with templates where language-specific formatting might interfere with the stamping process.
@@ -13,25 +15,30 @@ import static pro.verron.officestamper.utils.wml.WmlUtils.visitDocument;
 ///
 /// @author Joseph Verron
 public class RemoveLang
-        implements PreProcessor {
+        implements PartPreProcessor {
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of(getClass().getName());
+    }
 
     @Override
-    public void process(WordprocessingMLPackage document) {
-        removeRprLang(document);
-        removePprLang(document);
+    public void process(JaxbXmlPart<?> part) {
+        removeRprLang(part);
+        removePprLang(part);
     }
 
-    private static void removeRprLang(WordprocessingMLPackage document) {
+    private static void removeRprLang(JaxbXmlPart<?> part) {
         var visitor = new RprLangVisitor();
-        visitDocument(document, visitor);
+        visitPart(part, visitor);
         for (var rPr : visitor.getrPrs()) {
             rPr.setLang(null);
         }
     }
 
-    private static void removePprLang(WordprocessingMLPackage document) {
+    private static void removePprLang(JaxbXmlPart<?> part) {
         var visitor2 = new PprLangVisitor();
-        visitDocument(document, visitor2);
+        visitPart(part, visitor2);
         for (var rPr : visitor2.getParaPrs()) {
             rPr.setLang(null);
         }
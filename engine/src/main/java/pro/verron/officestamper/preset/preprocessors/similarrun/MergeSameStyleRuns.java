@@ -1,11 +1,12 @@
 package pro.verron.officestamper.preset.preprocessors.similarrun;
 
-import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
 import org.docx4j.wml.ContentAccessor;
-import pro.verron.officestamper.api.PreProcessor;
+import pro.verron.officestamper.api.PartPreProcessor;
 import pro.verron.officestamper.utils.wml.WmlUtils;
 
 import java.util.LinkedHashSet;
+import java.util.Optional;
 
 /// Merges consecutive runs with the same styling into a single run.
 ///
@@ -17,12 +18,17 @@ import java.util.LinkedHashSet;
 ///
 /// @author Joseph Verron
 public class MergeSameStyleRuns
-        implements PreProcessor {
+        implements PartPreProcessor {
 
     @Override
-    public void process(WordprocessingMLPackage document) {
+    public Optional<String> fingerprint() {
+        return Optional.of(getClass().getName());
+    }
+
+    @Override
+    public void process(JaxbXmlPart<?> part) {
         var visitor = new SimilarRunVisitor();
-        WmlUtils.visitDocument(document, visitor);
+        WmlUtils.visitPart(part, visitor);
         for (var similarStyleRuns : visitor.getSimilarStyleRuns()) {
             var firstRun = similarStyleRuns.getFirst();
             var runContent = firstRun.getContent();
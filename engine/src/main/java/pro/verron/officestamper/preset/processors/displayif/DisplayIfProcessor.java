@@ -2,13 +2,13 @@ package pro.verron.officestamper.preset.processors.displayif;
 
 
 import org.jspecify.annotations.Nullable;
-import org.jvnet.jaxb2_commons.ppp.Child;
 import pro.verron.officestamper.api.CommentProcessor;
 import pro.verron.officestamper.api.ProcessorContext;
 import pro.verron.officestamper.preset.CommentProcessorFactory;
-import pro.verron.officestamper.utils.wml.WmlUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 
 import static pro.verron.officestamper.api.OfficeStamperException.throwing;
 
@@ -29,6 +29,11 @@ public class DisplayIfProcessor
         super(processorContext);
     }
 
+    @Override
+    public boolean isRemovalOnly() {
+        return true;
+    }
+
     @Override
     public void displayParagraphIfAbsent(@Nullable Object condition) {
         displayParagraphIf(condition == null);
@@ -86,12 +91,13 @@ public class DisplayIfProcessor
     public void displayWordsIf(@Nullable Boolean condition) {
         if (Boolean.TRUE.equals(condition)) return;
         var iterator = context().contentIterator();
-        var toRemove = new ArrayList<Child>();
+        var toRemove = new ArrayList<>();
         while (iterator.hasNext()) {
             var it = iterator.next();
-            toRemove.add((Child) it);
+            toRemove.add(it);
         }
-        toRemove.forEach(WmlUtils::remove);
+        var part = context().part();
+        toRemove.forEach(part::remove);
     }
 
     @Override
@@ -107,9 +113,11 @@ public class DisplayIfProcessor
     @Override
     public void displayDocPartIf(@Nullable Boolean condition) {
         if (Boolean.TRUE.equals(condition)) return;
+        var elements = Collections.newSetFromMap(new IdentityHashMap<>());
+        elements.addAll(comment().getElements());
         comment().getParent()
                  .getContent()
-                 .removeAll(comment().getElements());
+                 .removeIf(elements::contains);
     }
 
     @Override
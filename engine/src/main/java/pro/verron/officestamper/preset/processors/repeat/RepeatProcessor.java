@@ -50,8 +50,10 @@ public class RepeatProcessor
         var index = siblings.indexOf(firstElement);
         siblings.removeAll(elements);
         var iterator = items.iterator();
+        var cancellation = context().cancellation();
         // Iterates items; copies elements; conditionally adds section break; adds elements
         while (iterator.hasNext()) {
+            cancellation.checkpoint();
             var item = iterator.next();
             var copiedElements = elements.stream()
                                          .map(XmlUtils::deepCopy)
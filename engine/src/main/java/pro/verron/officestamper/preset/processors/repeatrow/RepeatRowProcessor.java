@@ -36,12 +36,12 @@ public class RepeatRowProcessor
 
         var table = row.table();
         var index = table.indexOf(row);
+        var cancellation = context().cancellation();
+        var template = row.template(context().placeholderStamper());
         for (Object item : items) {
-            var copy = row.copy();
+            cancellation.checkpoint();
             var contextKey = contextHolder.addBranch(item);
-            copy.hooks()
-                .forEach(hook -> hook.setContextKey(contextKey));
-            table.add(index++, copy);
+            table.add(index++, template.instantiate(contextKey));
         }
         row.remove();
     }
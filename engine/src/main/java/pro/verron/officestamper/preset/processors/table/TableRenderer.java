@@ -0,0 +1,124 @@
+package pro.verron.officestamper.preset.processors.table;
+
+import jakarta.xml.bind.JAXBElement;
+import org.docx4j.XmlUtils;
+import org.docx4j.jaxb.Namespaces;
+import org.docx4j.wml.CTTblPrEx;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.Tc;
+import org.docx4j.wml.TcPr;
+import org.docx4j.wml.Tr;
+import org.docx4j.wml.TrPr;
+import org.jspecify.annotations.Nullable;
+import org.jvnet.jaxb2_commons.ppp.Child;
+import pro.verron.officestamper.preset.StampTable;
+import pro.verron.officestamper.utils.wml.WmlFactory;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.List;
+
+/// Renders a [StampTable] into a template table, whose first row formats the headers and second row the lines.
+///
+/// The formatting of both template rows, their properties and the properties of their first cell, is captured once;
+/// each row and cell is then built directly, with its own copy of those properties, instead of deep-copying the
+/// template row for each line and its first cell for each column. The table is iterated once, so its cost grows
+/// linearly with its number of cells, and streamed tables are rendered without being held in memory.
+final class TableRenderer {
+    private static final QName TC = new QName(Namespaces.NS_WORD12, "tc");
+
+    private final RowFormat header;
+    private final RowFormat line;
+
+    private TableRenderer(RowFormat header, RowFormat line) {
+        this.header = header;
+        this.line = line;
+    }
+
+    /// Captures the formatting of the given template table.
+    ///
+    /// @param tbl the template table, with a header row followed by a line row.
+    /// @return a renderer for the table.
+    static TableRenderer of(Tbl tbl) {
+        var rows = tbl.getContent();
+        return new TableRenderer(RowFormat.of((Tr) rows.get(0)), RowFormat.of((Tr) rows.get(1)));
+    }
+
+    /// Fills the template table with the given table: the header row is filled with the headers, the line row with
+    /// the first line, and a row is appended for each other line. The line row is removed when there is no line.
+    ///
+    /// @param tbl the template table.
+    /// @param table the table to render.
+    void render(Tbl tbl, StampTable table) {
+        var rows = tbl.getContent();
+        var headerRow = (Tr) rows.get(0);
+        var lineRow = (Tr) rows.get(1);
+        header.fill(headerRow, table.headers(), List.of());
+
+        var iterator = table.iterator();
+        if (!iterator.hasNext()) {
+            rows.remove(lineRow);
+            return;
+        }
+        var first = iterator.next();
+        line.fill(lineRow, first, List.of());
+        var appended = new ArrayList<Tr>();
+        while (iterator.hasNext()) {
+            var tr = WmlFactory.newRow();
+            tr.setParent(tbl);
+            line.fill(tr, iterator.next(), first);
+            appended.add(tr);
+        }
+        rows.addAll(appended);
+    }
+
+    /// The formatting of a template row.
+    ///
+    /// @param rowProperties the properties of the row.
+    /// @param exceptions the table properties the row overrides.
+    /// @param cellProperties the properties of the first cell of the row, copied for every cell.
+    private record RowFormat(
+            @Nullable TrPr rowProperties,
+            @Nullable CTTblPrEx exceptions,
+            @Nullable TcPr cellProperties
+    ) {
+        static RowFormat of(Tr tr) {
+            var firstCell = (Tc) XmlUtils.unwrap(tr.getContent()
+                                                  .getFirst());
+            return new RowFormat(tr.getTrPr(), tr.getTblPrEx(), firstCell.getTcPr());
+        }
+
+        /// Replaces the cells of the given row with a cell per value, the values missing from a short line being
+        /// taken from the given fallback line.
+        void fill(Tr tr, List<String> values, List<String> fallback) {
+            tr.setTrPr(copy(rowProperties, tr));
+            tr.setTblPrEx(copy(exceptions, tr));
+            var cells = tr.getContent();
+            cells.clear();
+            var width = Math.max(1, Math.max(values.size(), fallback.size()));
+            for (int i = 0; i < width; i++) {
+                var value = i < values.size() ? values.get(i) : i < fallback.size() ? fallback.get(i) : "";
+                cells.add(cell(tr, value));
+            }
+        }
+
+        private JAXBElement<Tc> cell(Tr tr, String value) {
+            var tc = WmlFactory.newCell();
+            tc.setParent(tr);
+            tc.setTcPr(copy(cellProperties, tc));
+            var paragraph = WmlFactory.newParagraph(value);
+            paragraph.setParent(tc);
+            tc.getContent()
+              .add(paragraph);
+            return new JAXBElement<>(TC, Tc.class, Tr.class, tc);
+        }
+
+        /// Copies the given properties for the given parent, so that no properties are shared between elements.
+        private static <E> @Nullable E copy(@Nullable E properties, Object parent) {
+            if (properties == null) return null;
+            var copy = XmlUtils.deepCopy(properties);
+            if (copy instanceof Child child) child.setParent(parent);
+            return copy;
+        }
+    }
+}
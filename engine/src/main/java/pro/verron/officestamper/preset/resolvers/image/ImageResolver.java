@@ -11,6 +11,8 @@ import pro.verron.officestamper.utils.image.ImageRunOptions;
 import pro.verron.officestamper.utils.openpackaging.OpenPackage;
 import pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils;
 
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Supplier;
 
 /// This [ObjectResolver] allows context objects to return objects of type [Image]. An expression that resolves to an
@@ -40,6 +42,11 @@ public class ImageResolver
         return object instanceof Image;
     }
 
+    @Override
+    public Optional<Set<Class<?>>> handledTypes() {
+        return Optional.of(Set.of(Image.class));
+    }
+
     /// Resolves an image and adds it to a [WordprocessingMLPackage] document.
     ///
     /// @param image The image to be resolved and added
@@ -5,6 +5,9 @@ import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.Insert;
 import pro.verron.officestamper.api.ObjectResolver;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static pro.verron.officestamper.utils.wml.WmlFactory.newRun;
 
 /// The Null2DefaultResolver class is an implementation of the
@@ -21,8 +24,18 @@ public record Null2DefaultResolver(String defaultValue)
         return new Insert(newRun(defaultValue));
     }
 
+    @Override
+    public String resolveText(DocxPart part, String expression, @Nullable Object object) {
+        return defaultValue;
+    }
+
     @Override
     public boolean canResolve(@Nullable Object object) {
         return object == null;
     }
+
+    @Override
+    public Optional<Set<Class<?>>> handledTypes() {
+        return Optional.of(Set.of());
+    }
 }
@@ -5,6 +5,9 @@ import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.Insert;
 import pro.verron.officestamper.api.ObjectResolver;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static pro.verron.officestamper.utils.wml.WmlFactory.newRun;
 
 /// The [Null2PlaceholderResolver] class is an implementation of the ObjectResolver interface. It provides a way to
@@ -30,8 +33,18 @@ public class Null2PlaceholderResolver
         return new Insert(newRun(placeholderTemplate.formatted(expression)));
     }
 
+    @Override
+    public String resolveText(DocxPart part, String expression, @Nullable Object object) {
+        return placeholderTemplate.formatted(expression);
+    }
+
     @Override
     public boolean canResolve(@Nullable Object object) {
         return object == null;
     }
+
+    @Override
+    public Optional<Set<Class<?>>> handledTypes() {
+        return Optional.of(Set.of());
+    }
 }
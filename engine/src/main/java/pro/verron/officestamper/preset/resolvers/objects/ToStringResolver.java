@@ -7,6 +7,8 @@ import pro.verron.officestamper.api.ObjectResolver;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static pro.verron.officestamper.utils.wml.WmlFactory.*;
 
@@ -45,8 +47,19 @@ public class ToStringResolver
         return new Insert(elements);
     }
 
+    @Override
+    public @Nullable String resolveText(DocxPart part, String expression, @Nullable Object object) {
+        var string = String.valueOf(object);
+        return string.split(linebreakPlaceholder).length == 1 ? string : null;
+    }
+
     @Override
     public boolean canResolve(@Nullable Object object) {
         return object != null;
     }
+
+    @Override
+    public Optional<Set<Class<?>>> handledTypes() {
+        return Optional.of(Set.of(Object.class));
+    }
 }
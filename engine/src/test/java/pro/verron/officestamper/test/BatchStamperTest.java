@@ -0,0 +1,73 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.api.BatchOptions;
+import pro.verron.officestamper.api.BatchStamper;
+import pro.verron.officestamper.preset.OfficeStamperConfigurations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
+import static pro.verron.officestamper.preset.OfficeStampers.docxBatchStamper;
+import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.ResourceUtils.getResource;
+import static pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils.loadWord;
+
+class BatchStamperTest {
+
+    @DisplayName("A batch stamps every item and reports each result")
+    @Test
+    void stampsEveryItem() {
+        var factory = objectContextFactory();
+        var options = BatchOptions.defaults()
+                                  .withConcurrency(2)
+                                  .withHeapBudget(1024);
+        var stamper = docxBatchStamper(OfficeStamperConfigurations.standard(), options);
+        var outputs = new ConcurrentHashMap<String, ByteArrayOutputStream>();
+        var items = Stream.of("Homer", "Marge", "Bart", "Lisa", "Maggie")
+                          .map(name -> new BatchStamper.Item(factory.names(name), () -> {
+                              var outputStream = new ByteArrayOutputStream();
+                              outputs.put(name, outputStream);
+                              return outputStream;
+                          }));
+        var results = new ArrayList<BatchStamper.Result>();
+
+        stamper.stamp(getResource(Path.of("MultiStampTest.docx")), items, results::add);
+
+        assertEquals(5, results.size());
+        assertTrue(results.stream()
+                          .allMatch(BatchStamper.Result::succeeded));
+        outputs.forEach((name, outputStream) -> {
+            var stamped = loadWord(new ByteArrayInputStream(outputStream.toByteArray()));
+            assertTrue(toAsciidoc(stamped).contains("|" + name + "\n"));
+        });
+    }
+
+    @DisplayName("A failing item is reported without aborting the batch")
+    @Test
+    void reportsFailures() {
+        var factory = objectContextFactory();
+        var stamper = docxBatchStamper(OfficeStamperConfigurations.standard(), BatchOptions.defaults());
+        var failure = new IllegalStateException("Sink unavailable");
+        var items = List.of(new BatchStamper.Item(factory.names("Homer"), ByteArrayOutputStream::new),
+                new BatchStamper.Item(factory.names("Marge"), () -> {throw failure;}));
+        var results = new ArrayList<BatchStamper.Result>();
+
+        stamper.stamp(getResource(Path.of("MultiStampTest.docx")), items, results::add);
+
+        assertEquals(2, results.size());
+        var failed = results.stream()
+                            .filter(result -> !result.succeeded())
+                            .toList();
+        assertEquals(1, failed.size());
+        assertSame(failure, failed.getFirst().failure());
+    }
+}
@@ -0,0 +1,58 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.preset.OfficeStampers.docxPackageStamper;
+import static pro.verron.officestamper.test.utils.DocxFactory.makeWordResource;
+import static pro.verron.officestamper.test.utils.ResourceUtils.getWordResource;
+
+class BodySegmentationTest {
+
+    private static final String TEMPLATE = """
+            comment::1[start="5,0", end="5,7", value="repeatParagraph(names)"]
+            ${title} 0
+            ${title} 1
+            ${title} 2
+            ${title} 3
+            ${title} 4
+            ${name}
+            ${title} 6
+            ${title} 7
+            ${title} 8
+            ${title} 9
+            """;
+
+    @DisplayName("A segmented body is stamped like a whole one")
+    @ParameterizedTest(name = "part parallelism: {0}")
+    @ValueSource(ints = {2, 4})
+    void sameDocument(int parallelism) {
+        var context = Map.of("title", "Simpsons", "names", List.of(Map.of("name", "Homer"), Map.of("name", "Bart")));
+        var whole = docxPackageStamper(standard()).stamp(makeWordResource(TEMPLATE), context);
+        var segmentedConfiguration = standard().setPartParallelism(parallelism)
+                                               .setBodySegmentation(true);
+        var segmented = docxPackageStamper(segmentedConfiguration).stamp(makeWordResource(TEMPLATE), context);
+        assertEquals(toAsciidoc(whole), toAsciidoc(segmented));
+    }
+
+    @DisplayName("Repeated document parts keep their section when the body is segmented")
+    @Test
+    void repeatDocPart() {
+        var context = Map.of("repeatValues", List.of(Map.of("name", "Homer"), Map.of("name", "Marge")));
+        var template = Path.of("ProcessorRepeatDocPart_OutLayout.docx");
+        var whole = docxPackageStamper(standard()).stamp(getWordResource(template), context);
+        var segmentedConfiguration = standard().setPartParallelism(4)
+                                               .setBodySegmentation(true);
+        var segmented = docxPackageStamper(segmentedConfiguration).stamp(getWordResource(template), context);
+        assertEquals(toAsciidoc(whole), toAsciidoc(segmented));
+    }
+}
@@ -0,0 +1,68 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.api.CancellationToken;
+import pro.verron.officestamper.api.StampCancelledException;
+import pro.verron.officestamper.preset.OfficeStamperConfigurations;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.preset.OfficeStampers.docxPackageStamper;
+import static pro.verron.officestamper.test.utils.ResourceUtils.getWordResource;
+
+class CancellationTest {
+
+    @DisplayName("A cancelled token interrupts the stamp before it starts")
+    @Test
+    void cancelledBeforeStart() {
+        var stamper = docxPackageStamper(OfficeStamperConfigurations.standard());
+        var template = getWordResource("MultiStampTest.docx");
+        var token = CancellationToken.cancellable();
+        token.cancel();
+
+        var exception = assertThrows(StampCancelledException.class,
+                () -> stamper.stamp(template, Map.of("names", List.of()), token));
+        assertFalse(exception.deadlineExceeded());
+    }
+
+    @DisplayName("An expired token reports its deadline")
+    @Test
+    void deadlineExceeded() {
+        var stamper = docxPackageStamper(OfficeStamperConfigurations.standard());
+        var template = getWordResource("MultiStampTest.docx");
+        var token = CancellationToken.withTimeout(Duration.ZERO);
+
+        var exception = assertThrows(StampCancelledException.class,
+                () -> stamper.stamp(template, Map.of("names", List.of()), token));
+        assertTrue(exception.deadlineExceeded());
+    }
+
+    @DisplayName("A token cancelled while repeating a row interrupts the repeat loop")
+    @Test
+    void cancelledInsideRepeatLoop() {
+        var stamper = docxPackageStamper(OfficeStamperConfigurations.standard());
+        var template = getWordResource("MultiStampTest.docx");
+        var token = CancellationToken.cancellable();
+        Iterable<Object> names = () -> new Iterator<>() {
+            private int count;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Object next() {
+                if (++count == 2) token.cancel();
+                return Map.of("name", "Homer");
+            }
+        };
+
+        assertThrows(StampCancelledException.class, () -> stamper.stamp(template, Map.of("names", names), token));
+    }
+}
@@ -0,0 +1,64 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.api.EvaluationLimits;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.preset.ExceptionResolvers;
+import pro.verron.officestamper.preset.OfficeStamperConfigurations;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
+import static pro.verron.officestamper.preset.OfficeStampers.docxPackageStamper;
+import static pro.verron.officestamper.test.utils.DocxFactory.makeWordResource;
+
+class EvaluationBudgetTest {
+
+    @DisplayName("An expression exceeding its step budget is handed to the exception resolver")
+    @Test
+    void expressionStepsExceeded() {
+        var template = makeWordResource("""
+                ${name.concat(name).concat(name).concat(name)}
+
+                The rest of the document keeps being processed.
+                """);
+        var configuration = OfficeStamperConfigurations.minimal();
+        configuration.setExceptionResolver(ExceptionResolvers.defaulting("__________"));
+        configuration.setEvaluationLimits(EvaluationLimits.unlimited()
+                                                          .withExpressionSteps(3));
+        var stamper = docxPackageStamper(configuration);
+        var actual = toAsciidoc(stamper.stamp(template, Map.of("name", "Homer")));
+        assertTrue(actual.contains("__________"));
+        assertTrue(actual.contains("The rest of the document keeps being processed."));
+        assertFalse(actual.contains("HomerHomer"));
+    }
+
+    @DisplayName("An expression producing a collection larger than allowed fails with a budget violation")
+    @Test
+    void collectionSizeExceeded() {
+        var template = makeWordResource("Numbers: ${ {1, 2, 3} }");
+        var configuration = OfficeStamperConfigurations.minimal();
+        configuration.setExceptionResolver(ExceptionResolvers.throwing());
+        configuration.setEvaluationLimits(EvaluationLimits.unlimited()
+                                                          .withCollectionSize(2));
+        var stamper = docxPackageStamper(configuration);
+        var exception = assertThrows(OfficeStamperException.class, () -> stamper.stamp(template, Map.of()));
+        assertTrue(exception.getMessage()
+                            .contains("exceeded the collection size budget"));
+    }
+
+    @DisplayName("An expression within its budget resolves as usual")
+    @Test
+    void withinBudget() {
+        var template = makeWordResource("Numbers: ${ {1, 2, 3} }");
+        var configuration = OfficeStamperConfigurations.minimal();
+        configuration.setEvaluationLimits(EvaluationLimits.unlimited()
+                                                          .withCollectionSize(3)
+                                                          .withExpressionSteps(100));
+        var stamper = docxPackageStamper(configuration);
+        var actual = toAsciidoc(stamper.stamp(template, Map.of()));
+        assertTrue(actual.contains("[1, 2, 3]"));
+    }
+}
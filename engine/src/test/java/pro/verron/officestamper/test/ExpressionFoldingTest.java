@@ -0,0 +1,193 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import pro.verron.officestamper.api.SecurityMode;
+import pro.verron.officestamper.core.ExpressionDependency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.full;
+import static pro.verron.officestamper.preset.OfficeStampers.docxPackageStamper;
+import static pro.verron.officestamper.test.utils.DocxFactory.makeWordResource;
+
+class ExpressionFoldingTest {
+
+    private static final AtomicInteger calls = new AtomicInteger();
+    private static final List<Map<String, String>> NAMES = List.of(Map.of("name", "Homer"),
+            Map.of("name", "Marge"),
+            Map.of("name", "Bart"));
+
+    /// Counts its calls, to observe how many times a context-free expression is evaluated.
+    ///
+    /// @return the number of calls so far, this one included.
+    public static int next() {
+        return calls.incrementAndGet();
+    }
+
+    @DisplayName("Expressions are classified by the part of the context they read")
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+            "'a' + 1                                | CONTEXT_FREE",
+            "{1, 2, 3}.size() > 2 ? 'x' : 'y'       | CONTEXT_FREE",
+            "T(java.time.LocalDate).now().year      | CONTEXT_FREE",
+            "new java.math.BigDecimal('1.5').scale()| CONTEXT_FREE",
+            "#root.name                             | BRANCH_DEPENDENT",
+            "#root.names[0] ?: 'none'               | BRANCH_DEPENDENT",
+            "name                                   | PURE",
+            "'a' + name                             | PURE",
+            "#this.name                             | PURE",
+            "customer.address.city                  | PURE",
+            "T(java.lang.String).valueOf(name)      | BRANCH_DEPENDENT",
+            "name.toUpperCase()                     | BRANCH_DEPENDENT",
+            "items.remove(0)                        | BRANCH_DEPENDENT",
+            "counter.incrementAndGet()              | BRANCH_DEPENDENT",
+            "names[0]                               | BRANCH_DEPENDENT",
+            "fmt(1)                                 | BRANCH_DEPENDENT",
+            "{1, 2}.?[#this > 1]                    | BRANCH_DEPENDENT",
+            "#var                                   | BRANCH_DEPENDENT",
+            "counter++                              | BRANCH_DEPENDENT",
+            "--counter                              | BRANCH_DEPENDENT",
+            "1 + counter++                          | BRANCH_DEPENDENT",
+    })
+    void classification(String expression, ExpressionDependency expected) {
+        var ast = new SpelExpressionParser().parseRaw(expression)
+                                            .getAST();
+        assertEquals(expected, ExpressionDependency.of(ast));
+    }
+
+    @DisplayName("Calls to pure custom functions are pure")
+    @Test
+    void pureFunctions() {
+        var parser = new SpelExpressionParser();
+        var pure = Set.of("fmt");
+        assertEquals(ExpressionDependency.PURE, ExpressionDependency.of(parser.parseRaw("fmt(total)")
+                                                                              .getAST(), pure));
+        assertEquals(ExpressionDependency.BRANCH_DEPENDENT, ExpressionDependency.of(parser.parseRaw("other(total)")
+                                                                                          .getAST(), pure));
+        assertEquals(ExpressionDependency.BRANCH_DEPENDENT, ExpressionDependency.of(parser.parseRaw("fmt(total).trim()")
+                                                                                          .getAST(), pure));
+    }
+
+    @DisplayName("Folded context-free expressions are evaluated once per stamp, and reported once per occurrence")
+    @ParameterizedTest(name = "folding: {0}")
+    @CsvSource({"false, 3", "true, 1"})
+    void folding(boolean folding, int expectedCalls) {
+        var expression = "T(pro.verron.officestamper.test.ExpressionFoldingTest).next()";
+        var resolutions = new ArrayList<String>();
+        var configuration = full().setExpressionFolding(folding)
+                                  .setSpelSecurityMode(SecurityMode.PERMISSIVE)
+                                  .setTraceabilityReporter((resolved, _, _) -> resolutions.add(resolved));
+        var template = makeWordResource("""
+                comment::1[start="0,0", end="0,7", value="repeatTableRow(names)"]
+                |===
+                |${name} ${%s}
+                |===
+                """.formatted(expression));
+        var context = Map.of("names", NAMES);
+        calls.set(0);
+
+        docxPackageStamper(configuration).stamp(template, context);
+
+        assertEquals(expectedCalls, calls.get());
+        assertEquals(3,
+                resolutions.stream()
+                           .filter(expression::equals)
+                           .count());
+    }
+
+    @DisplayName("The root variable designates the context branch, so it is never folded nor memoized")
+    @Test
+    void rootInRepeat() {
+        var configuration = full().setExpressionFolding(true)
+                                  .setExpressionMemoization(true);
+        var template = makeWordResource("""
+                comment::1[start="0,0", end="0,12", value="repeatTableRow(names)"]
+                |===
+                |${#root.name}
+                |===
+                """);
+        var context = Map.of("names", NAMES);
+
+        var stamped = docxPackageStamper(configuration).stamp(template, context);
+
+        assertEquals("""
+                |===
+                |Homer
+                |Marge
+                |Bart
+                |===
+
+                """, toAsciidoc(stamped, true));
+    }
+
+    @DisplayName("Pure expressions are memoized per context branch when enabled")
+    @ParameterizedTest(name = "memoization: {0}")
+    @CsvSource({"false, 2", "true, 1"})
+    void memoization(boolean memoization, int expectedCalls) {
+        var calls = new AtomicInteger();
+        var resolutions = new ArrayList<String>();
+        var configuration = full().setExpressionMemoization(memoization)
+                                  .setTraceabilityReporter((resolved, _, _) -> resolutions.add(resolved));
+        configuration.addCustomFunction("fmt", String.class)
+                     .withPureImplementation(value -> {
+                         calls.incrementAndGet();
+                         return value.toUpperCase();
+                     });
+        var template = makeWordResource("""
+                ${fmt(name)} and ${fmt(name)}
+                """);
+
+        docxPackageStamper(configuration).stamp(template, Map.of("name", "Homer"));
+
+        assertEquals(expectedCalls, calls.get());
+        assertEquals(List.of("fmt(name)", "fmt(name)"), resolutions);
+    }
+
+    @DisplayName("Increments are evaluated at each occurrence, even with memoization")
+    @Test
+    void increments() {
+        var configuration = full().setExpressionMemoization(true)
+                                  .setSpelSecurityMode(SecurityMode.PERMISSIVE);
+        var template = makeWordResource("""
+                ${counter++} and ${counter++}
+                """);
+        var context = new Counter();
+
+        var stamped = docxPackageStamper(configuration).stamp(template, context);
+
+        assertEquals("""
+                0 and 1
+
+                """, toAsciidoc(stamped, true));
+        assertEquals(2, context.getCounter());
+    }
+
+    /// A context holding a counter the template increments.
+    public static final class Counter {
+        private int counter;
+
+        /// Returns the counter.
+        ///
+        /// @return the current value.
+        public int getCounter() {
+            return counter;
+        }
+
+        /// Sets the counter.
+        ///
+        /// @param counter the new value.
+        public void setCounter(int counter) {
+            this.counter = counter;
+        }
+    }
+}
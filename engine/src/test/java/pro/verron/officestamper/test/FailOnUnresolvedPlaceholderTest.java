@@ -3,21 +3,30 @@ package pro.verron.officestamper.test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import pro.verron.officestamper.api.ExceptionResolver;
+import pro.verron.officestamper.api.ExpressionFailure;
+import pro.verron.officestamper.api.Insert;
 import pro.verron.officestamper.api.OfficeStamperException;
 import pro.verron.officestamper.preset.ExceptionResolvers;
 import pro.verron.officestamper.test.utils.ContextFactory;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.argumentSet;
+import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
 import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
 import static pro.verron.officestamper.preset.OfficeStampers.docxPackageStamper;
 import static pro.verron.officestamper.test.utils.ContextFactory.mapContextFactory;
 import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.DocxFactory.makeWordResource;
 import static pro.verron.officestamper.test.utils.ResourceUtils.getWordResource;
+import static pro.verron.officestamper.utils.wml.WmlFactory.newRun;
 
 
 /// @author Joseph Verron
@@ -47,4 +56,30 @@ class FailOnUnresolvedPlaceholderTest {
         var stamper = docxPackageStamper(config);
         assertDoesNotThrow(() -> stamper.stamp(template, context));
     }
+
+    @MethodSource("factories")
+    @ParameterizedTest
+    void resolvesStructuredFailures(ContextFactory factory) {
+        var context = factory.name("Homer");
+        var template = makeWordResource("Hello ${missing()}!");
+        var failures = new ArrayList<ExpressionFailure>();
+        var config = standard().setExceptionResolver(new ExceptionResolver() {
+            @Override
+            public Insert resolve(String expression, String message, Exception cause) {
+                throw new AssertionError("The structured failure should be resolved");
+            }
+
+            @Override
+            public Insert resolve(ExpressionFailure failure) {
+                failures.add(failure);
+                return new Insert(newRun("nobody"));
+            }
+        });
+        var stamped = docxPackageStamper(config).stamp(template, context);
+        assertEquals("Hello nobody!\n\n", toAsciidoc(stamped, true));
+        assertEquals(1, failures.size());
+        assertTrue(failures.getFirst()
+                           .message()
+                           .contains("missing"));
+    }
 }
@@ -0,0 +1,228 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.api.FlowStamper;
+import pro.verron.officestamper.preset.OfficeStamperConfigurations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
+import static pro.verron.officestamper.preset.OfficeStampers.docxFlowStamper;
+import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.MultiStampFixture.template;
+import static pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils.loadWord;
+
+class FlowStamperTest {
+
+    private static final String COMPLETE = "complete";
+    private static final int CHUNK_SIZE = 1024;
+
+    private static FlowStamper<?> flowStamper() {
+        try (var stream = template()) {
+            return docxFlowStamper(OfficeStamperConfigurations.standard(), stream.readAllBytes(), CHUNK_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DisplayName("Chunks are only published as requested")
+    @Test
+    void backpressure()
+            throws InterruptedException {
+        var processor = flowStamper();
+        var upstream = new Upstream();
+        var downstream = new Downstream();
+        processor.onSubscribe(upstream);
+        processor.subscribe(downstream);
+        processor.onNext(objectContextFactory().names("Homer"));
+
+        downstream.request(1);
+        assertInstanceOf(FlowStamper.Chunk.class, downstream.next());
+        assertNull(downstream.quiet());
+
+        downstream.request(1);
+        assertInstanceOf(FlowStamper.Chunk.class, downstream.next());
+        assertNull(downstream.quiet());
+        assertEquals(1, upstream.requested.get());
+    }
+
+    @DisplayName("Documents are published in order, in chunks whose last one is flagged")
+    @Test
+    void chunks()
+            throws InterruptedException {
+        var processor = flowStamper();
+        var upstream = new Upstream();
+        var downstream = new Downstream();
+        processor.onSubscribe(upstream);
+        processor.subscribe(downstream);
+        var factory = objectContextFactory();
+        var homer = factory.names("Homer");
+        var marge = factory.names("Marge");
+        processor.onNext(homer);
+        processor.onNext(marge);
+        processor.onComplete();
+        downstream.request(Long.MAX_VALUE);
+
+        var documents = new ArrayList<ByteArrayOutputStream>();
+        var contexts = new ArrayList<>();
+        var output = new ByteArrayOutputStream();
+        for (var signal = downstream.next(); !COMPLETE.equals(signal); signal = downstream.next()) {
+            var chunk = assertInstanceOf(FlowStamper.Chunk.class, signal);
+            assertTrue(chunk.bytes()
+                            .remaining() <= CHUNK_SIZE);
+            var bytes = new byte[chunk.bytes()
+                                      .remaining()];
+            chunk.bytes()
+                 .get(bytes);
+            output.writeBytes(bytes);
+            if (!chunk.last()) continue;
+            documents.add(output);
+            contexts.add(chunk.context());
+            output = new ByteArrayOutputStream();
+        }
+
+        assertEquals(0, output.size());
+        assertEquals(List.of(homer, marge), contexts);
+        assertTrue(toAsciidoc(loadWord(new ByteArrayInputStream(documents.get(0)
+                                                                         .toByteArray()))).contains("|Homer\n"));
+        assertTrue(toAsciidoc(loadWord(new ByteArrayInputStream(documents.get(1)
+                                                                         .toByteArray()))).contains("|Marge\n"));
+        assertTrue(upstream.requested.get() >= 2);
+    }
+
+    @DisplayName("Cancelling downstream cancels upstream and stops the publication")
+    @Test
+    void cancellation()
+            throws InterruptedException {
+        var processor = flowStamper();
+        var upstream = new Upstream();
+        var downstream = new Downstream();
+        processor.onSubscribe(upstream);
+        processor.subscribe(downstream);
+        processor.onNext(objectContextFactory().names("Homer"));
+
+        downstream.request(1);
+        assertInstanceOf(FlowStamper.Chunk.class, downstream.next());
+        downstream.cancel();
+        downstream.request(Long.MAX_VALUE);
+
+        assertTrue(upstream.cancelled.get());
+        assertNull(downstream.quiet());
+    }
+
+    @DisplayName("An upstream error is published once the document in progress is over")
+    @Test
+    void upstreamError()
+            throws InterruptedException {
+        var processor = flowStamper();
+        var upstream = new Upstream();
+        var downstream = new Downstream();
+        processor.onSubscribe(upstream);
+        processor.subscribe(downstream);
+        var error = new IllegalStateException("Upstream failure");
+        processor.onNext(objectContextFactory().names("Homer"));
+        processor.onError(error);
+        downstream.request(Long.MAX_VALUE);
+
+        Object signal;
+        do signal = downstream.next(); while (signal instanceof FlowStamper.Chunk);
+        assertSame(error, signal);
+        assertNull(downstream.quiet());
+    }
+
+    @DisplayName("A non-positive request is signalled as a single terminal error")
+    @Test
+    void nonPositiveRequest()
+            throws InterruptedException {
+        var processor = flowStamper();
+        var upstream = new Upstream();
+        var downstream = new Downstream();
+        processor.onSubscribe(upstream);
+        processor.subscribe(downstream);
+        processor.onNext(objectContextFactory().names("Homer"));
+
+        downstream.request(0);
+        processor.onComplete();
+
+        assertInstanceOf(IllegalArgumentException.class, downstream.next());
+        assertNull(downstream.quiet());
+        assertTrue(upstream.cancelled.get());
+    }
+
+    /// An upstream subscription recording the demand of the processor, the test signalling the contexts itself.
+    private static final class Upstream
+            implements Flow.Subscription {
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        @Override
+        public void request(long n) {
+            requested.addAndGet(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
+
+    /// A subscriber recording each signal it receives: the chunks, the errors, and [#COMPLETE].
+    private static final class Downstream
+            implements Flow.Subscriber<FlowStamper.Chunk> {
+        private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(FlowStamper.Chunk chunk) {
+            signals.add(chunk);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            signals.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            signals.add(COMPLETE);
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        void cancel() {
+            subscription.cancel();
+        }
+
+        Object next()
+                throws InterruptedException {
+            var signal = signals.poll(30, TimeUnit.SECONDS);
+            assertNotNull(signal, "Expected a signal");
+            return signal;
+        }
+
+        Object quiet()
+                throws InterruptedException {
+            return signals.poll(200, TimeUnit.MILLISECONDS);
+        }
+    }
+}
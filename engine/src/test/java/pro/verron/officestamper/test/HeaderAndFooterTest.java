@@ -79,4 +79,21 @@ class HeaderAndFooterTest {
                 
                 """, actual);
     }
+
+    @DisplayName("Headers and footers stamped concurrently should match a sequential stamp")
+    @MethodSource("factories")
+    @ParameterizedTest
+    void concurrentParts(ContextFactory factory) {
+        var context = factory.imagedName("Homer Simpson", getImage(Path.of("sample-butterfly.png")));
+        var sequentialConfig = standard().setExceptionResolver(ExceptionResolvers.passing());
+        var sequential = OfficeStampers.docxPackageStamper(sequentialConfig)
+                                       .stamp(getWordResource("ExpressionReplacementInHeaderAndFooterTest.docx"),
+                                               context);
+        var concurrentConfig = standard().setExceptionResolver(ExceptionResolvers.passing())
+                                         .setPartParallelism(3);
+        var concurrent = OfficeStampers.docxPackageStamper(concurrentConfig)
+                                       .stamp(getWordResource("ExpressionReplacementInHeaderAndFooterTest.docx"),
+                                               context);
+        assertEquals(toAsciidoc(sequential), toAsciidoc(concurrent));
+    }
 }
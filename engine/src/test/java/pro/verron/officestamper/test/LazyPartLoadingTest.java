@@ -0,0 +1,51 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.openpackaging.exceptions.InvalidFormatException;
+import org.docx4j.openpackaging.parts.PartName;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.preset.OfficeStampers.docxStamper;
+import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.MultiStampFixture.*;
+
+class LazyPartLoadingTest {
+
+    @DisplayName("Lazy part loading stamps the template as expected")
+    @Test
+    void stamps() {
+        var stamper = docxStamper(standard().setLazyPartLoading(true));
+        var actual = asciidoc(stamp(stamper, context(objectContextFactory())));
+        assertEquals(EXPECTED, actual);
+    }
+
+    @DisplayName("Lazy part loading only unmarshals the parts that may hold a hook")
+    @Test
+    void defersPartsWithoutHooks()
+            throws InvalidFormatException {
+        var document = OpenpackagingUtils.loadWord(template(), List.of("${", "officestamper", "commentRangeStart"));
+        var parts = document.getParts();
+        var theme = parts.get(new PartName("/word/theme/theme1.xml"));
+        assertTrue(OpenpackagingUtils.isDeferred(document, theme));
+        assertFalse(OpenpackagingUtils.isDeferred(document, document.getMainDocumentPart()));
+
+        OpenpackagingUtils.materialize(document, theme);
+        assertFalse(OpenpackagingUtils.isDeferred(document, theme));
+    }
+
+    @DisplayName("Lazy part loading writes back the parts without hooks verbatim")
+    @Test
+    void untouchedPartsAreCopied() {
+        var template = entries(template());
+        var stamper = docxStamper(standard().setLazyPartLoading(true));
+        var stamped = entries(new ByteArrayInputStream(stamp(stamper, context(objectContextFactory()))));
+        for (var name : List.of("word/theme/theme1.xml", "word/fontTable.xml", "word/webSettings.xml"))
+            assertArrayEquals(template.get(name), stamped.get(name), name);
+    }
+}
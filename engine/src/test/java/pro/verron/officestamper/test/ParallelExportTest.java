@@ -0,0 +1,35 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.utils.openpackaging.ExportOptions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.preset.OfficeStampers.docxStamper;
+import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.MultiStampFixture.*;
+
+class ParallelExportTest {
+
+    private static final ExportOptions CHUNKED = ExportOptions.defaults()
+                                                              .withParallelThreshold(0);
+
+    @DisplayName("Parallel export writes the stamped template as expected")
+    @Test
+    void stamps() {
+        var stamper = docxStamper(standard(), CHUNKED.withParallelism(4));
+        var actual = asciidoc(stamp(stamper, context(objectContextFactory())));
+        assertEquals(EXPECTED, actual);
+    }
+
+    @DisplayName("Parallel export writes the same bytes as sequential export")
+    @Test
+    void sameBytes() {
+        var context = context(objectContextFactory());
+        var sequential = stamp(docxStamper(standard(), CHUNKED), context);
+        var parallel = stamp(docxStamper(standard(), CHUNKED.withParallelism(4)), context);
+        assertArrayEquals(sequential, parallel);
+    }
+}
@@ -0,0 +1,57 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.full;
+import static pro.verron.officestamper.preset.OfficeStampers.docxStamper;
+import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.MultiStampFixture.*;
+
+class ParallelLoadingTest {
+
+    @DisplayName("Parallel loading stamps the template as expected")
+    @ParameterizedTest(name = "lazy part loading: {0}")
+    @ValueSource(booleans = {false, true})
+    void stamps(boolean lazy) {
+        var configuration = full().setLoadParallelism(4)
+                                  .setLazyPartLoading(lazy);
+        var actual = asciidoc(stamp(docxStamper(configuration), context(objectContextFactory())));
+        assertEquals(EXPECTED, actual);
+    }
+
+    @DisplayName("Parallel loading unmarshals the parts on the loading pool, handing each one to the part hook")
+    @Test
+    void unmarshalsOnPool() {
+        var threads = new ConcurrentHashMap<String, String>();
+        Consumer<JaxbXmlPart<?>> hook = part -> threads.put(part.getPartName()
+                                                                .getName(),
+                Thread.currentThread()
+                      .getName());
+        var document = OpenpackagingUtils.loadWord(template(), 4, hook);
+
+        var mainDocument = document.getMainDocumentPart();
+        assertNotNull(mainDocument.getJaxbElement());
+        assertTrue(threads.containsKey(mainDocument.getPartName()
+                                                   .getName()));
+        for (var thread : threads.entrySet())
+            assertTrue(thread.getValue()
+                             .startsWith("officestamper-unmarshal-"), thread.getKey());
+    }
+
+    @DisplayName("Load parallelism must be positive")
+    @Test
+    void invalidParallelism() {
+        var configuration = full();
+        assertThrows(OfficeStamperException.class, () -> configuration.setLoadParallelism(0));
+    }
+}
@@ -0,0 +1,48 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.full;
+import static pro.verron.officestamper.preset.OfficeStampers.docxStamper;
+import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.MultiStampFixture.*;
+
+class PathLoadingTest {
+
+    @DisplayName("Templates loaded from a path are stamped as expected, like from a stream")
+    @ParameterizedTest(name = "load parallelism: {0}")
+    @ValueSource(ints = {1, 4})
+    void stamps(int parallelism) {
+        var stamper = docxStamper(full().setLoadParallelism(parallelism));
+        var context = context(objectContextFactory());
+
+        var streamed = asciidoc(stamp(stamper, context));
+
+        var mapped = new ByteArrayOutputStream();
+        stamper.stamp(templatePath(), context, mapped);
+
+        assertEquals(EXPECTED, asciidoc(mapped.toByteArray()));
+        assertEquals(streamed, asciidoc(mapped.toByteArray()));
+    }
+
+    @DisplayName("Templates on disk are memory-mapped rather than read onto the heap")
+    @Test
+    void mapsTemplates()
+            throws IOException {
+        var buffer = OpenpackagingUtils.map(templatePath());
+        assertInstanceOf(MappedByteBuffer.class, buffer);
+        assertTrue(buffer.isDirect());
+        assertTrue(buffer.isReadOnly());
+        assertEquals(Files.size(templatePath()), buffer.remaining());
+    }
+}
@@ -15,6 +15,7 @@ import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standa
 import static pro.verron.officestamper.preset.OfficeStampers.docxPackageStamper;
 import static pro.verron.officestamper.test.utils.ContextFactory.mapContextFactory;
 import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.DocxFactory.makeWordResource;
 import static pro.verron.officestamper.test.utils.ResourceUtils.getWordResource;
 
 class ProcessorDisplayIfTest {
@@ -883,4 +884,38 @@ class ProcessorDisplayIfTest {
         var actual = toAsciidoc(stamped);
         assertEquals(expected, actual);
     }
+
+    @DisplayName("Hidden paragraphs are removed around other processors")
+    @ParameterizedTest
+    @MethodSource("factories")
+    void conditionalDisplayAroundRepeat(ContextFactory factory) {
+        var context = factory.names("Homer", "Marge");
+        var template = makeWordResource("""
+                comment::1[start="1,0", end="1,8", value="displayParagraphIf(false)"]
+                comment::2[start="2,0", end="2,8", value="displayParagraphIf(false)"]
+                comment::3[start="4,0", end="4,7", value="repeatParagraph(names)"]
+                comment::4[start="5,0", end="5,8", value="displayParagraphIf(false)"]
+                Kept 0
+                Hidden 1
+                Hidden 2
+                Kept 3
+                ${name}
+                Hidden 5
+                Kept 6
+                """);
+        var expected = """
+                Kept 0
+
+                Kept 3
+
+                Homer
+
+                Marge
+
+                Kept 6
+
+                """;
+        var stamped = docxPackageStamper(standard()).stamp(template, context);
+        assertEquals(expected, toAsciidoc(stamped, true));
+    }
 }
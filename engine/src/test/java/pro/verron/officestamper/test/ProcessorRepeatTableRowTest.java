@@ -295,4 +295,57 @@ class ProcessorRepeatTableRowTest {
                 """;
         assertEquals(expected, actual);
     }
+
+    @Test
+    void shouldBindEveryHookOfEachCopy() {
+        var config = full();
+        var stamper = docxPackageStamper(config);
+        var template = makeWordResource("""
+                comment::1[start="0,0", end="0,7", value="repeatTableRow(names)"]
+                |===
+                |${name} has ${name.length()} letters
+                |===
+                """);
+        var context = FACTORY.names(List.class, "Homer", "Bart", "Lisa");
+        var stamped = stamper.stamp(template, context);
+        var actual = toAsciidoc(stamped);
+        var expected = """
+                |===
+                |Homer has 5 letters
+                |Bart has 4 letters
+                |Lisa has 4 letters
+                |===
+                
+                // section {pgMar={bottom=1440, left=1440, right=1440, top=1440}, pgSz={code=9, h=16839, w=11907}}
+                
+                """;
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldLeavePlaceholdersInCommentRangesToTheirProcessor() {
+        var config = full();
+        var stamper = docxPackageStamper(config);
+        var template = makeWordResource("""
+                comment::1[start="0,0", end="0,7", value="repeatTableRow(names)"]
+                comment::2[start="0,7", end="0,36", value="displayWordsIf(name.length() > 4)"]
+                |===
+                |${name} has ${name.length()} letters
+                |===
+                """);
+        var context = FACTORY.names(List.class, "Homer", "Bart", "Maggie");
+        var stamped = stamper.stamp(template, context);
+        var actual = toAsciidoc(stamped);
+        var expected = """
+                |===
+                |Homer has 5 letters
+                |Bart
+                |Maggie has 6 letters
+                |===
+                
+                // section {pgMar={bottom=1440, left=1440, right=1440, top=1440}, pgSz={code=9, h=16839, w=11907}}
+                
+                """;
+        assertEquals(expected, actual);
+    }
 }
@@ -1,9 +1,13 @@
 package pro.verron.officestamper.test;
 
+import org.jspecify.annotations.Nullable;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.api.Insert;
+import pro.verron.officestamper.api.ObjectResolver;
 import pro.verron.officestamper.test.utils.ContextFactory;
 import pro.verron.officestamper.test.utils.DocxFactory;
 
@@ -14,6 +18,7 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -24,6 +29,7 @@ import static pro.verron.officestamper.preset.OfficeStampers.docxPackageStamper;
 import static pro.verron.officestamper.preset.Resolvers.*;
 import static pro.verron.officestamper.test.utils.ContextFactory.mapContextFactory;
 import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.utils.wml.WmlFactory.newRun;
 
 @DisplayName("Resolvers Integration Tests") class ResolversIntegrationTests {
 
@@ -102,4 +108,59 @@ import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFa
         var actual = toAsciidoc(stamped, true);
         assertEquals("Legacy Date: 2024.05.17\n\n", actual);
     }
+
+    @MethodSource("factories")
+    @DisplayName("Should insert the runs of resolvers not rendering plain text")
+    @ParameterizedTest(name = "Should insert the runs of resolvers not rendering plain text ({argumentSetName})")
+    void resolverWithSeveralRuns(ContextFactory factory) {
+        var resolver = new ObjectResolver() {
+            @Override
+            public Insert resolve(DocxPart docxPart, String expression, @Nullable Object object) {
+                var date = (LocalDate) Objects.requireNonNull(object);
+                return new Insert(List.of(newRun("%02d".formatted(date.getDayOfMonth())),
+                        newRun("/%02d".formatted(date.getMonthValue()))));
+            }
+
+            @Override
+            public boolean canResolve(@Nullable Object object) {
+                return object instanceof LocalDate;
+            }
+        };
+        var config = standard().setResolvers(List.of(resolver));
+        var template = DocxFactory.makeWordResource("Date: ${date}");
+        var context = factory.date(LocalDate.of(2024, 5, 17));
+
+        var stamped = docxPackageStamper(config).stamp(template, context);
+        var actual = toAsciidoc(stamped, true);
+
+        assertEquals("Date: 17/05\n\n", actual);
+    }
+
+    @MethodSource("factories")
+    @DisplayName("Should pick the first able resolver, whether it declares its handled types or not")
+    @ParameterizedTest(name = "Should pick the first able resolver ({argumentSetName})")
+    void resolverOrder(ContextFactory factory) {
+        var undeclared = new ObjectResolver() {
+            @Override
+            public Insert resolve(DocxPart docxPart, String expression, @Nullable Object object) {
+                return new Insert(newRun("undeclared"));
+            }
+
+            @Override
+            public boolean canResolve(@Nullable Object object) {
+                return object instanceof LocalDate;
+            }
+        };
+        var declared = isoDate(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        var context = factory.date(LocalDate.of(2024, 5, 17));
+
+        var declaredFirst = docxPackageStamper(standard().setResolvers(List.of(declared, undeclared)));
+        var undeclaredFirst = docxPackageStamper(standard().setResolvers(List.of(undeclared, declared)));
+
+        var template = "Date: ${date}";
+        assertEquals("Date: 17/05/2024\n\n",
+                toAsciidoc(declaredFirst.stamp(DocxFactory.makeWordResource(template), context), true));
+        assertEquals("Date: undeclared\n\n",
+                toAsciidoc(undeclaredFirst.stamp(DocxFactory.makeWordResource(template), context), true));
+    }
 }
@@ -1,17 +1,33 @@
 package pro.verron.officestamper.test;
 
+import org.docx4j.XmlUtils;
+import org.docx4j.wml.CTShd;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.Tc;
+import org.docx4j.wml.TcPr;
+import org.docx4j.wml.Tr;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import pro.verron.officestamper.preset.OfficeStamperConfigurations;
 import pro.verron.officestamper.preset.OfficeStampers;
+import pro.verron.officestamper.preset.StampTable;
 import pro.verron.officestamper.test.utils.ContextFactory;
+import pro.verron.officestamper.utils.wml.DocxIterator;
+import pro.verron.officestamper.utils.wml.WmlFactory;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.argumentSet;
 import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
 import static pro.verron.officestamper.test.utils.ContextFactory.mapContextFactory;
@@ -22,6 +38,11 @@ import static pro.verron.officestamper.test.utils.ResourceUtils.getWordResource;
 /// Verifies stampTable feature works correctly
 class StampTableTest {
 
+    private static final List<String> HEADERS = List.of("Character", "Actor");
+    private static final List<List<String>> RECORDS = List.of(List.of("Homer Simpson", "Dan Castellaneta"),
+            List.of("Marge Simpson", "Julie Kavner"),
+            List.of("Bart Simpson", "Nancy Cartwright"));
+
     static Stream<Arguments> factories() {
         return Stream.of(argumentSet("obj", objectContextFactory()), argumentSet("map", mapContextFactory()));
     }
@@ -95,4 +116,75 @@ class StampTableTest {
                 
                 """, string);
     }
+
+    static Stream<Arguments> tables() {
+        var columns = List.of(List.of("Homer Simpson", "Marge Simpson", "Bart Simpson"),
+                List.of("Dan Castellaneta", "Julie Kavner", "Nancy Cartwright"));
+        return Stream.of(argumentSet("columns", StampTable.ofColumns(HEADERS, columns)),
+                argumentSet("rows", StampTable.ofRows(HEADERS, RECORDS::iterator)));
+    }
+
+    @DisplayName("Tables viewed from columns or streamed from rows are stamped like lists of lines")
+    @MethodSource("tables")
+    @ParameterizedTest
+    void stampTableViews(StampTable table) {
+        var stamper = OfficeStampers.docxPackageStamper(OfficeStamperConfigurations.standard());
+        var expected = stamper.stamp(getWordResource("StampTableTest.docx"),
+                Map.of("characters", new StampTable(HEADERS, RECORDS)));
+        var actual = stamper.stamp(getWordResource("StampTableTest.docx"), Map.of("characters", table));
+        assertEquals(toAsciidoc(expected), toAsciidoc(actual));
+    }
+
+    @DisplayName("Each stamped cell owns its properties")
+    @MethodSource("tables")
+    @ParameterizedTest
+    void stampTableCellProperties(StampTable table) {
+        var stamper = OfficeStampers.docxPackageStamper(OfficeStamperConfigurations.standard());
+        var stamped = stamper.stamp(getWordResource("StampTableTest.docx"), Map.of("characters", table));
+        var properties = Collections.newSetFromMap(new IdentityHashMap<TcPr, Boolean>());
+        var cells = new DocxIterator(stamped.getMainDocumentPart()).selectClass(Tc.class);
+        while (cells.hasNext()) {
+            var cell = cells.next();
+            var tcPr = cell.getTcPr();
+            if (tcPr == null) continue;
+            assertTrue(properties.add(tcPr));
+            assertSame(cell, tcPr.getParent());
+        }
+    }
+
+    @DisplayName("Stamped cells are formatted after the first cell of their template row, the others being dropped")
+    @MethodSource("tables")
+    @ParameterizedTest
+    void stampTableTemplateCells(StampTable table) {
+        var template = getWordResource("StampTableTest.docx");
+        var tbl = new DocxIterator(template.getMainDocumentPart()).selectClass(Tbl.class)
+                                                                  .next();
+        for (var row : tbl.getContent()) {
+            var tr = (Tr) XmlUtils.unwrap(row);
+            var shading = new CTShd();
+            shading.setFill("FF0000");
+            var tcPr = new TcPr();
+            tcPr.setShd(shading);
+            var extra = WmlFactory.newCell();
+            extra.setTcPr(tcPr);
+            extra.getContent()
+                 .add(WmlFactory.newParagraph("Extra"));
+            tr.getContent()
+              .add(extra);
+        }
+
+        var stamper = OfficeStampers.docxPackageStamper(OfficeStamperConfigurations.standard());
+        var stamped = stamper.stamp(template, Map.of("characters", table));
+
+        var cells = new DocxIterator(stamped.getMainDocumentPart()).selectClass(Tc.class);
+        var count = 0;
+        while (cells.hasNext()) {
+            var tcPr = cells.next()
+                            .getTcPr();
+            assertNull(tcPr == null ? null : tcPr.getShd());
+            count++;
+        }
+        assertEquals((RECORDS.size() + 1) * HEADERS.size(), count);
+        assertFalse(toAsciidoc(stamped).contains("Extra"));
+    }
 }
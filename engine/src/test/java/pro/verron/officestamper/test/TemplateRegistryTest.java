@@ -0,0 +1,99 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.preset.TemplateRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.full;
+import static pro.verron.officestamper.test.utils.ResourceUtils.getResource;
+
+class TemplateRegistryTest {
+
+    private static void copy(String template, Path target)
+            throws IOException {
+        try (var is = getResource(Path.of(template))) {
+            Files.copy(is, target, REPLACE_EXISTING);
+        }
+    }
+
+    @DisplayName("Cached templates are served as isolated instances")
+    @Test
+    void hitsAndMisses(@TempDir Path directory)
+            throws IOException {
+        copy("MultiStampTest.docx", directory.resolve("a.docx"));
+        var registry = new TemplateRegistry(directory, full(), Long.MAX_VALUE);
+
+        var first = registry.acquire("a.docx");
+        var second = registry.acquire("a.docx");
+
+        assertNotSame(first, second);
+        assertNotSame(first.getMainDocumentPart()
+                           .getJaxbElement(),
+                second.getMainDocumentPart()
+                      .getJaxbElement());
+        var metrics = registry.metrics();
+        assertEquals(1, metrics.hits());
+        assertEquals(1, metrics.misses());
+        assertEquals(1, metrics.templates());
+    }
+
+    @DisplayName("Templates beyond the byte budget are evicted, least recently used first")
+    @Test
+    void eviction(@TempDir Path directory)
+            throws IOException {
+        copy("MultiStampTest.docx", directory.resolve("a.docx"));
+        copy("MultiStampTest.docx", directory.resolve("b.docx"));
+        var probe = new TemplateRegistry(directory, full(), Long.MAX_VALUE);
+        probe.acquire("a.docx");
+        var size = probe.metrics()
+                        .retainedBytes();
+
+        var registry = new TemplateRegistry(directory, full(), size);
+        registry.acquire("a.docx");
+        registry.acquire("b.docx");
+        registry.acquire("b.docx");
+
+        var metrics = registry.metrics();
+        assertEquals(1, metrics.evictions());
+        assertEquals(1, metrics.hits());
+        assertEquals(size, metrics.retainedBytes());
+    }
+
+    @DisplayName("Changed template files are prepared again")
+    @Test
+    void reload(@TempDir Path directory)
+            throws IOException {
+        var template = directory.resolve("a.docx");
+        copy("MultiStampTest.docx", template);
+        Files.setLastModifiedTime(template, FileTime.from(Instant.parse("2020-01-01T00:00:00Z")));
+        var registry = new TemplateRegistry(directory, full(), Long.MAX_VALUE);
+        registry.acquire("a.docx");
+
+        copy("ExpressionReplacementInTablesTest.docx", template);
+        Files.setLastModifiedTime(template, FileTime.from(Instant.parse("2021-01-01T00:00:00Z")));
+        registry.acquire("a.docx");
+
+        var metrics = registry.metrics();
+        assertEquals(1, metrics.reloads());
+        assertEquals(0, metrics.hits());
+    }
+
+    @DisplayName("Templates outside the registry directory are refused")
+    @Test
+    void outsideDirectory(@TempDir Path directory) {
+        var registry = new TemplateRegistry(directory, full(), Long.MAX_VALUE);
+        assertThrows(OfficeStamperException.class, () -> registry.acquire("../a.docx"));
+    }
+}
@@ -0,0 +1,115 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pro.verron.officestamper.api.PreProcessor;
+import pro.verron.officestamper.preset.TemplateSnapshots;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.full;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.preset.OfficeStampers.docxStamper;
+import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.MultiStampFixture.*;
+
+class TemplateSnapshotsTest {
+
+    @DisplayName("Stamping through snapshots stamps the template as expected, preparing it once")
+    @Test
+    void preparesOnce(@TempDir Path directory)
+            throws IOException {
+        var preprocessor = new CountingPreprocessor();
+        var configuration = full();
+        configuration.addPreprocessor(preprocessor);
+        var stamper = docxStamper(configuration, directory);
+        var context = context(objectContextFactory());
+
+        var prepared = asciidoc(stamp(stamper, context));
+        byte[] bytes;
+        try (var stream = template()) {
+            bytes = stream.readAllBytes();
+        }
+        var snapshot = new TemplateSnapshots(directory, configuration).snapshotOf(ByteBuffer.wrap(bytes))
+                                                                      .orElseThrow();
+        assertTrue(Files.isRegularFile(snapshot));
+        var modified = Files.getLastModifiedTime(snapshot);
+
+        var cached = asciidoc(stamp(stamper, context));
+
+        assertEquals(EXPECTED, prepared);
+        assertEquals(EXPECTED, cached);
+        assertEquals(1, preprocessor.runs.get());
+        assertEquals(modified, Files.getLastModifiedTime(snapshot));
+    }
+
+    @DisplayName("Snapshots are keyed by the configured preprocessors")
+    @Test
+    void keyedByConfiguration(@TempDir Path directory) {
+        var full = new TemplateSnapshots(directory, full());
+        var standard = new TemplateSnapshots(directory, standard());
+        assertEquals(full.fingerprint(), new TemplateSnapshots(directory, full()).fingerprint());
+        assertNotEquals(full.fingerprint(), standard.fingerprint());
+    }
+
+    @DisplayName("Snapshots are disabled when a preprocessor declares no fingerprint")
+    @Test
+    void disabledWithoutFingerprint(@TempDir Path directory)
+            throws IOException {
+        var configuration = full();
+        configuration.addPreprocessor(_ -> {});
+
+        var actual = asciidoc(stamp(docxStamper(configuration, directory), context(objectContextFactory())));
+
+        assertEquals(EXPECTED, actual);
+        assertTrue(new TemplateSnapshots(directory, configuration).fingerprint()
+                                                                  .isEmpty());
+        try (var files = Files.list(directory)) {
+            assertTrue(files.findAny()
+                            .isEmpty());
+        }
+    }
+
+    @DisplayName("Documents stamped through snapshots are compressed")
+    @Test
+    void compressedOutput(@TempDir Path directory)
+            throws IOException {
+        var stamper = docxStamper(full(), directory);
+        var context = context(objectContextFactory());
+        stamp(stamper, context);
+
+        var output = stamp(stamper, context);
+
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(output))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry())
+                assertEquals(ZipEntry.DEFLATED, entry.getMethod(), entry.getName());
+        }
+    }
+
+    /// A preprocessor counting the templates it prepares.
+    private static final class CountingPreprocessor
+            implements PreProcessor {
+        private final AtomicInteger runs = new AtomicInteger();
+
+        @Override
+        public void process(WordprocessingMLPackage document) {
+            runs.incrementAndGet();
+        }
+
+        @Override
+        public Optional<String> fingerprint() {
+            return Optional.of("counting");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pro.verron.officestamper.api.OfficeStamperException;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.full;
+import static pro.verron.officestamper.preset.OfficeStampers.docxPackageStamper;
+import static pro.verron.officestamper.preset.OfficeStampers.docxStamper;
+import static pro.verron.officestamper.test.utils.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.utils.DocxFactory.makeWordResource;
+import static pro.verron.officestamper.test.utils.MultiStampFixture.*;
+
+class TwoPhaseEvaluationTest {
+
+    private static final String PARAGRAPHS = """
+            comment::1[start="0,0", end="0,7", value="repeatParagraph(names)"]
+            ${name} has ${name.length()} letters
+            """;
+
+    private static Map<String, Object> names(int count) {
+        var names = new ArrayList<Map<String, String>>();
+        for (int i = 0; i < count; i++)
+            names.add(Map.of("name", "Name" + i));
+        return Map.of("names", names);
+    }
+
+    @DisplayName("Placeholders evaluated concurrently are inserted and reported in document order")
+    @ParameterizedTest(name = "evaluation parallelism: {0}")
+    @ValueSource(ints = {2, 8})
+    void sameDocument(int parallelism) {
+        var context = names(50);
+        var sequentialResolutions = new ArrayList<String>();
+        var sequentialConfiguration = full().setTraceabilityReporter((expression, value, _) ->
+                sequentialResolutions.add(expression + "=" + value));
+        var sequential = docxPackageStamper(sequentialConfiguration).stamp(makeWordResource(PARAGRAPHS), context);
+
+        var parallelResolutions = new ArrayList<String>();
+        var parallelConfiguration = full().setEvaluationParallelism(parallelism)
+                                          .setTraceabilityReporter((expression, value, _) -> parallelResolutions.add(
+                                                  expression + "=" + value));
+        var parallel = docxPackageStamper(parallelConfiguration).stamp(makeWordResource(PARAGRAPHS), context);
+
+        assertEquals(toAsciidoc(sequential), toAsciidoc(parallel));
+        assertEquals(sequentialResolutions, parallelResolutions);
+    }
+
+    @DisplayName("Placeholders are evaluated on the evaluation pool")
+    @Test
+    void evaluatesOnPool() {
+        var threads = ConcurrentHashMap.<String>newKeySet();
+        var configuration = full().setEvaluationParallelism(2);
+        configuration.addCustomFunction("thread", () -> threads.add(Thread.currentThread()
+                                                                          .getName()));
+        var template = makeWordResource("""
+                comment::1[start="0,0", end="0,7", value="repeatParagraph(names)"]
+                ${name} ${thread()}
+                """);
+
+        docxPackageStamper(configuration).stamp(template, names(10));
+
+        assertFalse(threads.isEmpty());
+        for (var thread : threads)
+            assertTrue(thread.startsWith("officestamper-evaluate-"), thread);
+    }
+
+    @DisplayName("Placeholders are evaluated on the executor of the configuration, which stamps leave open")
+    @Test
+    void evaluatesOnConfiguredExecutor() {
+        var threads = ConcurrentHashMap.<String>newKeySet();
+        try (var executor = Executors.newFixedThreadPool(2,
+                Thread.ofPlatform()
+                      .name("caller-", 0)
+                      .factory())) {
+            var configuration = full().setEvaluationParallelism(2)
+                                      .setExecutor(executor);
+            configuration.addCustomFunction("thread", () -> threads.add(Thread.currentThread()
+                                                                              .getName()));
+            var stamper = docxPackageStamper(configuration);
+            var template = """
+                    comment::1[start="0,0", end="0,7", value="repeatParagraph(names)"]
+                    ${name} ${thread()}
+                    """;
+
+            stamper.stamp(makeWordResource(template), names(10));
+            stamper.stamp(makeWordResource(template), names(10));
+
+            assertFalse(executor.isShutdown());
+        }
+        assertFalse(threads.isEmpty());
+        for (var thread : threads)
+            assertTrue(thread.startsWith("caller-"), thread);
+    }
+
+    @DisplayName("Templates mixing placeholders and comment processors are stamped as expected")
+    @Test
+    void sameTemplate() {
+        var context = context(objectContextFactory());
+        var configuration = full().setEvaluationParallelism(4);
+        var actual = asciidoc(stamp(docxStamper(configuration), context));
+        assertEquals(EXPECTED, actual);
+    }
+
+    @DisplayName("Evaluation parallelism must be positive")
+    @Test
+    void positiveParallelism() {
+        var configuration = full();
+        assertThrows(OfficeStamperException.class, () -> configuration.setEvaluationParallelism(0));
+    }
+}
@@ -0,0 +1,106 @@
+package pro.verron.officestamper.test.utils;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import pro.verron.officestamper.api.StreamStamper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipInputStream;
+
+import static pro.verron.asciidoc.compiler.AsciiDocCompiler.toAsciidoc;
+import static pro.verron.officestamper.test.utils.ResourceUtils.getResource;
+import static pro.verron.officestamper.utils.openpackaging.OpenpackagingUtils.loadWord;
+
+/// The template of the multi-stamp test, repeating a table row per name, shared by the tests of the loading,
+/// evaluation and export modes: each of them stamps it through its mode, and expects [#EXPECTED].
+public final class MultiStampFixture {
+
+    /// The path of the template, relative to the test resources.
+    public static final Path TEMPLATE = Path.of("MultiStampTest.docx");
+
+    /// The template stamped with the context of [#context(ContextFactory)].
+    public static final String EXPECTED = """
+            == Multi-Stamp-Test
+
+            |===
+            [rowStyle=2048]
+            |The next row will repeat multiple times with a different name:
+            [rowStyle=32]
+            |Homer
+            [rowStyle=32]
+            |Marge
+            |===
+
+
+
+            // section {docGrid={charSpace=-6145, linePitch=240}, pgMar={bottom=1134, left=1134, right=1134, top=1134}, pgSz={h=16838, w=11906}, space=720}
+
+            """;
+
+    private MultiStampFixture() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /// Opens the template.
+    ///
+    /// @return a new stream of the template
+    public static InputStream template() {
+        return getResource(TEMPLATE);
+    }
+
+    /// Locates the template on disk, for the stampers loading templates from a path.
+    ///
+    /// @return the path of the template
+    public static Path templatePath() {
+        return Path.of("..", "src", "test", "resources")
+                   .resolve(TEMPLATE);
+    }
+
+    /// Creates the context of the template.
+    ///
+    /// @param factory the factory of the context
+    /// @return a context naming Homer and Marge
+    public static Object context(ContextFactory factory) {
+        return factory.names("Homer", "Marge");
+    }
+
+    /// Stamps the template.
+    ///
+    /// @param stamper the stamper
+    /// @param context the context
+    /// @return the stamped document
+    public static byte[] stamp(StreamStamper<WordprocessingMLPackage> stamper, Object context) {
+        var output = new ByteArrayOutputStream();
+        stamper.stamp(template(), context, output);
+        return output.toByteArray();
+    }
+
+    /// Renders a stamped document to AsciiDoc, to compare it with [#EXPECTED].
+    ///
+    /// @param document the stamped document
+    /// @return the AsciiDoc of the document
+    public static String asciidoc(byte[] document) {
+        return toAsciidoc(loadWord(new ByteArrayInputStream(document)));
+    }
+
+    /// Reads the inflated content of each entry of a document.
+    ///
+    /// @param document the stream of the document
+    /// @return the content of each entry, by name
+    public static Map<String, byte[]> entries(InputStream document) {
+        var entries = new HashMap<String, byte[]>();
+        try (var zip = new ZipInputStream(document)) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry())
+                entries.put(entry.getName(), zip.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+}
@@ -20,6 +20,8 @@
 /// XLSX documents
 /// - [pro.verron.officestamper.utils.svg] - SVG processing utilities
 /// - [pro.verron.officestamper.utils.image] - Image handling utilities
+/// - [pro.verron.officestamper.utils.concurrent] - Executors shared between
+/// stamps
 module pro.verron.officestamper.utils {
     requires org.docx4j.core;
 
@@ -36,4 +38,5 @@ module pro.verron.officestamper.utils {
     exports pro.verron.officestamper.utils.sml;
     exports pro.verron.officestamper.utils.svg;
     exports pro.verron.officestamper.utils.image;
+    exports pro.verron.officestamper.utils.concurrent;
 }
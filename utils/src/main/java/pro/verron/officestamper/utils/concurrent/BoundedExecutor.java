@@ -0,0 +1,87 @@
+package pro.verron.officestamper.utils.concurrent;
+
+import pro.verron.officestamper.utils.UtilsException;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+/// Submits tasks to an executor shared between stamps, with at most a given number of them pending at once.
+///
+/// Creating a pool for each stamp costs a thread start per worker and per stamp, and multiplies the threads when many
+/// stamps run at the same time. Stamps rather share an executor, either one owned by the caller, or one of the
+/// [shared][#shared(String)] executors of this library, and bound their own use of it with a [BoundedExecutor]:
+/// submitting a task blocks while `parallelism` tasks submitted through the same instance are pending.
+///
+/// A task submitted through a [BoundedExecutor] must never wait for another task of the same executor, since all the
+/// threads of a bounded executor could then be waiting.
+public final class BoundedExecutor {
+
+    private static final Map<String, ExecutorService> SHARED = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    /// Creates a view of an executor running at most `parallelism` of the tasks submitted through it at once.
+    ///
+    /// @param executor    the executor running the tasks, left open.
+    /// @param parallelism the maximum number of pending tasks.
+    /// @throws UtilsException if the parallelism is not positive.
+    public BoundedExecutor(ExecutorService executor, int parallelism) {
+        if (parallelism < 1) throw new UtilsException("Parallelism must be positive");
+        this.executor = executor;
+        this.permits = new Semaphore(parallelism);
+    }
+
+    /// Returns the executor of this library shared by every task submitted under the given thread name prefix.
+    ///
+    /// Its daemon threads are created on demand, named after the prefix, and reused by the following stamps until they
+    /// stay idle for a minute.
+    ///
+    /// @param prefix the prefix of the names of its threads, such as `officestamper-export-`.
+    /// @return the shared executor.
+    public static ExecutorService shared(String prefix) {
+        return SHARED.computeIfAbsent(prefix,
+                name -> Executors.newCachedThreadPool(Thread.ofPlatform()
+                                                            .name(name, 0)
+                                                            .daemon()
+                                                            .factory()));
+    }
+
+    /// Submits a task, first waiting until fewer than `parallelism` tasks submitted through this instance are pending.
+    ///
+    /// @param task the task to run.
+    /// @param <T>  the type of the result of the task.
+    /// @return the future of the task, whose cancellation frees its place right away.
+    /// @throws UtilsException if interrupted while waiting.
+    public <T> Future<T> submit(Callable<T> task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new UtilsException("Interrupted while submitting a task", e);
+        }
+        var future = new FutureTask<>(task) {
+            @Override
+            protected void done() {
+                permits.release();
+            }
+        };
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+        return future;
+    }
+
+    /// Submits a task without result, like [#submit(Callable)].
+    ///
+    /// @param task the task to run.
+    /// @return the future of the task.
+    /// @throws UtilsException if interrupted while waiting.
+    public Future<?> submit(Runnable task) {
+        return submit(Executors.callable(task));
+    }
+}
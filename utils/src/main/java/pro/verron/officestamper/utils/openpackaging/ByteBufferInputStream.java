@@ -0,0 +1,48 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/// An input stream reading the remaining bytes of a buffer, without copying them.
+///
+/// Useful to hand a memory-mapped archive to APIs only accepting streams.
+final class ByteBufferInputStream
+        extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    /// Creates a stream over the remaining bytes of the given buffer, which is left untouched.
+    ///
+    /// @param buffer the buffer to read.
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) return 0;
+        if (!buffer.hasRemaining()) return -1;
+        var count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        var count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
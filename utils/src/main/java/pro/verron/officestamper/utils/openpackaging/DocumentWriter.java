@@ -0,0 +1,272 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.docx4j.jaxb.Context;
+import org.docx4j.jaxb.NamespacePrefixMapperUtils;
+import org.docx4j.wml.*;
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.utils.UtilsException;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/// Serializes a WordprocessingML main document with a StAX writer.
+///
+/// The elements stamping produces in bulk — paragraphs, runs, texts, tables, rows, cells and smart tags — are written
+/// directly, while every other element, such as the paragraph and run properties, the drawings or the section
+/// properties, is handed to a JAXB marshaller writing to the same stream. The output is equivalent to the one of the
+/// JAXB marshaller: it unmarshals to the same content, though namespace declarations may be placed differently.
+final class DocumentWriter {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+    private static final String W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String W14 = "http://schemas.microsoft.com/office/word/2010/wordml";
+    private static final String MC = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+    /// The namespaces declared on the root element, with the prefixes Word uses for them, so that the prefixes listed
+    /// by `mc:Ignorable` are in scope.
+    private static final SequencedMap<String, String> NAMESPACES = namespaces();
+    private static final Set<String> TEXT_ELEMENTS = Set.of("t", "delText", "instrText", "delInstrText");
+
+    private final XMLStreamWriter writer;
+    private final Marshaller marshaller;
+
+    private DocumentWriter(XMLStreamWriter writer, Marshaller marshaller) {
+        this.writer = writer;
+        this.marshaller = marshaller;
+    }
+
+    private static SequencedMap<String, String> namespaces() {
+        var namespaces = new LinkedHashMap<String, String>();
+        namespaces.put("wpc", "http://schemas.microsoft.com/office/word/2010/wordprocessingCanvas");
+        namespaces.put("mc", MC);
+        namespaces.put("o", "urn:schemas-microsoft-com:office:office");
+        namespaces.put("r", "http://schemas.openxmlformats.org/officeDocument/2006/relationships");
+        namespaces.put("m", "http://schemas.openxmlformats.org/officeDocument/2006/math");
+        namespaces.put("v", "urn:schemas-microsoft-com:vml");
+        namespaces.put("wp14", "http://schemas.microsoft.com/office/word/2010/wordprocessingDrawing");
+        namespaces.put("wp", "http://schemas.openxmlformats.org/drawingml/2006/wordprocessingDrawing");
+        namespaces.put("w10", "urn:schemas-microsoft-com:office:word");
+        namespaces.put("w", W);
+        namespaces.put("w14", W14);
+        namespaces.put("w15", "http://schemas.microsoft.com/office/word/2012/wordml");
+        namespaces.put("w16se", "http://schemas.microsoft.com/office/word/2015/wordml/symex");
+        namespaces.put("w16cid", "http://schemas.microsoft.com/office/word/2016/wordml/cid");
+        namespaces.put("w16", "http://schemas.microsoft.com/office/word/2018/wordml");
+        namespaces.put("w16cex", "http://schemas.microsoft.com/office/word/2018/wordml/cex");
+        namespaces.put("w16sdtdh", "http://schemas.microsoft.com/office/word/2020/wordml/sdtdatahash");
+        namespaces.put("wpg", "http://schemas.microsoft.com/office/word/2010/wordprocessingGroup");
+        namespaces.put("wpi", "http://schemas.microsoft.com/office/word/2010/wordprocessingInk");
+        namespaces.put("wne", "http://schemas.microsoft.com/office/word/2006/wordml");
+        namespaces.put("wps", "http://schemas.microsoft.com/office/word/2010/wordprocessingShape");
+        namespaces.put("a", "http://schemas.openxmlformats.org/drawingml/2006/main");
+        namespaces.put("pic", "http://schemas.openxmlformats.org/drawingml/2006/picture");
+        return Collections.unmodifiableSequencedMap(namespaces);
+    }
+
+    /// Tells whether a main document can be written by this class: its `mc:Ignorable` attribute must only list
+    /// prefixes of [#NAMESPACES].
+    ///
+    /// @param document the main document.
+    /// @return `true` if [#write(Document, OutputStream)] accepts the document.
+    static boolean supports(Document document) {
+        var ignorable = document.getIgnorable();
+        if (ignorable == null || ignorable.isBlank()) return true;
+        for (var prefix : ignorable.trim()
+                                   .split("\\s+"))
+            if (!NAMESPACES.containsKey(prefix)) return false;
+        return true;
+    }
+
+    /// Writes a main document.
+    ///
+    /// @param document the main document, accepted by [#supports(Document)].
+    /// @param os       the stream receiving the document, left open.
+    static void write(Document document, OutputStream os) {
+        try {
+            os.write(XML_DECLARATION.getBytes(StandardCharsets.UTF_8));
+            var writer = XMLOutputFactory.newFactory()
+                                         .createXMLStreamWriter(os, StandardCharsets.UTF_8.name());
+            var marshaller = Context.jc.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            NamespacePrefixMapperUtils.setProperty(marshaller, NamespacePrefixMapperUtils.getPrefixMapper());
+            new DocumentWriter(writer, marshaller).writeDocument(document);
+            writer.flush();
+            writer.close();
+        } catch (IOException | XMLStreamException | JAXBException e) {
+            throw new UtilsException("Failed to write the main document", e);
+        }
+    }
+
+    private void writeDocument(Document document)
+            throws XMLStreamException, JAXBException {
+        for (var namespace : NAMESPACES.entrySet())
+            writer.setPrefix(namespace.getKey(), namespace.getValue());
+        writer.writeStartElement("w", "document", W);
+        for (var namespace : NAMESPACES.entrySet())
+            writer.writeNamespace(namespace.getKey(), namespace.getValue());
+        var ignorable = document.getIgnorable();
+        if (ignorable != null) writer.writeAttribute("mc", MC, "Ignorable", ignorable);
+        delegate("background", CTBackground.class, document.getBackground());
+        var body = document.getBody();
+        if (body != null) writeBody(body);
+        writer.writeEndElement();
+    }
+
+    private void writeBody(Body body)
+            throws XMLStreamException, JAXBException {
+        writer.writeStartElement(W, "body");
+        writeContent(body.getContent());
+        delegate("sectPr", SectPr.class, body.getSectPr());
+        writer.writeEndElement();
+    }
+
+    private void writeContent(List<Object> content)
+            throws XMLStreamException, JAXBException {
+        for (var object : content)
+            write(object);
+    }
+
+    private void write(Object object)
+            throws XMLStreamException, JAXBException {
+        switch (object) {
+            case P p -> writeP(p);
+            case R r -> writeR(r);
+            case Text text -> writeText("t", text);
+            case Tbl tbl -> writeTbl(tbl);
+            case Tr tr -> writeTr(tr);
+            case Tc tc -> writeTc(tc);
+            case CTSmartTagRun smartTag -> writeSmartTag(smartTag);
+            case JAXBElement<?> element when !element.isNil() && W.equals(element.getName()
+                                                                               .getNamespaceURI()) ->
+                    writeElement(element);
+            default -> marshaller.marshal(object, writer);
+        }
+    }
+
+    private void writeElement(JAXBElement<?> element)
+            throws XMLStreamException, JAXBException {
+        var name = element.getName()
+                          .getLocalPart();
+        switch (element.getValue()) {
+            case Text text when TEXT_ELEMENTS.contains(name) -> writeText(name, text);
+            case P p when "p".equals(name) -> writeP(p);
+            case R r when "r".equals(name) -> writeR(r);
+            case Tbl tbl when "tbl".equals(name) -> writeTbl(tbl);
+            case Tr tr when "tr".equals(name) -> writeTr(tr);
+            case Tc tc when "tc".equals(name) -> writeTc(tc);
+            case CTSmartTagRun smartTag when "smartTag".equals(name) -> writeSmartTag(smartTag);
+            default -> marshaller.marshal(element, writer);
+        }
+    }
+
+    private void writeP(P p)
+            throws XMLStreamException, JAXBException {
+        writer.writeStartElement(W, "p");
+        attribute(W14, "paraId", p.getParaId());
+        attribute(W14, "textId", p.getTextId());
+        attribute(W, "rsidR", p.getRsidR());
+        attribute(W, "rsidRPr", p.getRsidRPr());
+        attribute(W, "rsidDel", p.getRsidDel());
+        attribute(W, "rsidP", p.getRsidP());
+        attribute(W, "rsidRDefault", p.getRsidRDefault());
+        delegate("pPr", PPr.class, p.getPPr());
+        writeContent(p.getContent());
+        writer.writeEndElement();
+    }
+
+    private void writeR(R r)
+            throws XMLStreamException, JAXBException {
+        writer.writeStartElement(W, "r");
+        attribute(W, "rsidRPr", r.getRsidRPr());
+        attribute(W, "rsidDel", r.getRsidDel());
+        attribute(W, "rsidR", r.getRsidR());
+        delegate("rPr", RPr.class, r.getRPr());
+        writeContent(r.getContent());
+        writer.writeEndElement();
+    }
+
+    private void writeText(String name, Text text)
+            throws XMLStreamException {
+        writer.writeStartElement(W, name);
+        var space = text.getSpace();
+        if (space != null) writer.writeAttribute("xml", XMLConstants.XML_NS_URI, "space", space);
+        var value = text.getValue();
+        if (value != null) writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private void writeTbl(Tbl tbl)
+            throws XMLStreamException, JAXBException {
+        writer.writeStartElement(W, "tbl");
+        delegate("tblPr", TblPr.class, tbl.getTblPr());
+        delegate("tblGrid", TblGrid.class, tbl.getTblGrid());
+        writeContent(tbl.getContent());
+        writer.writeEndElement();
+    }
+
+    private void writeTr(Tr tr)
+            throws XMLStreamException, JAXBException {
+        writer.writeStartElement(W, "tr");
+        attribute(W14, "paraId", tr.getParaId());
+        attribute(W14, "textId", tr.getTextId());
+        attribute(W, "rsidRPr", tr.getRsidRPr());
+        attribute(W, "rsidR", tr.getRsidR());
+        attribute(W, "rsidDel", tr.getRsidDel());
+        attribute(W, "rsidTr", tr.getRsidTr());
+        delegate("tblPrEx", CTTblPrEx.class, tr.getTblPrEx());
+        delegate("trPr", TrPr.class, tr.getTrPr());
+        writeContent(tr.getContent());
+        writer.writeEndElement();
+    }
+
+    private void writeTc(Tc tc)
+            throws XMLStreamException, JAXBException {
+        writer.writeStartElement(W, "tc");
+        delegate("tcPr", TcPr.class, tc.getTcPr());
+        writeContent(tc.getContent());
+        writer.writeEndElement();
+    }
+
+    private void writeSmartTag(CTSmartTagRun smartTag)
+            throws XMLStreamException, JAXBException {
+        writer.writeStartElement(W, "smartTag");
+        attribute(W, "uri", smartTag.getUri());
+        attribute(W, "element", smartTag.getElement());
+        var smartTagPr = smartTag.getSmartTagPr();
+        if (smartTagPr != null) {
+            writer.writeStartElement(W, "smartTagPr");
+            for (var attr : smartTagPr.getAttr()) {
+                writer.writeEmptyElement(W, "attr");
+                attribute(W, "uri", attr.getUri());
+                attribute(W, "name", attr.getName());
+                attribute(W, "val", attr.getVal());
+            }
+            writer.writeEndElement();
+        }
+        writeContent(smartTag.getContent());
+        writer.writeEndElement();
+    }
+
+    private void attribute(String namespace, String name, @Nullable String value)
+            throws XMLStreamException {
+        if (value != null) writer.writeAttribute(namespace, name, value);
+    }
+
+    /// Hands a child element to the JAXB marshaller, wrapped with its name since most property types are not root
+    /// elements.
+    private <T> void delegate(String name, Class<T> type, @Nullable T value)
+            throws JAXBException {
+        if (value == null) return;
+        marshaller.marshal(new JAXBElement<>(new QName(W, name), type, value), writer);
+    }
+}
@@ -0,0 +1,140 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.utils.UtilsException;
+import pro.verron.officestamper.utils.concurrent.BoundedExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
+
+/// Holds the compression settings used when exporting a package.
+///
+/// With the [default][#defaults()] options, packages are saved by docx4j. Any other options have them written by the
+/// package writer of this library instead, which honors these settings. When [#rawCopy()] is on, that writer also
+/// copies some entries verbatim from the archive a package was loaded from, keeping their original compression; these
+/// settings then only apply to the entries that are encoded again.
+///
+/// @param level             the deflate level, from [Deflater#NO_COMPRESSION] (entries are stored) to
+///                          [Deflater#BEST_COMPRESSION], or [Deflater#DEFAULT_COMPRESSION].
+/// @param storeMedia        whether to store, rather than deflate, the media whose format is already compressed, such
+///                          as JPEG, PNG or GIF images.
+/// @param parallelism       the number of threads marshalling the parts and deflating the chunks of large entries,
+///                          `1` encoding every entry on the exporting thread. It never changes the exported bytes.
+/// @param parallelThreshold the size, in bytes, from which an entry is split into chunks deflated independently, in
+///                          parallel when the parallelism allows it.
+/// @param staxDocument      whether to serialize the main document of Word packages with a StAX writer, handing to
+///                          JAXB only the elements it does not write itself, instead of the JAXB marshaller.
+/// @param rawCopy           whether to copy, as raw compressed entries, the binary parts whose content still matches
+///                          the entry they were loaded from, and the parts deferred by lazy loading. Every other part,
+///                          including an XML part left unchanged, is marshalled and compressed again.
+/// @param executor          the executor encoding the entries when the parallelism is greater than one, owned by the
+///                          caller, who shuts it down; or `null` to use an executor shared by the whole library (see
+///                          [BoundedExecutor#shared(String)]). Each export runs at most `parallelism` tasks on it at
+///                          once, and none of its tasks waits for another one.
+public record ExportOptions(
+        int level,
+        boolean storeMedia,
+        int parallelism,
+        int parallelThreshold,
+        boolean staxDocument,
+        boolean rawCopy,
+        @Nullable ExecutorService executor
+) {
+
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 256 * 1024;
+    private static final ExportOptions DEFAULTS = new ExportOptions(Deflater.DEFAULT_COMPRESSION,
+            false,
+            1,
+            DEFAULT_PARALLEL_THRESHOLD,
+            false,
+            false,
+            null);
+
+    /// Validates the options.
+    ///
+    /// @param level             the deflate level.
+    /// @param storeMedia        whether to store the already compressed media.
+    /// @param parallelism       the number of threads encoding the entries.
+    /// @param parallelThreshold the size from which an entry is deflated in chunks.
+    /// @param staxDocument      whether to serialize the main document with a StAX writer.
+    /// @param rawCopy           whether to copy the untouched entries verbatim.
+    /// @param executor          the executor encoding the entries, or `null` for a shared one.
+    public ExportOptions {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION
+                                                      || level > Deflater.BEST_COMPRESSION))
+            throw new UtilsException("Invalid compression level: " + level);
+        if (parallelism < 1) throw new UtilsException("Export parallelism must be positive");
+        if (parallelThreshold < 0) throw new UtilsException("Export parallel threshold must not be negative");
+    }
+
+    /// Returns the default options: the package saved by docx4j, every part marshalled by JAXB and deflated at the
+    /// default level, on the exporting thread.
+    ///
+    /// @return the default [ExportOptions].
+    public static ExportOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /// Returns a copy of these options with the given deflate level.
+    ///
+    /// @param level the deflate level.
+    /// @return the updated options.
+    public ExportOptions withLevel(int level) {
+        return new ExportOptions(level, storeMedia, parallelism, parallelThreshold, staxDocument, rawCopy, executor);
+    }
+
+    /// Returns a copy of these options storing, or not, the already compressed media.
+    ///
+    /// @param storeMedia whether to store the already compressed media.
+    /// @return the updated options.
+    public ExportOptions withStoreMedia(boolean storeMedia) {
+        return new ExportOptions(level, storeMedia, parallelism, parallelThreshold, staxDocument, rawCopy, executor);
+    }
+
+    /// Returns a copy of these options with the given parallelism.
+    ///
+    /// @param parallelism the number of threads encoding the entries.
+    /// @return the updated options.
+    public ExportOptions withParallelism(int parallelism) {
+        return new ExportOptions(level, storeMedia, parallelism, parallelThreshold, staxDocument, rawCopy, executor);
+    }
+
+    /// Returns a copy of these options with the given parallel threshold.
+    ///
+    /// @param parallelThreshold the size, in bytes, from which an entry is deflated in chunks.
+    /// @return the updated options.
+    public ExportOptions withParallelThreshold(int parallelThreshold) {
+        return new ExportOptions(level, storeMedia, parallelism, parallelThreshold, staxDocument, rawCopy, executor);
+    }
+
+    /// Returns a copy of these options serializing, or not, the main document with a StAX writer.
+    ///
+    /// @param staxDocument whether to serialize the main document with a StAX writer.
+    /// @return the updated options.
+    public ExportOptions withStaxDocument(boolean staxDocument) {
+        return new ExportOptions(level, storeMedia, parallelism, parallelThreshold, staxDocument, rawCopy, executor);
+    }
+
+    /// Returns a copy of these options copying, or not, the untouched entries verbatim.
+    ///
+    /// @param rawCopy whether to copy the untouched entries verbatim.
+    /// @return the updated options.
+    public ExportOptions withRawCopy(boolean rawCopy) {
+        return new ExportOptions(level, storeMedia, parallelism, parallelThreshold, staxDocument, rawCopy, executor);
+    }
+
+    /// Returns a copy of these options encoding the entries on the given executor.
+    ///
+    /// @param executor the executor, owned by the caller, or `null` for a shared one.
+    /// @return the updated options.
+    public ExportOptions withExecutor(@Nullable ExecutorService executor) {
+        return new ExportOptions(level, storeMedia, parallelism, parallelThreshold, staxDocument, rawCopy, executor);
+    }
+
+    /// Tells whether these options need the package writer of this library, docx4j saving the package otherwise.
+    ///
+    /// @return `true` unless these are the default options, whatever their executor.
+    boolean customized() {
+        return !withExecutor(null).equals(DEFAULTS);
+    }
+}
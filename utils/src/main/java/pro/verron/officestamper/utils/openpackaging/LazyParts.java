@@ -0,0 +1,408 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import jakarta.xml.bind.JAXBException;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.XmlPart;
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.utils.UtilsException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.ZipInputStream;
+
+/// Loads Word documents without unmarshalling the parts that stamping never touches.
+///
+/// Before handing the package to docx4j, the raw bytes of the XML parts that are not structurally needed by the engine
+/// (see [#STRUCTURAL_TYPES]) are scanned. Such a part is *deferred* when none of the given markers occurs in its
+/// bytes: docx4j then only sees a stub made of the part root element, self-closed, while the original bytes are kept
+/// aside and written back verbatim on export. The other entries are handed to docx4j with their compressed data
+/// untouched, without being inflated.
+///
+/// A deferred part is a read-only stand-in: it must be [materialized][#materialize(OpcPackage, Part)] before being
+/// read or modified.
+final class LazyParts {
+
+    static final String CONTENT_TYPES = "[Content_Types].xml";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+    /// The content types of the parts the engine visits, or that docx4j needs to lay out the document, which are
+    /// therefore always unmarshalled.
+    private static final Set<String> STRUCTURAL_TYPES = Set.of(
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.template.main+xml",
+            "application/vnd.ms-word.document.macroEnabled.main+xml",
+            "application/vnd.ms-word.template.macroEnabledTemplate.main+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.header+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.footer+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.footnotes+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.endnotes+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.comments+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.numbering+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.settings+xml",
+            "application/vnd.openxmlformats-package.core-properties+xml",
+            "application/vnd.openxmlformats-officedocument.extended-properties+xml",
+            "application/vnd.openxmlformats-officedocument.custom-properties+xml",
+            "application/vnd.openxmlformats-package.relationships+xml");
+
+    private static final Map<OpcPackage, Map<String, byte[]>> deferred =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private LazyParts() {
+        throw new UtilsException("Utility class shouldn't be instantiated");
+    }
+
+    /// Loads a Word document, deferring the parts holding none of the given markers.
+    ///
+    /// @param archive the bytes of the Word document, from its first to its last byte.
+    /// @param markers the byte sequences revealing that a part may need to be stamped.
+    /// @return the loaded document.
+    static WordprocessingMLPackage load(ByteBuffer archive, Collection<String> markers) {
+        var rewritten = rewrite(archive, markers, Set.of());
+        try {
+            var document = WordprocessingMLPackage.load(new ByteArrayInputStream(rewritten.archive()));
+            register(document, rewritten.deferred());
+            PackageWriter.track(document, archive);
+            return document;
+        } catch (Docx4JException e) {
+            throw new UtilsException(e);
+        }
+    }
+
+    /// Rewrites a package for docx4j, replacing entries by their stub: the deferrable entries holding none of the
+    /// given markers, and the entries of the given content types.
+    ///
+    /// Only the entries that may be replaced are inflated; the others are copied with their compressed data untouched
+    /// when the package can be read as a [ZipSource].
+    ///
+    /// @param archive the bytes of the package, from its first to its last byte.
+    /// @param markers the byte sequences revealing that a part may need to be stamped, or `null` to defer no entry.
+    /// @param types   the content types of the entries to replace by their stub whatever their content.
+    /// @return the rewritten package, with the original content of its replaced entries.
+    static Rewritten rewrite(ByteBuffer archive, @Nullable Collection<String> markers, Set<String> types) {
+        var patterns = markers == null ? null : markers.stream()
+                                                       .map(marker -> marker.getBytes(StandardCharsets.UTF_8))
+                                                       .toList();
+        var items = items(archive, Deflater.NO_COMPRESSION);
+        var contentTypes = items.stream()
+                                .filter(item -> item.name()
+                                                    .equals(CONTENT_TYPES))
+                                .findFirst()
+                                .map(item -> contentTypes(item.content()
+                                                              .get()))
+                                .orElseThrow(() -> new UtilsException("Missing " + CONTENT_TYPES));
+        var deferred = new HashMap<String, byte[]>();
+        var stubbed = new HashMap<String, byte[]>();
+        var buffer = new ByteArrayOutputStream(archive.remaining());
+        var writer = new ZipWriter(buffer);
+        try {
+            for (var item : items) {
+                var name = item.name();
+                var contentType = contentTypes.of(name);
+                var deferrable = patterns != null && isDeferrable(contentType);
+                if (!deferrable && (contentType == null || !types.contains(contentType))) {
+                    writer.write(item.copy()
+                                     .get());
+                    continue;
+                }
+                var content = item.content()
+                                  .get();
+                var stub = deferrable && contains(content, patterns) ? Optional.<byte[]>empty() : stub(content);
+                if (stub.isEmpty()) {
+                    writer.write(item.copy()
+                                     .get());
+                    continue;
+                }
+                (deferrable ? deferred : stubbed).put(name, content);
+                writer.write(ZipWriter.encode(name, stub.get(), Deflater.NO_COMPRESSION));
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new UtilsException("Failed to write the package", e);
+        }
+        return new Rewritten(buffer.toByteArray(), deferred, stubbed);
+    }
+
+    /// Remembers the parts of a loaded document that were deferred by [#rewrite(ByteBuffer, Collection, Set)].
+    ///
+    /// @param document  the loaded document.
+    /// @param originals the original content of its deferred parts, by entry name.
+    static void register(OpcPackage document, Map<String, byte[]> originals) {
+        if (!originals.isEmpty()) deferred.put(document, originals);
+    }
+
+    /// Saves a package with docx4j, writing its deferred parts back from their original bytes, and copying the other
+    /// entries docx4j wrote with their compressed data untouched.
+    ///
+    /// [PackageWriter] saves packages this way with the default options, and for packages holding parts it cannot
+    /// serialize.
+    ///
+    /// @param document the package to save.
+    /// @param os       the output stream to write the package to.
+    static void save(OpcPackage document, OutputStream os) {
+        var originals = deferred.get(document);
+        try {
+            if (originals == null || originals.isEmpty()) {
+                document.save(os);
+                return;
+            }
+            var buffer = new ByteArrayOutputStream();
+            document.save(buffer);
+            var writer = new ZipWriter(os);
+            synchronized (originals) {
+                for (var item : items(ByteBuffer.wrap(buffer.toByteArray()), Deflater.DEFAULT_COMPRESSION)) {
+                    var original = originals.get(item.name());
+                    writer.write(original == null
+                            ? item.copy()
+                                  .get()
+                            : ZipWriter.encode(item.name(), original, Deflater.DEFAULT_COMPRESSION));
+                }
+            }
+            writer.finish();
+        } catch (Docx4JException e) {
+            throw new UtilsException(e);
+        } catch (IOException e) {
+            throw new UtilsException("Failed to write the package", e);
+        }
+    }
+
+    /// Unmarshals the original content of a deferred part, so it can be read and modified like any other part.
+    ///
+    /// Does nothing when the part is not deferred.
+    ///
+    /// @param document the document holding the part.
+    /// @param part     the part to materialize.
+    static void materialize(OpcPackage document, Part part) {
+        var originals = deferred.get(document);
+        if (originals == null) return;
+        var name = part.getPartName()
+                       .getName()
+                       .substring(1);
+        synchronized (originals) {
+            var bytes = originals.get(name);
+            if (bytes == null) return;
+            try {
+                switch (part) {
+                    case JaxbXmlPart<?> jaxbPart -> unmarshal(jaxbPart, bytes);
+                    case XmlPart xmlPart -> xmlPart.setDocument(new ByteArrayInputStream(bytes));
+                    default -> throw new UtilsException("Unsupported deferred part: " + part.getPartName());
+                }
+            } catch (Docx4JException | JAXBException e) {
+                throw new UtilsException("Failed to materialize " + part.getPartName(), e);
+            }
+            originals.remove(name);
+        }
+    }
+
+    /// Tells whether the given part is deferred.
+    ///
+    /// @param document the document holding the part.
+    /// @param part     the part to check.
+    /// @return `true` if the part only holds a stub of its original content.
+    static boolean isDeferred(OpcPackage document, Part part) {
+        var originals = deferred.get(document);
+        if (originals == null) return false;
+        synchronized (originals) {
+            return originals.containsKey(part.getPartName()
+                                             .getName()
+                                             .substring(1));
+        }
+    }
+
+    /// Returns the original content of a deferred part.
+    ///
+    /// @param document the document holding the part.
+    /// @param part     the deferred part.
+    /// @return the bytes the part was loaded from.
+    static byte[] original(OpcPackage document, Part part) {
+        var originals = deferred.get(document);
+        if (originals == null) throw new UtilsException("Not a deferred part: " + part.getPartName());
+        synchronized (originals) {
+            var bytes = originals.get(part.getPartName()
+                                          .getName()
+                                          .substring(1));
+            if (bytes == null) throw new UtilsException("Not a deferred part: " + part.getPartName());
+            return bytes;
+        }
+    }
+
+    private static <E> void unmarshal(JaxbXmlPart<E> part, byte[] bytes)
+            throws JAXBException {
+        part.setJaxbElement(part.unmarshal(new ByteArrayInputStream(bytes)));
+    }
+
+    private static boolean isDeferrable(@Nullable String contentType) {
+        return contentType != null && contentType.endsWith("+xml") && !STRUCTURAL_TYPES.contains(contentType);
+    }
+
+    private static boolean contains(byte[] bytes, List<byte[]> markers) {
+        for (var marker : markers)
+            if (indexOf(bytes, marker, 0) >= 0) return true;
+        return false;
+    }
+
+    /// Builds the stub of an XML part: its XML declaration followed by its root element, self-closed, so that the
+    /// stub keeps the root name and namespace declarations docx4j expects.
+    ///
+    /// @return the stub, or empty when the part does not start like a plain UTF-8 XML document.
+    static Optional<byte[]> stub(byte[] bytes) {
+        var index = 0;
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF)
+            index = 3;
+        while (index < bytes.length) {
+            var current = bytes[index];
+            if (current == ' ' || current == '\t' || current == '\r' || current == '\n') index++;
+            else if (startsWith(bytes, index, "<?")) index = after(bytes, index, "?>");
+            else if (startsWith(bytes, index, "<!--")) index = after(bytes, index, "-->");
+            else if (current == '<' && index + 1 < bytes.length && isNameStart(bytes[index + 1])) break;
+            else return Optional.empty();
+            if (index < 0) return Optional.empty();
+        }
+        var start = index;
+        var quote = (byte) 0;
+        for (; index < bytes.length; index++) {
+            var current = bytes[index];
+            if (quote != 0) {
+                if (current == quote) quote = 0;
+            }
+            else if (current == '"' || current == '\'') quote = current;
+            else if (current == '>') break;
+        }
+        if (index >= bytes.length || bytes[index - 1] == '/') return Optional.empty();
+        var stub = new ByteArrayOutputStream(XML_DECLARATION.length() + index - start + 2);
+        stub.writeBytes(XML_DECLARATION.getBytes(StandardCharsets.UTF_8));
+        stub.write(bytes, start, index - start);
+        stub.writeBytes("/>".getBytes(StandardCharsets.UTF_8));
+        return Optional.of(stub.toByteArray());
+    }
+
+    private static boolean isNameStart(byte b) {
+        return Character.isLetter(b) || b == '_';
+    }
+
+    private static boolean startsWith(byte[] bytes, int index, String prefix) {
+        if (index + prefix.length() > bytes.length) return false;
+        for (int i = 0; i < prefix.length(); i++)
+            if (bytes[index + i] != prefix.charAt(i)) return false;
+        return true;
+    }
+
+    private static int after(byte[] bytes, int index, String end) {
+        var found = indexOf(bytes, end.getBytes(StandardCharsets.US_ASCII), index);
+        return found < 0 ? -1 : found + end.length();
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern, int from) {
+        if (pattern.length == 0) return from;
+        var first = pattern[0];
+        var last = bytes.length - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            if (bytes[i] != first) continue;
+            for (int j = 1; j < pattern.length; j++)
+                if (bytes[i + j] != pattern[j]) continue outer;
+            return i;
+        }
+        return -1;
+    }
+
+    /// Lists the entries of a package, in order.
+    ///
+    /// When the package can be read as a [ZipSource], the entries are sliced out of the archive, only inflated when
+    /// their content is asked for, and copied with their compressed data untouched. Otherwise, they are all read
+    /// through a [ZipInputStream] and copied by encoding them again at the given level.
+    private static List<Item> items(ByteBuffer archive, int level) {
+        var items = new ArrayList<Item>();
+        var source = ZipSource.of(archive);
+        if (source.isPresent()) {
+            var zip = source.get();
+            for (var entry : zip.entries())
+                items.add(new Item(entry.name(), () -> zip.read(entry), () -> ZipWriter.raw(zip, entry)));
+            return items;
+        }
+        try (var zip = new ZipInputStream(new ByteBufferInputStream(archive))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (entry.isDirectory()) continue;
+                var name = entry.getName();
+                var content = zip.readAllBytes();
+                items.add(new Item(name, () -> content, () -> ZipWriter.encode(name, content, level)));
+            }
+        } catch (IOException e) {
+            throw new UtilsException("Failed to read the package", e);
+        }
+        return items;
+    }
+
+    static ContentTypes contentTypes(byte[] bytes) {
+        var defaults = new HashMap<String, String>();
+        var overrides = new HashMap<String, String>();
+        var factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            var reader = factory.createXMLStreamReader(new ByteArrayInputStream(bytes));
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+                var contentType = reader.getAttributeValue(null, "ContentType");
+                if (contentType == null) continue;
+                switch (reader.getLocalName()) {
+                    case "Default" -> defaults.put(reader.getAttributeValue(null, "Extension")
+                                                         .toLowerCase(Locale.ROOT), contentType);
+                    case "Override" -> overrides.put(reader.getAttributeValue(null, "PartName")
+                                                           .substring(1), contentType);
+                    default -> { /* DO NOTHING */ }
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException | RuntimeException e) {
+            throw new UtilsException("Failed to read " + CONTENT_TYPES, e);
+        }
+        return new ContentTypes(defaults, overrides);
+    }
+
+    /// A package rewritten by [#rewrite(ByteBuffer, Collection, Set)].
+    ///
+    /// @param archive  the rewritten package, to hand to docx4j.
+    /// @param deferred the original content of the deferred entries, by entry name.
+    /// @param stubbed  the original content of the other entries replaced by their stub, by entry name.
+    record Rewritten(byte[] archive, Map<String, byte[]> deferred, Map<String, byte[]> stubbed) {}
+
+    /// An entry of a package, whose content is only read when asked for.
+    ///
+    /// @param name    the name of the entry.
+    /// @param content supplies the uncompressed content of the entry.
+    /// @param copy    supplies the entry encoded as in the package, to copy it in another one.
+    private record Item(String name, Supplier<byte[]> content, Supplier<ZipWriter.Encoded> copy) {}
+
+    /// The content types declared by the `[Content_Types].xml` entry of a package.
+    ///
+    /// @param defaults  the content types by lowercase extension.
+    /// @param overrides the content types by entry name.
+    record ContentTypes(Map<String, String> defaults, Map<String, String> overrides) {
+        /// Returns the content type of an entry.
+        ///
+        /// @param name the name of the entry, without leading slash.
+        /// @return the content type, or `null` when none is declared.
+        String of(String name) {
+            var override = overrides.get(name);
+            if (override != null) return override;
+            var dot = name.lastIndexOf('.');
+            return dot < 0 ? null : defaults.get(name.substring(dot + 1)
+                                                     .toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -81,15 +81,31 @@ public final class OpenPackage<T extends OpcPackage> {
             T document,
             Part part
     ) {
-        //noinspection unchecked because the pool system ensure types respect
-        return pool.computeIfAbsent(document, d -> new ConcurrentHashMap<>())
-                   .computeIfAbsent(part, p -> new OpenPackage<>(document, p));
+        synchronized (document) {
+            //noinspection unchecked because the pool system ensure types respect
+            return pool.computeIfAbsent(document, d -> new ConcurrentHashMap<>())
+                       .computeIfAbsent(part, p -> new OpenPackage<>(document, p));
+        }
+    }
+
+    /// Forgets every [OpenPackage] created for the given document, and the
+    /// archive it was loaded from, letting the document be garbage collected
+    /// once the caller is done with it.
+    ///
+    /// @param document the [OpcPackage] document to release
+    public static void release(OpcPackage document) {
+        pool.remove(document);
+        PackageWriter.untrack(document);
     }
 
     /// Finds an existing image part in the package that matches the given byte
     /// data, or creates a new one if no matching part is found or deduplication
     /// is disabled.
     ///
+    /// The package is locked meanwhile, since naming the new part and
+    /// allocating its relationship id must not interleave with another part
+    /// of the same package adding an image.
+    ///
     /// @param bytes       a supplier providing the byte array containing
     /// image data
     /// @param deduplicate a boolean flag indicating whether to deduplicate by
@@ -101,11 +117,13 @@ public final class OpenPackage<T extends OpcPackage> {
             Supplier<byte[]> bytes,
             boolean deduplicate
     ) {
-        if (deduplicate) {
-            var foundImagePart = findImgPart(bytes.get());
-            if (foundImagePart.isPresent()) return foundImagePart.get();
+        synchronized (document) {
+            if (deduplicate) {
+                var foundImagePart = findImgPart(bytes.get());
+                if (foundImagePart.isPresent()) return foundImagePart.get();
+            }
+            return newImgPart(bytes.get());
         }
-        return newImgPart(bytes.get());
     }
 
     private Optional<ImgPart> findImgPart(byte[] bytes) {
@@ -6,8 +6,11 @@ import org.docx4j.openpackaging.contenttype.ContentTypes;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.exceptions.InvalidFormatException;
 import org.docx4j.openpackaging.exceptions.PartUnrecognisedException;
+import org.docx4j.openpackaging.packages.OpcPackage;
 import org.docx4j.openpackaging.packages.PresentationMLPackage;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
 import org.docx4j.openpackaging.parts.XmlPart;
 import org.docx4j.openpackaging.parts.relationships.Namespaces;
 import org.docx4j.wml.R;
@@ -17,8 +20,16 @@ import pro.verron.officestamper.utils.image.ImageRunOptions;
 import pro.verron.officestamper.utils.svg.SvgUtils;
 import pro.verron.officestamper.utils.wml.WmlFactory;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /// Utility class for working with Open Packaging documents. This class provides methods to load and export Word
@@ -34,24 +45,261 @@ public class OpenpackagingUtils {
     /// @return a WordprocessingMLPackage representing the loaded document
     /// @throws UtilsException if there is an error loading the document
     public static WordprocessingMLPackage loadWord(InputStream is) {
+        return loadWord(ByteBuffer.wrap(readAllBytes(is)));
+    }
+
+    /// Loads a Word document from a file, memory-mapping it rather than reading it onto the heap.
+    ///
+    /// @param path the path of the Word document
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error reading or loading the document
+    public static WordprocessingMLPackage loadWord(Path path) {
+        return loadWord(map(path));
+    }
+
+    /// Loads a Word document from a file channel, memory-mapping it rather than reading it onto the heap.
+    ///
+    /// @param channel the channel of the Word document, read from its start, and left open
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error reading or loading the document
+    public static WordprocessingMLPackage loadWord(FileChannel channel) {
+        return loadWord(map(channel));
+    }
+
+    /// Loads a Word document from the remaining bytes of a buffer.
+    ///
+    /// The zip central directory is read through random access, and the buffer is kept, without copy, as the source of
+    /// the entries copied verbatim by [#exportWord(WordprocessingMLPackage, OutputStream, ExportOptions)]. The buffer
+    /// must therefore not be modified afterward.
+    ///
+    /// @param archive the bytes of the Word document, for instance mapped by [#map(Path)]
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document
+    public static WordprocessingMLPackage loadWord(ByteBuffer archive) {
+        var bytes = archive.slice();
         try {
-            return WordprocessingMLPackage.load(is);
+            var document = WordprocessingMLPackage.load(new ByteBufferInputStream(bytes));
+            PackageWriter.track(document, bytes);
+            return document;
         } catch (Docx4JException e) {
             throw new UtilsException(e);
         }
     }
 
-    /// Exports a Word document to the provided output stream.
+    /// Loads a Word document from the provided input stream, leaving unmarshalled the parts that cannot hold a hook.
+    ///
+    /// The raw bytes of each part are scanned for the given markers. The parts the engine needs structurally (main
+    /// document, headers, footers, notes, comments, styles, numbering, settings and document properties) are always
+    /// unmarshalled; any other XML part without any marker is only loaded as a stub of its root element, and is
+    /// written back verbatim by [#exportWord(WordprocessingMLPackage, OutputStream)]. Such a part must be passed to
+    /// [#materialize(OpcPackage, Part)] before being read or modified.
+    ///
+    /// @param is the input stream containing the Word document data
+    /// @param markers the strings revealing that a part may hold a hook, for instance the placeholder delimiters
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document
+    public static WordprocessingMLPackage loadWord(InputStream is, Collection<String> markers) {
+        return loadWord(ByteBuffer.wrap(readAllBytes(is)), markers);
+    }
+
+    /// Loads a Word document from the remaining bytes of a buffer, leaving unmarshalled the parts that cannot hold a
+    /// hook, like [#loadWord(InputStream, Collection)].
+    ///
+    /// @param archive the bytes of the Word document, which must not be modified afterward
+    /// @param markers the strings revealing that a part may hold a hook, for instance the placeholder delimiters
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document
+    public static WordprocessingMLPackage loadWord(ByteBuffer archive, Collection<String> markers) {
+        return LazyParts.load(archive.slice(), markers);
+    }
+
+    /// Loads a Word document from the provided input stream, unmarshalling its main document, headers, footers, notes,
+    /// comments, styles and numbering concurrently, at most `parallelism` at once, on an executor shared by the
+    /// library.
+    ///
+    /// Each of those parts is handed to `partHook` by the thread that unmarshalled it, as soon as it is unmarshalled,
+    /// so that part-level preprocessing runs in parallel as well. The hook must only modify the part it receives.
+    ///
+    /// @param is the input stream containing the Word document data
+    /// @param parallelism the maximum number of parts unmarshalled at the same time
+    /// @param partHook the action applied to each part unmarshalled concurrently
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document, or if the hook fails
+    public static WordprocessingMLPackage loadWord(
+            InputStream is,
+            int parallelism,
+            Consumer<? super JaxbXmlPart<?>> partHook
+    ) {
+        return loadWord(ByteBuffer.wrap(readAllBytes(is)), parallelism, partHook);
+    }
+
+    /// Loads a Word document from the remaining bytes of a buffer, unmarshalling its large parts concurrently, like
+    /// [#loadWord(InputStream, int, Consumer)].
+    ///
+    /// @param archive the bytes of the Word document, which must not be modified afterward
+    /// @param parallelism the maximum number of parts unmarshalled at the same time
+    /// @param partHook the action applied to each part unmarshalled concurrently
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document, or if the hook fails
+    public static WordprocessingMLPackage loadWord(
+            ByteBuffer archive,
+            int parallelism,
+            Consumer<? super JaxbXmlPart<?>> partHook
+    ) {
+        return ParallelParts.load(archive.slice(), null, parallelism, null, partHook);
+    }
+
+    /// Loads a Word document from the remaining bytes of a buffer, unmarshalling its large parts concurrently on the
+    /// given executor, like [#loadWord(InputStream, int, Consumer)].
+    ///
+    /// @param archive the bytes of the Word document, which must not be modified afterward
+    /// @param parallelism the maximum number of parts unmarshalled at the same time
+    /// @param executor the executor unmarshalling the parts, owned by the caller; its tasks never wait for one another
+    /// @param partHook the action applied to each part unmarshalled concurrently
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document, or if the hook fails
+    public static WordprocessingMLPackage loadWord(
+            ByteBuffer archive,
+            int parallelism,
+            ExecutorService executor,
+            Consumer<? super JaxbXmlPart<?>> partHook
+    ) {
+        return ParallelParts.load(archive.slice(), null, parallelism, executor, partHook);
+    }
+
+    /// Loads a Word document from the provided input stream, leaving unmarshalled the parts that cannot hold a hook
+    /// like [#loadWord(InputStream, Collection)], and unmarshalling the others concurrently like
+    /// [#loadWord(InputStream, int, Consumer)].
+    ///
+    /// @param is the input stream containing the Word document data
+    /// @param markers the strings revealing that a part may hold a hook, for instance the placeholder delimiters
+    /// @param parallelism the maximum number of parts unmarshalled at the same time
+    /// @param partHook the action applied to each part unmarshalled concurrently
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document, or if the hook fails
+    public static WordprocessingMLPackage loadWord(
+            InputStream is,
+            Collection<String> markers,
+            int parallelism,
+            Consumer<? super JaxbXmlPart<?>> partHook
+    ) {
+        return loadWord(ByteBuffer.wrap(readAllBytes(is)), markers, parallelism, partHook);
+    }
+
+    /// Loads a Word document from the remaining bytes of a buffer, leaving unmarshalled the parts that cannot hold a
+    /// hook and unmarshalling the others concurrently, like [#loadWord(InputStream, Collection, int, Consumer)].
+    ///
+    /// @param archive the bytes of the Word document, which must not be modified afterward
+    /// @param markers the strings revealing that a part may hold a hook, for instance the placeholder delimiters
+    /// @param parallelism the maximum number of parts unmarshalled at the same time
+    /// @param partHook the action applied to each part unmarshalled concurrently
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document, or if the hook fails
+    public static WordprocessingMLPackage loadWord(
+            ByteBuffer archive,
+            Collection<String> markers,
+            int parallelism,
+            Consumer<? super JaxbXmlPart<?>> partHook
+    ) {
+        return ParallelParts.load(archive.slice(), markers, parallelism, null, partHook);
+    }
+
+    /// Loads a Word document from the remaining bytes of a buffer, leaving unmarshalled the parts that cannot hold a
+    /// hook and unmarshalling the others concurrently on the given executor, like
+    /// [#loadWord(InputStream, Collection, int, Consumer)].
+    ///
+    /// @param archive the bytes of the Word document, which must not be modified afterward
+    /// @param markers the strings revealing that a part may hold a hook, for instance the placeholder delimiters
+    /// @param parallelism the maximum number of parts unmarshalled at the same time
+    /// @param executor the executor unmarshalling the parts, owned by the caller; its tasks never wait for one another
+    /// @param partHook the action applied to each part unmarshalled concurrently
+    /// @return a WordprocessingMLPackage representing the loaded document
+    /// @throws UtilsException if there is an error loading the document, or if the hook fails
+    public static WordprocessingMLPackage loadWord(
+            ByteBuffer archive,
+            Collection<String> markers,
+            int parallelism,
+            ExecutorService executor,
+            Consumer<? super JaxbXmlPart<?>> partHook
+    ) {
+        return ParallelParts.load(archive.slice(), markers, parallelism, executor, partHook);
+    }
+
+    /// Maps a file into memory, read-only.
+    ///
+    /// The mapping stays valid after the file is closed, until the buffer is garbage collected.
+    ///
+    /// @param path the path of the file
+    /// @return the mapped bytes of the file
+    /// @throws UtilsException if the file cannot be read, or is larger than 2 GiB
+    public static ByteBuffer map(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(channel);
+        } catch (IOException e) {
+            throw new UtilsException("Failed to open " + path, e);
+        }
+    }
+
+    /// Maps the content of a file channel into memory, read-only.
+    ///
+    /// @param channel the channel of the file, left open
+    /// @return the mapped bytes of the file, from its first to its last byte
+    /// @throws UtilsException if the file cannot be read, or is larger than 2 GiB
+    public static ByteBuffer map(FileChannel channel) {
+        try {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new UtilsException("Cannot map a file larger than 2 GiB");
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new UtilsException("Failed to map the file", e);
+        }
+    }
+
+    /// Unmarshals a part left aside by [#loadWord(InputStream, Collection)], so it can be read and modified like any
+    /// other part. Does nothing if the part was loaded normally.
+    ///
+    /// @param document the document holding the part
+    /// @param part the part to materialize
+    /// @throws UtilsException if the original content of the part cannot be unmarshalled
+    public static void materialize(OpcPackage document, Part part) {
+        LazyParts.materialize(document, part);
+    }
+
+    /// Tells whether a part was left aside by [#loadWord(InputStream, Collection)] and still only holds a stub.
+    ///
+    /// @param document the document holding the part
+    /// @param part the part to check
+    /// @return true if the part has not been materialized yet
+    public static boolean isDeferred(OpcPackage document, Part part) {
+        return LazyParts.isDeferred(document, part);
+    }
+
+    /// Exports a Word document to the provided output stream, saving it with docx4j.
     ///
     /// @param wordprocessingMLPackage the Word document to export
     /// @param os the output stream to write the document to
     /// @throws UtilsException if there is an error exporting the document
     public static void exportWord(WordprocessingMLPackage wordprocessingMLPackage, OutputStream os) {
-        try {
-            wordprocessingMLPackage.save(os);
-        } catch (Docx4JException e) {
-            throw new UtilsException(e);
-        }
+        exportWord(wordprocessingMLPackage, os, ExportOptions.defaults());
+    }
+
+    /// Exports a Word document to the provided output stream, encoding its entries with the given options.
+    ///
+    /// With [ExportOptions#rawCopy()] on, and when the document was loaded by this class, its binary parts whose
+    /// content still matches the loaded archive, and its parts deferred by lazy loading, are copied from that archive
+    /// as raw compressed entries. Every other part is marshalled and compressed again.
+    ///
+    /// @param wordprocessingMLPackage the Word document to export
+    /// @param os the output stream to write the document to
+    /// @param options the compression of the entries that are not copied verbatim, docx4j saving the document with
+    ///                the [default][ExportOptions#defaults()] options
+    /// @throws UtilsException if there is an error exporting the document
+    public static void exportWord(
+            WordprocessingMLPackage wordprocessingMLPackage,
+            OutputStream os,
+            ExportOptions options
+    ) {
+        PackageWriter.export(wordprocessingMLPackage, os, options);
     }
 
     /// Loads a PowerPoint document from the provided input stream.
@@ -60,22 +308,48 @@ public class OpenpackagingUtils {
     /// @return a PresentationMLPackage representing the loaded document
     /// @throws UtilsException if there is an error loading the document
     public static PresentationMLPackage loadPowerPoint(InputStream is) {
+        var bytes = ByteBuffer.wrap(readAllBytes(is));
         try {
-            return PresentationMLPackage.load(is);
+            var document = PresentationMLPackage.load(new ByteBufferInputStream(bytes));
+            PackageWriter.track(document, bytes);
+            return document;
         } catch (Docx4JException e) {
             throw new UtilsException(e);
         }
     }
 
-    /// Exports a PowerPoint document to the provided output stream.
+    /// Exports a PowerPoint document to the provided output stream, saving it with docx4j.
     ///
     /// @param presentationMLPackage the PowerPoint document to export
     /// @param os the output stream to write the document to
     /// @throws UtilsException if there is an error exporting the document
     public static void exportPowerPoint(PresentationMLPackage presentationMLPackage, OutputStream os) {
+        exportPowerPoint(presentationMLPackage, os, ExportOptions.defaults());
+    }
+
+    /// Exports a PowerPoint document to the provided output stream, encoding its entries with the given options.
+    ///
+    /// With [ExportOptions#rawCopy()] on, and when the document was loaded by this class, its binary parts whose
+    /// content still matches the loaded archive are copied from that archive as raw compressed entries. Every other
+    /// part is marshalled and compressed again.
+    ///
+    /// @param presentationMLPackage the PowerPoint document to export
+    /// @param os the output stream to write the document to
+    /// @param options the compression of the entries that are not copied verbatim, docx4j saving the document with
+    ///                the [default][ExportOptions#defaults()] options
+    /// @throws UtilsException if there is an error exporting the document
+    public static void exportPowerPoint(
+            PresentationMLPackage presentationMLPackage,
+            OutputStream os,
+            ExportOptions options
+    ) {
+        PackageWriter.export(presentationMLPackage, os, options);
+    }
+
+    private static byte[] readAllBytes(InputStream is) {
         try {
-            presentationMLPackage.save(os);
-        } catch (Docx4JException e) {
+            return is.readAllBytes();
+        } catch (IOException e) {
             throw new UtilsException(e);
         }
     }
@@ -0,0 +1,297 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import jakarta.xml.bind.JAXBException;
+import org.docx4j.openpackaging.contenttype.ContentTypes;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.docx4j.openpackaging.parts.CustomXmlDataStoragePart;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import org.docx4j.openpackaging.parts.XmlPart;
+import org.docx4j.openpackaging.parts.relationships.RelationshipsPart;
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.utils.UtilsException;
+import pro.verron.officestamper.utils.concurrent.BoundedExecutor;
+import pro.verron.officestamper.utils.image.ImgUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/// Exports packages according to [ExportOptions], without re-encoding what stamping left untouched when asked to.
+///
+/// The archive a package was loaded from is remembered (see [#track(OpcPackage, ByteBuffer)]). When
+/// [ExportOptions#rawCopy()] is on, the binary parts whose size and CRC-32 match their source entry, and the parts
+/// deferred by [LazyParts], are copied as raw compressed data, with neither inflate nor deflate. Every other part,
+/// including an XML part left unchanged, is marshalled and encoded according to the [ExportOptions]. A stored source
+/// entry is only copied when its part is to be stored too, or holds media already compressed, so that a package loaded
+/// from an uncompressed archive, such as a prepared template snapshot, is compressed again on export.
+///
+/// Packages are saved by docx4j instead with the default options, or when they hold parts of a kind this writer does
+/// not know.
+final class PackageWriter {
+
+    private static final String CONTENT_TYPES = "[Content_Types].xml";
+    private static final Set<String> COMPRESSED_MEDIA = Set.of(ContentTypes.IMAGE_JPEG,
+            ContentTypes.IMAGE_PNG,
+            ContentTypes.IMAGE_GIF);
+    private static final Map<OpcPackage, ZipSource> sources = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private PackageWriter() {
+        throw new UtilsException("Utility class shouldn't be instantiated");
+    }
+
+    /// Remembers the archive a package was loaded from.
+    ///
+    /// @param document the loaded package.
+    /// @param archive  the bytes of the archive it was loaded from, from its first to its last byte, which must not be
+    ///                 modified afterward. A memory-mapped file is never copied to the heap.
+    static void track(OpcPackage document, ByteBuffer archive) {
+        ZipSource.of(archive)
+                 .ifPresent(source -> sources.put(document, source));
+    }
+
+    /// Forgets the archive a package was loaded from.
+    ///
+    /// @param document the package.
+    static void untrack(OpcPackage document) {
+        sources.remove(document);
+    }
+
+    /// Exports a package.
+    ///
+    /// When the options allow several threads, the parts are marshalled and encoded concurrently on the executor of
+    /// the options, or on a [shared][BoundedExecutor#shared(String)] one: the largest one on the exporting thread, with
+    /// its chunks deflated on the executor, and the others on the executor. The entries are then written in the order
+    /// of [#parts(OpcPackage)], so the archive holds the same bytes whatever the parallelism.
+    ///
+    /// @param document the package to export.
+    /// @param os       the output stream to write the package to.
+    /// @param options  the compression of the entries encoded again.
+    static void export(OpcPackage document, OutputStream os, ExportOptions options) {
+        var parts = options.customized() ? parts(document) : Optional.<List<Part>>empty();
+        if (parts.isEmpty()) {
+            LazyParts.save(document, os);
+            return;
+        }
+        var source = sources.get(document);
+        var pool = options.parallelism() > 1 ? new BoundedExecutor(executor(options), options.parallelism()) : null;
+        try {
+            var writer = new ZipWriter(os);
+            writer.write(ZipWriter.encode(CONTENT_TYPES, contentTypes(document), options.level()));
+            if (pool == null) {
+                for (var part : parts.get())
+                    writer.write(encode(document, source, part, options, null));
+            }
+            else {
+                for (var encoded : encodeConcurrently(document, source, parts.get(), options, pool))
+                    writer.write(encoded);
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new UtilsException("Failed to write the package", e);
+        }
+    }
+
+    private static List<ZipWriter.Encoded> encodeConcurrently(
+            OpcPackage document,
+            @Nullable ZipSource source,
+            List<Part> parts,
+            ExportOptions options,
+            BoundedExecutor pool
+    ) {
+        var largest = largest(source, parts);
+        var tasks = new ArrayList<@Nullable Future<ZipWriter.Encoded>>(parts.size());
+        for (var part : parts)
+            tasks.add(part == largest ? null : pool.submit(() -> encode(document, source, part, options, null)));
+        var encoded = new ArrayList<ZipWriter.Encoded>(parts.size());
+        var direct = largest == null ? null : encode(document, source, largest, options, pool);
+        for (var task : tasks)
+            encoded.add(task == null ? Objects.requireNonNull(direct) : join(task));
+        return encoded;
+    }
+
+    /// Guesses the part that takes the longest to marshal: the XML part whose entry was the largest in the source
+    /// archive.
+    ///
+    /// @return the largest part, or `null` when the package was not loaded from a known archive.
+    private static @Nullable Part largest(@Nullable ZipSource source, List<Part> parts) {
+        if (source == null) return null;
+        Part largest = null;
+        long largestSize = -1;
+        for (var part : parts) {
+            if (!(part instanceof JaxbXmlPart<?>)) continue;
+            var entry = source.entry(part.getPartName()
+                                         .getName()
+                                         .substring(1));
+            if (entry.isEmpty() || entry.get()
+                                        .size() <= largestSize) continue;
+            largest = part;
+            largestSize = entry.get()
+                               .size();
+        }
+        return largest;
+    }
+
+    private static ZipWriter.Encoded join(Future<ZipWriter.Encoded> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new UtilsException("Interrupted while exporting", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UtilsException exception) throw exception;
+            throw new UtilsException("Failed to export", e.getCause());
+        }
+    }
+
+    private static ExecutorService executor(ExportOptions options) {
+        var executor = options.executor();
+        return executor != null ? executor : BoundedExecutor.shared("officestamper-export-");
+    }
+
+    private static ZipWriter.Encoded encode(
+            OpcPackage document,
+            @Nullable ZipSource source,
+            Part part,
+            ExportOptions options,
+            @Nullable BoundedExecutor pool
+    ) {
+        var name = part.getPartName()
+                       .getName()
+                       .substring(1);
+        var compressedMedia = isCompressedMedia(part);
+        var level = options.storeMedia() && compressedMedia ? Deflater.NO_COMPRESSION : options.level();
+        var entry = source == null || !options.rawCopy()
+                ? Optional.<ZipSource.Entry>empty()
+                : source.entry(name)
+                        .filter(candidate -> candidate.method() != ZipSource.STORED
+                                             || level == Deflater.NO_COMPRESSION
+                                             || compressedMedia);
+        var deferred = LazyParts.isDeferred(document, part);
+        if (entry.isPresent() && deferred) return ZipWriter.raw(source, entry.get());
+        var content = deferred ? LazyParts.original(document, part) : content(part, options);
+        if (entry.isPresent() && part instanceof BinaryPart && matches(entry.get(), content))
+            return ZipWriter.raw(source, entry.get());
+        if (content.length < options.parallelThreshold()) return ZipWriter.encode(name, content, level);
+        return ZipWriter.encodeChunked(name, content, level, pool);
+    }
+
+    /// Tells whether a part holds media in a format that is already compressed, and gains nothing from deflate.
+    private static boolean isCompressedMedia(Part part) {
+        if (!(part instanceof BinaryPart)) return false;
+        var name = part.getPartName()
+                       .getName();
+        var extension = name.substring(name.lastIndexOf('.') + 1)
+                            .toLowerCase(Locale.ROOT);
+        return ImgUtils.supportedType("jpg".equals(extension) ? "jpeg" : extension)
+                       .filter(COMPRESSED_MEDIA::contains)
+                       .isPresent();
+    }
+
+    private static boolean matches(ZipSource.Entry entry, byte[] content) {
+        if (entry.size() != content.length) return false;
+        var crc = new CRC32();
+        crc.update(content);
+        return crc.getValue() == entry.crc();
+    }
+
+    /// Lists the parts of a package in the order docx4j would save them, following the relationships from the package
+    /// root, and the relationship parts themselves.
+    ///
+    /// @return the parts, or empty if one of them cannot be serialized by this writer.
+    private static Optional<List<Part>> parts(OpcPackage document) {
+        var parts = new LinkedHashMap<String, Part>();
+        var relationshipsPart = document.getRelationshipsPart();
+        if (relationshipsPart == null || !collect(relationshipsPart, parts)) return Optional.empty();
+        return Optional.of(List.copyOf(parts.values()));
+    }
+
+    private static boolean collect(RelationshipsPart relationshipsPart, Map<String, Part> parts) {
+        parts.put(relationshipsPart.getPartName()
+                                   .getName(), relationshipsPart);
+        for (var relationship : relationshipsPart.getRelationships()
+                                                 .getRelationship()) {
+            if ("External".equals(relationship.getTargetMode())) continue;
+            var part = relationshipsPart.getPart(relationship);
+            if (part == null || parts.containsKey(part.getPartName()
+                                                      .getName())) continue;
+            if (!isSupported(part)) return false;
+            parts.put(part.getPartName()
+                          .getName(), part);
+            var nested = part.getRelationshipsPart();
+            if (nested != null && !collect(nested, parts)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSupported(Part part) {
+        return part instanceof BinaryPart
+               || part instanceof JaxbXmlPart<?>
+               || part instanceof XmlPart
+               || part instanceof CustomXmlDataStoragePart;
+    }
+
+    private static byte[] contentTypes(OpcPackage document) {
+        var buffer = new ByteArrayOutputStream();
+        try {
+            document.getContentTypeManager()
+                    .marshal(buffer);
+        } catch (Docx4JException e) {
+            throw new UtilsException("Failed to marshal " + CONTENT_TYPES, e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /// Serializes the current content of a part.
+    ///
+    /// @param part    the part, of a kind accepted by [#isSupported(Part)].
+    /// @param options the options telling how to serialize the main document.
+    /// @return the bytes of the part.
+    static byte[] content(Part part, ExportOptions options) {
+        if (options.staxDocument() && part instanceof MainDocumentPart mainDocumentPart) {
+            var document = mainDocumentPart.getJaxbElement();
+            if (DocumentWriter.supports(document)) {
+                var buffer = new ByteArrayOutputStream();
+                DocumentWriter.write(document, buffer);
+                return buffer.toByteArray();
+            }
+        }
+        try {
+            switch (part) {
+                case BinaryPart binaryPart -> {
+                    return binaryPart.getBytes();
+                }
+                case JaxbXmlPart<?> jaxbXmlPart -> {
+                    var buffer = new ByteArrayOutputStream();
+                    jaxbXmlPart.marshal(buffer);
+                    return buffer.toByteArray();
+                }
+                case XmlPart xmlPart -> {
+                    return xmlPart.getXML()
+                                  .getBytes(StandardCharsets.UTF_8);
+                }
+                case CustomXmlDataStoragePart customXmlPart -> {
+                    var buffer = new ByteArrayOutputStream();
+                    customXmlPart.getData()
+                                 .writeDocument(buffer);
+                    return buffer.toByteArray();
+                }
+                default -> throw new UtilsException("Unsupported part: " + part.getPartName());
+            }
+        } catch (Docx4JException | JAXBException e) {
+            throw new UtilsException("Failed to serialize " + part.getPartName(), e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import jakarta.xml.bind.JAXBException;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.utils.UtilsException;
+import pro.verron.officestamper.utils.concurrent.BoundedExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/// Loads Word documents unmarshalling their large parts concurrently.
+///
+/// docx4j unmarshals the parts of a package one after the other, on the loading thread. Before handing the package to
+/// docx4j, the parts listed in [#PARALLEL_TYPES] are replaced by a stub of their root element, as [LazyParts] does,
+/// so docx4j only creates them. Their original content is then unmarshalled on an executor, one task per part with at
+/// most `parallelism` of them at once, and each part is handed to an optional hook in the same task, right after being
+/// unmarshalled.
+final class ParallelParts {
+
+    /// The content types of the parts unmarshalled concurrently: the parts holding the document content, which are
+    /// the largest ones, and the parts describing its styles and numbering.
+    private static final Set<String> PARALLEL_TYPES = Set.of(
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.template.main+xml",
+            "application/vnd.ms-word.document.macroEnabled.main+xml",
+            "application/vnd.ms-word.template.macroEnabledTemplate.main+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.header+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.footer+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.footnotes+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.endnotes+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.comments+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.numbering+xml");
+
+    private ParallelParts() {
+        throw new UtilsException("Utility class shouldn't be instantiated");
+    }
+
+    /// Loads a Word document, unmarshalling its large parts concurrently.
+    ///
+    /// @param archive     the bytes of the Word document, from its first to its last byte.
+    /// @param markers     the byte sequences revealing that a part may need to be stamped, the other parts being
+    ///                    deferred like [LazyParts#load(ByteBuffer, Collection)] does, or `null` to defer no part.
+    /// @param parallelism the maximum number of parts unmarshalled at the same time.
+    /// @param executor    the executor unmarshalling the parts, owned by the caller, or `null` to use the executor
+    ///                    shared by the library.
+    /// @param hook        the action applied to each part unmarshalled concurrently, in the task unmarshalling it.
+    /// @return the loaded document.
+    static WordprocessingMLPackage load(
+            ByteBuffer archive,
+            @Nullable Collection<String> markers,
+            int parallelism,
+            @Nullable ExecutorService executor,
+            Consumer<? super JaxbXmlPart<?>> hook
+    ) {
+        if (parallelism < 1) throw new UtilsException("Load parallelism must be positive");
+        var rewritten = LazyParts.rewrite(archive, markers, PARALLEL_TYPES);
+        try {
+            var document = WordprocessingMLPackage.load(new ByteArrayInputStream(rewritten.archive()));
+            var shared = executor != null ? executor : BoundedExecutor.shared("officestamper-unmarshal-");
+            var pool = new BoundedExecutor(shared, parallelism);
+            unmarshal(document, rewritten.stubbed(), pool, hook);
+            LazyParts.register(document, rewritten.deferred());
+            PackageWriter.track(document, archive);
+            return document;
+        } catch (Docx4JException e) {
+            throw new UtilsException(e);
+        }
+    }
+
+    private static void unmarshal(
+            WordprocessingMLPackage document,
+            Map<String, byte[]> pending,
+            BoundedExecutor pool,
+            Consumer<? super JaxbXmlPart<?>> hook
+    ) {
+        var parts = new ArrayList<JaxbXmlPart<?>>();
+        for (var part : document.getParts()
+                                .getParts()
+                                .values()) {
+            var name = part.getPartName()
+                           .getName()
+                           .substring(1);
+            if (!pending.containsKey(name)) continue;
+            if (!(part instanceof JaxbXmlPart<?> jaxbPart))
+                throw new UtilsException("Unexpected part kind for " + part.getPartName());
+            parts.add(jaxbPart);
+        }
+        if (parts.isEmpty()) return;
+        var tasks = new ArrayList<Future<?>>(parts.size());
+        for (var part : parts)
+            tasks.add(pool.submit(() -> {
+                unmarshal(part, pending.get(part.getPartName()
+                                                .getName()
+                                                .substring(1)));
+                hook.accept(part);
+            }));
+        UtilsException failure = null;
+        for (int i = 0; i < tasks.size(); i++) {
+            var exception = join(tasks.get(i), parts.get(i));
+            if (exception != null && failure == null) failure = exception;
+            else if (exception != null) failure.addSuppressed(exception);
+        }
+        if (failure != null) throw failure;
+    }
+
+    private static <E> void unmarshal(JaxbXmlPart<E> part, byte[] bytes) {
+        try {
+            part.setJaxbElement(part.unmarshal(new ByteArrayInputStream(bytes)));
+        } catch (JAXBException e) {
+            throw new UtilsException("Failed to unmarshal " + part.getPartName(), e);
+        }
+    }
+
+    private static @Nullable UtilsException join(Future<?> task, Part part) {
+        try {
+            task.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            return new UtilsException("Interrupted while loading " + part.getPartName(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UtilsException exception) return exception;
+            return new UtilsException("Failed to load " + part.getPartName(), e.getCause());
+        }
+    }
+}
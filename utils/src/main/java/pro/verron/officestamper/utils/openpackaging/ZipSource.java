@@ -0,0 +1,172 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import pro.verron.officestamper.utils.UtilsException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/// A read-only view over the bytes of a zip archive, giving access to each entry both inflated and as its raw
+/// compressed data.
+///
+/// Only the central directory is parsed eagerly; the entries themselves are sliced out of the buffer on demand, so the
+/// archive is never copied. Zip64 and encrypted archives are not supported.
+final class ZipSource {
+
+    static final int STORED = 0;
+    static final int DEFLATED = 8;
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+    private static final int LOCAL_FILE_HEADER = 0x04034b50;
+    private static final int END_RECORD_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private final ByteBuffer buffer;
+    private final SequencedMap<String, Entry> entries;
+
+    private ZipSource(ByteBuffer buffer, SequencedMap<String, Entry> entries) {
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    /// Parses the central directory of the archive held by the given buffer.
+    ///
+    /// @param buffer the bytes of the archive, from its first to its last byte.
+    /// @return the source, or empty when the archive uses a feature this reader does not support.
+    static Optional<ZipSource> of(ByteBuffer buffer) {
+        var bytes = buffer.slice()
+                          .order(ByteOrder.LITTLE_ENDIAN);
+        var end = findEndRecord(bytes);
+        if (end < 0) return Optional.empty();
+        var count = Short.toUnsignedInt(bytes.getShort(end + 10));
+        var offset = Integer.toUnsignedLong(bytes.getInt(end + 16));
+        if (count == 0xFFFF || offset == 0xFFFFFFFFL || offset >= bytes.limit()) return Optional.empty();
+        var entries = new LinkedHashMap<String, Entry>();
+        var position = (int) offset;
+        for (int i = 0; i < count; i++) {
+            if (position + 46 > bytes.limit() || bytes.getInt(position) != CENTRAL_DIRECTORY_HEADER)
+                return Optional.empty();
+            var flags = Short.toUnsignedInt(bytes.getShort(position + 8));
+            var method = Short.toUnsignedInt(bytes.getShort(position + 10));
+            var time = Short.toUnsignedInt(bytes.getShort(position + 12));
+            var date = Short.toUnsignedInt(bytes.getShort(position + 14));
+            var crc = Integer.toUnsignedLong(bytes.getInt(position + 16));
+            var compressedSize = Integer.toUnsignedLong(bytes.getInt(position + 20));
+            var size = Integer.toUnsignedLong(bytes.getInt(position + 24));
+            var nameLength = Short.toUnsignedInt(bytes.getShort(position + 28));
+            var extraLength = Short.toUnsignedInt(bytes.getShort(position + 30));
+            var commentLength = Short.toUnsignedInt(bytes.getShort(position + 32));
+            var localOffset = Integer.toUnsignedLong(bytes.getInt(position + 42));
+            var encrypted = (flags & 1) != 0;
+            var zip64 = compressedSize > Integer.MAX_VALUE
+                        || size > Integer.MAX_VALUE
+                        || localOffset > Integer.MAX_VALUE;
+            if (encrypted || zip64 || method != STORED && method != DEFLATED) return Optional.empty();
+            var name = new byte[nameLength];
+            bytes.get(position + 46, name);
+            var entry = new Entry(new String(name, StandardCharsets.UTF_8),
+                    method,
+                    time,
+                    date,
+                    crc,
+                    (int) compressedSize,
+                    (int) size,
+                    (int) localOffset);
+            if (!entry.name()
+                      .endsWith("/")) entries.put(entry.name(), entry);
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+        return Optional.of(new ZipSource(bytes, entries));
+    }
+
+    private static int findEndRecord(ByteBuffer bytes) {
+        var last = bytes.limit() - END_RECORD_SIZE;
+        var first = Math.max(0, last - MAX_COMMENT_SIZE);
+        for (int position = last; position >= first; position--)
+            if (bytes.getInt(position) == END_OF_CENTRAL_DIRECTORY) return position;
+        return -1;
+    }
+
+    /// Returns the entries of the archive, in the order of its central directory.
+    ///
+    /// @return the entries.
+    Collection<Entry> entries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /// Finds an entry by name.
+    ///
+    /// @param name the name of the entry, without leading slash.
+    /// @return the entry, if the archive holds one with this name.
+    Optional<Entry> entry(String name) {
+        return Optional.ofNullable(entries.get(name));
+    }
+
+    /// Returns the raw data of an entry, as stored in the archive.
+    ///
+    /// @param entry the entry.
+    /// @return a read-only slice of the archive holding the compressed data of the entry.
+    ByteBuffer raw(Entry entry) {
+        var header = entry.localOffset();
+        if (buffer.getInt(header) != LOCAL_FILE_HEADER)
+            throw new UtilsException("Corrupted zip entry: " + entry.name());
+        var nameLength = Short.toUnsignedInt(buffer.getShort(header + 26));
+        var extraLength = Short.toUnsignedInt(buffer.getShort(header + 28));
+        return buffer.slice(header + 30 + nameLength + extraLength, entry.compressedSize())
+                     .asReadOnlyBuffer();
+    }
+
+    /// Returns the uncompressed content of an entry.
+    ///
+    /// @param entry the entry.
+    /// @return the inflated bytes of the entry.
+    byte[] read(Entry entry) {
+        var raw = raw(entry);
+        var content = new byte[entry.size()];
+        if (entry.method() == STORED) {
+            raw.get(content);
+            return content;
+        }
+        var inflater = new Inflater(true);
+        try {
+            inflater.setInput(raw);
+            var count = 0;
+            while (count < content.length) {
+                var inflated = inflater.inflate(content, count, content.length - count);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) break;
+                count += inflated;
+            }
+            if (count != content.length) throw new UtilsException("Truncated zip entry: " + entry.name());
+            return content;
+        } catch (DataFormatException e) {
+            throw new UtilsException("Corrupted zip entry: " + entry.name(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /// An entry of the archive, as described by its central directory.
+    ///
+    /// @param name           the name of the entry.
+    /// @param method         the compression method, [#STORED] or [#DEFLATED].
+    /// @param time           the DOS last modification time.
+    /// @param date           the DOS last modification date.
+    /// @param crc            the CRC-32 of the uncompressed content.
+    /// @param compressedSize the size of the compressed data.
+    /// @param size           the size of the uncompressed content.
+    /// @param localOffset    the offset of the local file header.
+    record Entry(
+            String name,
+            int method,
+            int time,
+            int date,
+            long crc,
+            int compressedSize,
+            int size,
+            int localOffset
+    ) {}
+}
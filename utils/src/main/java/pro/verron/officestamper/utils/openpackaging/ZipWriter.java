@@ -0,0 +1,283 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import org.jspecify.annotations.Nullable;
+import pro.verron.officestamper.utils.UtilsException;
+import pro.verron.officestamper.utils.concurrent.BoundedExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/// Writes a zip archive entry by entry, each entry being either encoded from its content or copied from another
+/// archive as raw compressed data.
+///
+/// Entries are written in the order they are given, and their sizes are always known upfront, so the archive never
+/// needs data descriptors. An entry fits in a buffer, so its sizes always fit the local header; the archive switches to
+/// ZIP64 records for the offsets and the entry count beyond the limits of the classic end of central directory.
+final class ZipWriter {
+
+    /// The DOS date of 1980-01-01, given to the encoded entries so that stamping the same context twice produces the
+    /// same bytes.
+    private static final int DOS_EPOCH_DATE = 0x21;
+    private static final int UTF8_FLAG = 1 << 11;
+    private static final int VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP64_COUNT_LIMIT = 0xFFFF;
+    private static final int CHUNK_SIZE = 128 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final OutputStream os;
+    private final List<CentralRecord> records = new ArrayList<>();
+    private long offset;
+
+    /// Creates a writer of an archive to the given stream.
+    ///
+    /// @param os the stream receiving the archive, left open by [#finish()].
+    ZipWriter(OutputStream os) {
+        this.os = os;
+    }
+
+    /// Encodes the content of an entry as a single deflate stream, on the calling thread.
+    ///
+    /// @param name    the name of the entry.
+    /// @param content the uncompressed content.
+    /// @param level   the deflate level, [Deflater#NO_COMPRESSION] storing the content as is.
+    /// @return the encoded entry.
+    static Encoded encode(String name, byte[] content, int level) {
+        if (level == Deflater.NO_COMPRESSION)
+            return new Encoded(name, ZipSource.STORED, 0, DOS_EPOCH_DATE, crc(content), content.length,
+                    ByteBuffer.wrap(content));
+        var compressed = deflate(content, 0, content.length, level, true);
+        return new Encoded(name, ZipSource.DEFLATED, 0, DOS_EPOCH_DATE, crc(content), content.length,
+                ByteBuffer.wrap(compressed));
+    }
+
+    /// Encodes the content of an entry in chunks, deflated in parallel when a pool is given.
+    ///
+    /// Each chunk is deflated independently, primed with the end of the previous chunk as dictionary, and ended by a
+    /// sync flush so that the chunks concatenate into a single valid deflate stream. The encoded bytes only depend on
+    /// the content and the level, whether the chunks are deflated on a pool or on the calling thread.
+    ///
+    /// @param name    the name of the entry.
+    /// @param content the uncompressed content.
+    /// @param level   the deflate level, [Deflater#NO_COMPRESSION] storing the content as is.
+    /// @param pool    the pool deflating the chunks, or `null` to deflate them on the calling thread.
+    /// @return the encoded entry.
+    static Encoded encodeChunked(String name, byte[] content, int level, @Nullable BoundedExecutor pool) {
+        if (level == Deflater.NO_COMPRESSION || content.length <= CHUNK_SIZE) return encode(name, content, level);
+        var chunks = new ArrayList<Future<byte[]>>();
+        var compressed = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        for (int start = 0; start < content.length; start += CHUNK_SIZE) {
+            var from = start;
+            var to = Math.min(content.length, start + CHUNK_SIZE);
+            if (pool == null) compressed.writeBytes(deflate(content, from, to, level, to == content.length));
+            else chunks.add(pool.submit(() -> deflate(content, from, to, level, to == content.length)));
+        }
+        var crc = crc(content);
+        for (var chunk : chunks)
+            compressed.writeBytes(join(chunk));
+        return new Encoded(name, ZipSource.DEFLATED, 0, DOS_EPOCH_DATE, crc, content.length,
+                ByteBuffer.wrap(compressed.toByteArray()));
+    }
+
+    private static long crc(byte[] content) {
+        var crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    private static byte[] deflate(byte[] content, int from, int to, int level, boolean last) {
+        var deflater = new Deflater(level, true);
+        try {
+            if (from > 0) {
+                var dictionary = Math.max(0, from - DICTIONARY_SIZE);
+                deflater.setDictionary(content, dictionary, from - dictionary);
+            }
+            deflater.setInput(content, from, to - from);
+            var output = new ByteArrayOutputStream(Math.max(64, (to - from) / 4));
+            var buffer = new byte[8192];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished())
+                    output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    output.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] join(Future<byte[]> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new UtilsException("Interrupted while deflating", e);
+        } catch (ExecutionException e) {
+            throw new UtilsException("Failed to deflate", e.getCause());
+        }
+    }
+
+    /// Describes an entry of a source archive, to be copied without being inflated.
+    ///
+    /// @param source the archive holding the entry.
+    /// @param entry  the entry to copy.
+    /// @return the encoded entry, sharing the bytes of the source archive.
+    static Encoded raw(ZipSource source, ZipSource.Entry entry) {
+        return new Encoded(entry.name(), entry.method(), entry.time(), entry.date(), entry.crc(), entry.size(),
+                source.raw(entry));
+    }
+
+    /// Appends an entry to the archive.
+    ///
+    /// @param encoded the entry to append.
+    /// @throws IOException if the stream fails.
+    void write(Encoded encoded)
+            throws IOException {
+        var name = encoded.name()
+                          .getBytes(StandardCharsets.UTF_8);
+        var data = encoded.data()
+                          .duplicate();
+        var compressedSize = data.remaining();
+        var header = ByteBuffer.allocate(30 + name.length)
+                               .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0x04034b50)
+              .putShort((short) VERSION)
+              .putShort((short) UTF8_FLAG)
+              .putShort((short) encoded.method())
+              .putShort((short) encoded.time())
+              .putShort((short) encoded.date())
+              .putInt((int) encoded.crc())
+              .putInt(compressedSize)
+              .putInt(encoded.size())
+              .putShort((short) name.length)
+              .putShort((short) 0)
+              .put(name);
+        os.write(header.array());
+        writeFully(data);
+        records.add(new CentralRecord(encoded, name, compressedSize, offset));
+        offset += header.capacity() + compressedSize;
+    }
+
+    /// Writes the central directory, completing the archive.
+    ///
+    /// @throws IOException if the stream fails.
+    void finish()
+            throws IOException {
+        var start = offset;
+        for (var entry : records) {
+            var encoded = entry.encoded();
+            var zip64 = entry.offset() >= ZIP64_LIMIT;
+            var version = zip64 ? ZIP64_VERSION : VERSION;
+            var directory = ByteBuffer.allocate(46 + entry.name().length + (zip64 ? 12 : 0))
+                                      .order(ByteOrder.LITTLE_ENDIAN);
+            directory.putInt(0x02014b50)
+                     .putShort((short) version)
+                     .putShort((short) version)
+                     .putShort((short) UTF8_FLAG)
+                     .putShort((short) encoded.method())
+                     .putShort((short) encoded.time())
+                     .putShort((short) encoded.date())
+                     .putInt((int) encoded.crc())
+                     .putInt(entry.compressedSize())
+                     .putInt(encoded.size())
+                     .putShort((short) entry.name().length)
+                     .putShort((short) (zip64 ? 12 : 0))
+                     .putShort((short) 0)
+                     .putShort((short) 0)
+                     .putShort((short) 0)
+                     .putInt(0)
+                     .putInt((int) Math.min(entry.offset(), ZIP64_LIMIT))
+                     .put(entry.name());
+            if (zip64) directory.putShort((short) 0x0001)
+                                .putShort((short) 8)
+                                .putLong(entry.offset());
+            os.write(directory.array());
+            offset += directory.capacity();
+        }
+        var size = offset - start;
+        var count = records.size();
+        if (count >= ZIP64_COUNT_LIMIT || size >= ZIP64_LIMIT || start >= ZIP64_LIMIT) writeZip64End(start, size);
+        var end = ByteBuffer.allocate(22)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+        end.putInt(0x06054b50)
+           .putShort((short) 0)
+           .putShort((short) 0)
+           .putShort((short) Math.min(count, ZIP64_COUNT_LIMIT))
+           .putShort((short) Math.min(count, ZIP64_COUNT_LIMIT))
+           .putInt((int) Math.min(size, ZIP64_LIMIT))
+           .putInt((int) Math.min(start, ZIP64_LIMIT))
+           .putShort((short) 0);
+        os.write(end.array());
+        os.flush();
+    }
+
+    /// Writes the ZIP64 end of central directory record and its locator, holding the entry count, size and offset of
+    /// the central directory that overflow the classic end of central directory.
+    private void writeZip64End(long start, long size)
+            throws IOException {
+        var end = ByteBuffer.allocate(56 + 20)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+        end.putInt(0x06064b50)
+           .putLong(44)
+           .putShort((short) ZIP64_VERSION)
+           .putShort((short) ZIP64_VERSION)
+           .putInt(0)
+           .putInt(0)
+           .putLong(records.size())
+           .putLong(records.size())
+           .putLong(size)
+           .putLong(start);
+        end.putInt(0x07064b50)
+           .putInt(0)
+           .putLong(offset)
+           .putInt(1);
+        os.write(end.array());
+        offset += end.capacity();
+    }
+
+    private void writeFully(ByteBuffer data)
+            throws IOException {
+        if (data.hasArray()) {
+            os.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            return;
+        }
+        var chunk = new byte[Math.min(8192, data.remaining())];
+        while (data.hasRemaining()) {
+            var count = Math.min(chunk.length, data.remaining());
+            data.get(chunk, 0, count);
+            os.write(chunk, 0, count);
+        }
+    }
+
+    /// An entry ready to be written: its metadata and its data, compressed with the given method.
+    ///
+    /// @param name   the name of the entry.
+    /// @param method the compression method of the data.
+    /// @param time   the DOS last modification time.
+    /// @param date   the DOS last modification date.
+    /// @param crc    the CRC-32 of the uncompressed content.
+    /// @param size   the size of the uncompressed content.
+    /// @param data   the compressed data.
+    record Encoded(String name, int method, int time, int date, long crc, int size, ByteBuffer data) {}
+
+    private record CentralRecord(Encoded encoded, byte[] name, int compressedSize, long offset) {}
+}
@@ -10,7 +10,13 @@ import org.docx4j.model.styles.StyleUtil;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
 import org.docx4j.openpackaging.parts.WordprocessingML.CommentsPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.EndnotesPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.FooterPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.FootnotesPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.HeaderPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
 import org.docx4j.utils.TraversalUtilVisitor;
 import org.docx4j.vml.CTShadow;
 import org.docx4j.vml.CTTextbox;
@@ -547,6 +553,54 @@ public final class WmlUtils {
         WmlUtils.visitPartIfExists(visitor, mainDocumentPart.getEndNotesPart());
     }
 
+    /// Streams the parts visited by
+    /// [#visitDocument(WordprocessingMLPackage, TraversalUtilVisitor)], in the
+    /// same order: the main document, the headers and footers of each section,
+    /// the footnotes and the endnotes.
+    ///
+    /// @param document the WordprocessingMLPackage representing the document
+    /// @return the parts holding the document content
+    public static Stream<JaxbXmlPart<?>> streamDocumentContentParts(WordprocessingMLPackage document) {
+        var mainDocumentPart = document.getMainDocumentPart();
+        Stream.Builder<JaxbXmlPart<?>> notes = Stream.builder();
+        ofNullable(mainDocumentPart.getFootnotesPart()).ifPresent(notes::add);
+        ofNullable(mainDocumentPart.getEndNotesPart()).ifPresent(notes::add);
+        return Stream.of(Stream.<JaxbXmlPart<?>>of(mainDocumentPart),
+                        document.getDocumentModel()
+                                .getSections()
+                                .stream()
+                                .map(SectionWrapper::getHeaderFooterPolicy)
+                                .flatMap(WmlUtils::extractHeaderFooterParts),
+                        notes.build())
+                     .flatMap(stream -> stream);
+    }
+
+    /// Visits a single part of the document using the specified visitor,
+    /// the same way [#visitDocument(WordprocessingMLPackage, TraversalUtilVisitor)]
+    /// visits it.
+    ///
+    /// @param part    the part to be visited, usually one for which
+    /// [#isDocumentContentPart(Part)] holds
+    /// @param visitor the TraversalUtilVisitor to be applied to the part
+    public static void visitPart(JaxbXmlPart<?> part, TraversalUtilVisitor<?> visitor) {
+        if (part instanceof ContentAccessor) TraversalUtil.visit(part, visitor);
+        else TraversalUtil.visit(extractContent(part), visitor);
+    }
+
+    /// Tells whether a part is of a kind visited by
+    /// [#visitDocument(WordprocessingMLPackage, TraversalUtilVisitor)]: the
+    /// main document, a header, a footer, the footnotes or the endnotes.
+    ///
+    /// @param part the part to check
+    /// @return true if the part holds document content
+    public static boolean isDocumentContentPart(Part part) {
+        return part instanceof MainDocumentPart
+               || part instanceof HeaderPart
+               || part instanceof FooterPart
+               || part instanceof FootnotesPart
+               || part instanceof EndnotesPart;
+    }
+
     private static Stream<Object> streamHeaderFooterPart(WordprocessingMLPackage document) {
         return document.getDocumentModel()
                 .getSections()
@@ -0,0 +1,174 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import org.docx4j.XmlUtils;
+import org.docx4j.wml.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.utils.wml.WmlFactory.*;
+
+/// Golden tests of the [DocumentWriter] class: each main document is serialized both by JAXB and by the StAX writer,
+/// and both serializations must unmarshal to the same content.
+public class DocumentWriterTest {
+
+    private static final String W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final Path RESOURCES = Path.of("..", "src", "test", "resources");
+
+    /// Default constructor.
+    public DocumentWriterTest() {
+    }
+
+    private static Document document(Body body) {
+        var document = new Document();
+        document.setBody(body);
+        body.setParent(document);
+        return document;
+    }
+
+    private static <T> JAXBElement<T> element(String name, Class<T> type, T value) {
+        return new JAXBElement<>(new QName(W, name), type, value);
+    }
+
+    private static void assertEquivalent(Document document)
+            throws JAXBException {
+        var expected = XmlUtils.marshaltoString(document, true, true);
+        var buffer = new ByteArrayOutputStream();
+        DocumentWriter.write(document, buffer);
+        var written = buffer.toString(StandardCharsets.UTF_8);
+        var parsed = XmlUtils.unwrap(XmlUtils.unmarshalString(written));
+        assertEquals(expected, XmlUtils.marshaltoString(parsed, true, true), written);
+    }
+
+    /// The main documents of the templates must survive the StAX writer unchanged.
+    ///
+    /// @param template the name of a template of the test resources.
+    /// @throws IOException if the template cannot be read.
+    /// @throws JAXBException if the written document cannot be unmarshalled.
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "MultiStampTest.docx",
+            "ExpressionReplacementInTablesTest.docx",
+            "ExpressionReplacementWithFormattingTest.docx",
+            "ExpressionReplacementWithCommentsTest.docx",
+            "ExpressionReplacementInTextBoxesTest.Modern.docx",
+            "ProcessorRepeatDocPart_ImageSubTemplate.docx",
+            "ProcessorDisplayIf_Tables.docx",
+            "ProcessorRepeatTableRow_KeepsFormatTest.docx",
+            "StampTableTest.docx",
+            "form-controls.docx",
+            "word-base.docx"
+    })
+    @DisplayName("Templates are written like JAXB writes them")
+    void templates(String template)
+            throws IOException, JAXBException {
+        try (var is = Files.newInputStream(RESOURCES.resolve(template))) {
+            var document = OpenpackagingUtils.loadWord(is)
+                                             .getMainDocumentPart()
+                                             .getJaxbElement();
+            assertTrue(DocumentWriter.supports(document));
+            assertEquivalent(document);
+        }
+    }
+
+    /// Texts keep their whitespace and escaped characters.
+    ///
+    /// @throws JAXBException if the written document cannot be unmarshalled.
+    @Test
+    @DisplayName("Texts are escaped and keep their whitespace")
+    void texts()
+            throws JAXBException {
+        var deleted = newText("removed ");
+        var run = newRun(List.of(newText("  leading and trailing  "),
+                element("delText", Text.class, deleted),
+                element("t", Text.class, newText("a < b && c > \"d\" 'e'"))));
+        var properties = new RPr();
+        properties.setB(new BooleanDefaultTrue());
+        run.setRPr(properties);
+        run.setRsidR("00A1B2C3");
+        var paragraph = newParagraph(run);
+        paragraph.setPPr(newPPr());
+        paragraph.setRsidR("00A1B2C3");
+        paragraph.setParaId("1A2B3C4D");
+        assertEquivalent(document(newBody(List.of(paragraph, newParagraph("second")))));
+    }
+
+    /// Tables, nested or not, are written with their rows and cells, wrapped or not.
+    ///
+    /// @throws JAXBException if the written document cannot be unmarshalled.
+    @Test
+    @DisplayName("Tables are written with their rows and cells")
+    void tables()
+            throws JAXBException {
+        var nested = newTbl();
+        var nestedRow = newRow();
+        var nestedCell = newCell();
+        nestedCell.getContent()
+                  .add(newParagraph("nested"));
+        nestedRow.getContent()
+                 .add(element("tc", Tc.class, nestedCell));
+        nested.getContent()
+              .add(nestedRow);
+
+        var cell = newCell();
+        cell.setTcPr(new TcPr());
+        cell.getContent()
+            .addAll(List.of(newParagraph("cell"), nested, newParagraph("")));
+        var row = newRow();
+        row.setTrPr(new TrPr());
+        row.setRsidTr("00112233");
+        row.getContent()
+           .addAll(List.of(element("tc", Tc.class, cell), newCell()));
+        var table = newTbl();
+        table.setTblPr(new TblPr());
+        table.setTblGrid(new TblGrid());
+        table.getContent()
+             .add(row);
+        assertEquivalent(document(newBody(List.of(element("tbl", Tbl.class, table), newParagraph("after")))));
+    }
+
+    /// Smart tags are written, and the elements the writer does not know are handed to JAXB.
+    ///
+    /// @throws JAXBException if the written document cannot be unmarshalled.
+    @Test
+    @DisplayName("Smart tags and unknown elements are written")
+    void smartTagsAndDelegatedElements()
+            throws JAXBException {
+        var id = BigInteger.ONE;
+        var paragraph = newParagraph(List.of());
+        var smartTag = newSmartTag("officestamper", newCtAttr("type", "placeholder"), newRun("${name}"));
+        paragraph.getContent()
+                 .addAll(List.of(newCommentRangeStart(id, paragraph),
+                         smartTag,
+                         element("smartTag", CTSmartTagRun.class, newSmartTag("other", newCtAttr("a", "b"))),
+                         newRun(List.of(newBr())),
+                         newCommentRangeEnd(id, paragraph)));
+        var body = newBody(List.of(paragraph));
+        body.setSectPr(new SectPr());
+        var document = document(body);
+        document.setIgnorable("w14 wp14");
+        assertEquivalent(document);
+    }
+
+    /// Documents whose `mc:Ignorable` attribute lists an unknown prefix are left to JAXB.
+    @Test
+    @DisplayName("Unknown ignorable prefixes are not supported")
+    void unknownIgnorablePrefix() {
+        var document = document(newBody(List.of(newParagraph("text"))));
+        document.setIgnorable("w14 unknown");
+        assertFalse(DocumentWriter.supports(document));
+    }
+}
@@ -0,0 +1,84 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests the [LazyParts] class, which rewrites packages before docx4j loads them.
+public class LazyPartsTest {
+
+    private static final Path TEMPLATE = Path.of("..", "src", "test", "resources")
+                                             .resolve("ProcessorRepeatDocPart_ImageSubTemplate.docx");
+    private static final String DOCUMENT = "word/document.xml";
+    private static final String THEME = "word/theme/theme1.xml";
+    private static final String MEDIA = "word/media/image1.png";
+    private static final String DOCUMENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml";
+
+    /// Default constructor.
+    public LazyPartsTest() {
+    }
+
+    private static ZipSource source(byte[] archive) {
+        return ZipSource.of(ByteBuffer.wrap(archive))
+                        .orElseThrow();
+    }
+
+    private static ZipSource.Entry entry(ZipSource source, String name) {
+        return source.entry(name)
+                     .orElseThrow();
+    }
+
+    /// Only the deferred parts are replaced by their stub; the other entries keep their compressed bytes.
+    @Test
+    @DisplayName("Entries that are not deferred are copied as raw compressed entries")
+    void untouchedEntriesAreCopied()
+            throws IOException {
+        var template = Files.readAllBytes(TEMPLATE);
+        var rewritten = LazyParts.rewrite(ByteBuffer.wrap(template), List.of("${"), Set.of());
+
+        var source = source(template);
+        var output = source(rewritten.archive());
+        for (var name : List.of(DOCUMENT, MEDIA)) {
+            var sourceEntry = entry(source, name);
+            var outputEntry = entry(output, name);
+            assertEquals(sourceEntry.method(), outputEntry.method(), name);
+            assertEquals(source.raw(sourceEntry), output.raw(outputEntry), name);
+        }
+        var theme = entry(output, THEME);
+        assertEquals(ZipSource.STORED, theme.method());
+        assertTrue(theme.size() < entry(source, THEME).size());
+        assertArrayEquals(source.read(entry(source, THEME)), rewritten.deferred()
+                                                                      .get(THEME));
+        assertTrue(rewritten.stubbed()
+                            .isEmpty());
+    }
+
+    /// The entries of the given content types are replaced by their stub whatever their content, and never deferred.
+    @Test
+    @DisplayName("Entries of the given content types are stubbed")
+    void typedEntriesAreStubbed()
+            throws IOException {
+        var template = Files.readAllBytes(TEMPLATE);
+        var rewritten = LazyParts.rewrite(ByteBuffer.wrap(template), null, Set.of(DOCUMENT_TYPE));
+
+        var source = source(template);
+        var output = source(rewritten.archive());
+        assertEquals(Set.of(DOCUMENT),
+                rewritten.stubbed()
+                         .keySet());
+        assertArrayEquals(source.read(entry(source, DOCUMENT)), rewritten.stubbed()
+                                                                         .get(DOCUMENT));
+        assertTrue(rewritten.deferred()
+                            .isEmpty());
+        assertEquals(source.raw(entry(source, THEME)), output.raw(entry(output, THEME)));
+    }
+}
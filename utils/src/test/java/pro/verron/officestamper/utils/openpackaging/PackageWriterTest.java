@@ -0,0 +1,153 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import org.docx4j.openpackaging.exceptions.InvalidFormatException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPart;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests the [PackageWriter] class, which exports the packages loaded by [OpenpackagingUtils].
+public class PackageWriterTest {
+
+    private static final Path TEMPLATE = Path.of("..", "src", "test", "resources")
+                                             .resolve("ProcessorRepeatDocPart_ImageSubTemplate.docx");
+    private static final String MEDIA = "word/media/image1.png";
+    private static final String DOCUMENT = "word/document.xml";
+    private static final ExportOptions RAW_COPY = ExportOptions.defaults()
+                                                               .withRawCopy(true);
+
+    /// Default constructor.
+    public PackageWriterTest() {
+    }
+
+    private static ZipSource source(byte[] archive) {
+        return ZipSource.of(ByteBuffer.wrap(archive))
+                        .orElseThrow();
+    }
+
+    private static ZipSource.Entry entry(ZipSource source, String name) {
+        return source.entry(name)
+                     .orElseThrow();
+    }
+
+    /// Rewrites every entry of an archive deflated, the way most editors save their documents.
+    private static byte[] deflated(byte[] archive)
+            throws IOException {
+        var source = source(archive);
+        var output = new ByteArrayOutputStream();
+        var writer = new ZipWriter(output);
+        for (var entry : source.entries())
+            writer.write(ZipWriter.encode(entry.name(), source.read(entry), Deflater.DEFAULT_COMPRESSION));
+        writer.finish();
+        return output.toByteArray();
+    }
+
+    /// Loads the archive, changes its main document, and exports it again with the given options.
+    private static byte[] stamp(byte[] archive, ExportOptions options) {
+        var document = OpenpackagingUtils.loadWord(ByteBuffer.wrap(archive));
+        document.getMainDocumentPart()
+                .addParagraphOfText("Stamped");
+        var output = new ByteArrayOutputStream();
+        OpenpackagingUtils.exportWord(document, output, options);
+        return output.toByteArray();
+    }
+
+    /// A media entry left untouched keeps its compressed bytes, while the changed main document is encoded again.
+    @Test
+    @DisplayName("Untouched media are copied as raw compressed entries")
+    void untouchedMediaAreCopied()
+            throws IOException {
+        var template = deflated(Files.readAllBytes(TEMPLATE));
+        var stamped = stamp(template, RAW_COPY);
+
+        var source = source(template);
+        var output = source(stamped);
+        var sourceMedia = entry(source, MEDIA);
+        var outputMedia = entry(output, MEDIA);
+        assertEquals(ZipSource.DEFLATED, outputMedia.method());
+        assertEquals(sourceMedia.crc(), outputMedia.crc());
+        assertEquals(source.raw(sourceMedia), output.raw(outputMedia));
+        assertNotEquals(entry(source, DOCUMENT).crc(), entry(output, DOCUMENT).crc());
+    }
+
+    /// Already compressed media stored in the source archive are copied stored, rather than deflated for nothing.
+    @Test
+    @DisplayName("Stored media are copied as stored entries")
+    void storedMediaAreCopied()
+            throws IOException {
+        var template = Files.readAllBytes(TEMPLATE);
+        var stamped = stamp(template, RAW_COPY);
+
+        var source = source(template);
+        var output = source(stamped);
+        var sourceMedia = entry(source, MEDIA);
+        var outputMedia = entry(output, MEDIA);
+        assertEquals(ZipSource.STORED, sourceMedia.method());
+        assertEquals(ZipSource.STORED, outputMedia.method());
+        assertEquals(source.raw(sourceMedia), output.raw(outputMedia));
+        assertEquals(ZipSource.DEFLATED, entry(output, DOCUMENT).method());
+    }
+
+    /// Without raw copies, the package is saved by docx4j, which encodes every entry again.
+    @Test
+    @DisplayName("Default export encodes every entry")
+    void defaultExportEncodes()
+            throws IOException {
+        var template = Files.readAllBytes(TEMPLATE);
+        var stamped = stamp(template, ExportOptions.defaults());
+
+        var source = source(template);
+        var output = source(stamped);
+        var outputMedia = entry(output, MEDIA);
+        assertEquals(ZipSource.STORED, entry(source, MEDIA).method());
+        assertEquals(ZipSource.DEFLATED, outputMedia.method());
+        assertArrayEquals(source.read(entry(source, MEDIA)), output.read(outputMedia));
+    }
+
+    /// A binary part whose content no longer matches the CRC of its source entry is encoded again.
+    @Test
+    @DisplayName("Changed media are encoded again")
+    void changedMediaAreEncoded()
+            throws IOException, InvalidFormatException {
+        var template = deflated(Files.readAllBytes(TEMPLATE));
+        var document = OpenpackagingUtils.loadWord(ByteBuffer.wrap(template));
+        var media = (BinaryPart) document.getParts()
+                                         .get(new PartName("/" + MEDIA));
+        var content = Files.readAllBytes(Path.of("..", "src", "test", "resources", "sample-monalisa-20x20.png"));
+        media.setBinaryData(content);
+        var output = new ByteArrayOutputStream();
+        OpenpackagingUtils.exportWord(document, output, RAW_COPY);
+
+        var stamped = source(output.toByteArray());
+        var stampedMedia = entry(stamped, MEDIA);
+        assertNotEquals(entry(source(template), MEDIA).crc(), stampedMedia.crc());
+        assertArrayEquals(content, stamped.read(stampedMedia));
+    }
+
+    /// A package created in memory has no source archive, so every part is encoded.
+    @Test
+    @DisplayName("Packages without source archive are exported whole")
+    void untrackedPackage()
+            throws InvalidFormatException {
+        var document = WordprocessingMLPackage.createPackage();
+        document.getMainDocumentPart()
+                .addParagraphOfText("Stamped");
+        var output = new ByteArrayOutputStream();
+        OpenpackagingUtils.exportWord(document, output, RAW_COPY);
+
+        var exported = source(output.toByteArray());
+        var main = new String(exported.read(entry(exported, DOCUMENT)), StandardCharsets.UTF_8);
+        assertTrue(main.contains("Stamped"));
+    }
+}
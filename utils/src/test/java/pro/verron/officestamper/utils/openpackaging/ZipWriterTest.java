@@ -0,0 +1,146 @@
+package pro.verron.officestamper.utils.openpackaging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pro.verron.officestamper.utils.concurrent.BoundedExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Tests the [ZipWriter] and [ZipSource] classes.
+public class ZipWriterTest {
+
+    /// Default constructor.
+    public ZipWriterTest() {
+    }
+
+    private static byte[] content(int size) {
+        var builder = new StringBuilder(size);
+        for (int i = 0; builder.length() < size; i++)
+            builder.append("<w:p><w:r><w:t>Paragraph ")
+                   .append(i * 7919 % 10007)
+                   .append("</w:t></w:r></w:p>");
+        return builder.substring(0, size)
+                      .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, byte[]> unzip(byte[] archive)
+            throws IOException {
+        var entries = new LinkedHashMap<String, byte[]>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry())
+                entries.put(entry.getName(), zip.readAllBytes());
+        }
+        return entries;
+    }
+
+    /// An entry deflated in parallel chunks must inflate back to its content, like entries deflated on the calling
+    /// thread or stored.
+    @Test
+    @DisplayName("Encoded entries round-trip, whatever their compression")
+    void encodedEntriesRoundTrip()
+            throws IOException {
+        var large = content(1_000_000);
+        var small = content(1_000);
+        var output = new ByteArrayOutputStream();
+        try (var pool = Executors.newFixedThreadPool(4)) {
+            var writer = new ZipWriter(output);
+            var chunks = new BoundedExecutor(pool, 4);
+            writer.write(ZipWriter.encodeChunked("parallel.xml", large, Deflater.DEFAULT_COMPRESSION, chunks));
+            writer.write(ZipWriter.encode("sequential.xml", large, Deflater.BEST_SPEED));
+            writer.write(ZipWriter.encode("stored.xml", small, Deflater.NO_COMPRESSION));
+            writer.finish();
+        }
+
+        var entries = unzip(output.toByteArray());
+        assertArrayEquals(large, entries.get("parallel.xml"));
+        assertArrayEquals(large, entries.get("sequential.xml"));
+        assertArrayEquals(small, entries.get("stored.xml"));
+    }
+
+    /// Deflating the chunks of an entry on a pool must not change the encoded bytes.
+    @Test
+    @DisplayName("Chunked entries do not depend on the pool")
+    void chunkedEntriesAreDeterministic() {
+        var content = content(700_000);
+        var sequential = ZipWriter.encodeChunked("document.xml", content, Deflater.DEFAULT_COMPRESSION, null);
+        ZipWriter.Encoded parallel;
+        try (var pool = Executors.newFixedThreadPool(3)) {
+            var chunks = new BoundedExecutor(pool, 3);
+            parallel = ZipWriter.encodeChunked("document.xml", content, Deflater.DEFAULT_COMPRESSION, chunks);
+        }
+        assertEquals(sequential.crc(), parallel.crc());
+        assertEquals(sequential.data(), parallel.data());
+    }
+
+    /// Entries copied from a source archive keep their compressed data untouched.
+    @Test
+    @DisplayName("Raw entries are copied without being re-encoded")
+    void rawEntriesAreCopied()
+            throws IOException {
+        var content = content(300_000);
+        var original = new ByteArrayOutputStream();
+        var writer = new ZipWriter(original);
+        writer.write(ZipWriter.encode("word/document.xml", content, Deflater.BEST_COMPRESSION));
+        writer.finish();
+
+        var source = ZipSource.of(ByteBuffer.wrap(original.toByteArray()))
+                              .orElseThrow();
+        var entry = source.entry("word/document.xml")
+                          .orElseThrow();
+        var copy = new ByteArrayOutputStream();
+        var copier = new ZipWriter(copy);
+        copier.write(ZipWriter.raw(source, entry));
+        copier.finish();
+
+        assertArrayEquals(original.toByteArray(), copy.toByteArray());
+        assertArrayEquals(content, source.read(entry));
+        assertArrayEquals(content, unzip(copy.toByteArray()).get("word/document.xml"));
+    }
+
+    /// More entries than the classic end of central directory can count switch the archive to ZIP64 records.
+    @Test
+    @DisplayName("Archives with more than 65535 entries are written as ZIP64")
+    void zip64EntryCount(@TempDir Path directory)
+            throws IOException {
+        var count = 70_000;
+        var content = content(10);
+        var archive = directory.resolve("large.zip");
+        try (var output = Files.newOutputStream(archive)) {
+            var writer = new ZipWriter(output);
+            for (int i = 0; i < count; i++)
+                writer.write(ZipWriter.encode("entry" + i + ".xml", content, Deflater.NO_COMPRESSION));
+            writer.finish();
+        }
+
+        try (var zip = new ZipFile(archive.toFile())) {
+            assertEquals(count, zip.size());
+            var last = zip.getEntry("entry" + (count - 1) + ".xml");
+            try (var stream = zip.getInputStream(last)) {
+                assertArrayEquals(content, stream.readAllBytes());
+            }
+        }
+    }
+
+    /// Archives using features the source does not support are rejected rather than misread.
+    @Test
+    @DisplayName("A buffer that is not an archive has no source")
+    void notAnArchive() {
+        assertTrue(ZipSource.of(ByteBuffer.wrap(content(100)))
+                            .isEmpty());
+    }
+}